@@ -0,0 +1,67 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRTransaction;
+import com.realcomp.mvr.Vehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating, filling, reading and copying the attributes of MVRTransactions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributesBenchmark{
+
+    @Param({"0", "3", "12"})
+    public int attributes;
+
+    private String[] keys;
+    private MVRTransaction transaction;
+
+    @Setup
+    public void setup(){
+        keys = new String[attributes];
+        transaction = new MVRTransaction();
+        for (int i = 0; i < attributes; i++){
+            keys[i] = "key" + i;
+            transaction.setAttribute(keys[i], Integer.toString(i));
+        }
+    }
+
+    @Benchmark
+    public MVRTransaction create(){
+        MVRTransaction tx = new MVRTransaction();
+        for (String key: keys){
+            tx.setAttribute(key, key);
+        }
+        return tx;
+    }
+
+    @Benchmark
+    public int get(){
+        int found = 0;
+        for (String key: keys){
+            if (transaction.getAttributes().get(key) != null){
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public MVRTransaction copyAndModify(){
+        MVRTransaction copy = new MVRTransaction(transaction);
+        copy.setAttribute("copy", "true");
+        return copy;
+    }
+
+    @Benchmark
+    public Vehicle vehicle(){
+        return new Vehicle();
+    }
+}
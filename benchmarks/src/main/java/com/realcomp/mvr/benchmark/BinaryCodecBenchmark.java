@@ -0,0 +1,42 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRBinaryCodec;
+import com.realcomp.mvr.MVRDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MVRBinaryCodec encoding and decoding of a MVRDocument; compare with JsonBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark{
+
+    @Param({"1", "20"})
+    public int historySize;
+
+    private MVRDocument document;
+    private byte[] encoded;
+
+    @Setup
+    public void setup(){
+        document = Fixtures.document(Fixtures.random(), historySize);
+        encoded = MVRBinaryCodec.encode(document);
+    }
+
+    @Benchmark
+    public byte[] encode(){
+        return MVRBinaryCodec.encode(document);
+    }
+
+    @Benchmark
+    public MVRDocument decode(){
+        return MVRBinaryCodec.decodeDocument(ByteBuffer.wrap(encoded));
+    }
+}
@@ -0,0 +1,60 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRDocumentGUID;
+import com.realcomp.mvr.MVRTransaction;
+import com.realcomp.mvr.ParallelDocumentBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building MVRDocuments from a shuffled list of MVRTransactions, one document at a time
+ * with addHistory() and with the ParallelDocumentBuilder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuilderBenchmark{
+
+    @Param({"200000"})
+    public int transactions;
+
+    private List<MVRTransaction> input;
+    private ParallelDocumentBuilder builder;
+
+    @Setup
+    public void setup(){
+        Random random = Fixtures.random();
+        input = new ArrayList<>(transactions);
+        while (input.size() < transactions){
+            input.addAll(Fixtures.history(random, Integer.toString(random.nextInt(Integer.MAX_VALUE)), 1 + random.nextInt(8)));
+        }
+        Collections.shuffle(input, random);
+        builder = new ParallelDocumentBuilder();
+    }
+
+    @Benchmark
+    public Collection<MVRDocument> sequential(){
+        Map<String, MVRDocument> documents = new TreeMap<>();
+        for (MVRTransaction tx: input){
+            String guid = MVRDocumentGUID.generate(tx.getSource(), tx.getId());
+            MVRDocument document = documents.get(guid);
+            if (document == null){
+                document = new MVRDocument(tx);
+                documents.put(guid, document);
+            }
+            document.addHistory(tx);
+        }
+        return documents.values();
+    }
+
+    @Benchmark
+    public List<MVRDocument> parallel(){
+        return builder.build(input);
+    }
+}
@@ -0,0 +1,129 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.CodeTable;
+import com.realcomp.mvr.Color;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of a batch of raw color codes with a CodeTable, against the trim, upper case and switch chain a
+ * hand written state loader uses, and a HashMap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeTableBenchmark{
+
+    private static final int BATCH = 1000;
+    private static final int WIDTH = 4;
+    private static final String[] CODES = {
+        "BGE", "BLK", "BLU", "BRO", "GLD", "GRY", "GRN", "MAR", "ONG", "PNK", "PLE", "RED", "SIL", "TAN", "WHI", "YEL"};
+
+    private String[] codes;
+    private ByteBuffer buffer;
+    private Map<String, Color> map;
+    private CodeTable<Color> table;
+
+    @Setup
+    public void setup(){
+        map = new HashMap<>();
+        for (int i = 0; i < CODES.length; i++){
+            map.put(CODES[i], Color.values()[i]);
+        }
+        table = new CodeTable<>(Color.class, map);
+        Random random = Fixtures.random();
+        codes = new String[BATCH];
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < BATCH; i++){
+            String code = CODES[random.nextInt(CODES.length)];
+            codes[i] = random.nextBoolean() ? code.toLowerCase(Locale.ROOT) + " " : code;
+            all.append(String.format("%-" + WIDTH + "s", codes[i]));
+        }
+        buffer = ByteBuffer.wrap(all.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public int switchChain(){
+        int sum = 0;
+        for (String code: codes){
+            sum += translate(code).ordinal();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int hashMap(){
+        int sum = 0;
+        for (String code: codes){
+            sum += map.get(code.trim().toUpperCase(Locale.ROOT)).ordinal();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int codeTable(){
+        int sum = 0;
+        for (String code: codes){
+            sum += table.lookup(code).ordinal();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int codeTableBytes(){
+        int sum = 0;
+        for (int i = 0; i < BATCH; i++){
+            sum += table.lookup(buffer, i * WIDTH, WIDTH).ordinal();
+        }
+        return sum;
+    }
+
+    private static Color translate(String code){
+        switch (code.trim().toUpperCase(Locale.ROOT)){
+            case "BGE":
+                return Color.BEIGE;
+            case "BLK":
+                return Color.BLACK;
+            case "BLU":
+                return Color.BLUE;
+            case "BRO":
+                return Color.BROWN;
+            case "GLD":
+                return Color.GOLD;
+            case "GRY":
+                return Color.GRAY;
+            case "GRN":
+                return Color.GREEN;
+            case "MAR":
+                return Color.MAROON;
+            case "ONG":
+                return Color.ORANGE;
+            case "PNK":
+                return Color.PINK;
+            case "PLE":
+                return Color.PURPLE;
+            case "RED":
+                return Color.RED;
+            case "SIL":
+                return Color.SILVER;
+            case "TAN":
+                return Color.TAN;
+            case "WHI":
+                return Color.WHITE;
+            case "YEL":
+                return Color.YELLOW;
+            default:
+                return null;
+        }
+    }
+}
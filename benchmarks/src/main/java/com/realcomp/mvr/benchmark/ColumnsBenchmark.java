@@ -0,0 +1,68 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRTransaction;
+import com.realcomp.mvr.MVRTransactionColumns;
+import com.realcomp.mvr.TitleFlag;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filter on make, transactionDate and the title brands over a List of MVRTransactions
+ * and over the same rows in MVRTransactionColumns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnsBenchmark{
+
+    private static final String MAKE = "FORD";
+    private static final int FROM = 20100101;
+    private static final int TO = 20151231;
+
+    @Param({"100000"})
+    public int rows;
+
+    private List<MVRTransaction> transactions;
+    private MVRTransactionColumns columns;
+
+    @Setup
+    public void setup(){
+        Random random = Fixtures.random();
+        transactions = new ArrayList<>(rows);
+        columns = new MVRTransactionColumns(rows);
+        for (int i = 0; i < rows; i++){
+            MVRTransaction tx = Fixtures.transaction(random, Integer.toString(i));
+            transactions.add(tx);
+            columns.add(tx);
+        }
+    }
+
+    @Benchmark
+    public int objects(){
+        int count = 0;
+        for (MVRTransaction tx: transactions){
+            int date = tx.getTransactionDateAsInt();
+            if (tx.getVehicle() != null && MAKE.equals(tx.getVehicle().getMake())
+                    && date >= FROM && date <= TO && tx.isBranded()){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int columns(){
+        BitSet result = columns.whereEquals(MVRTransactionColumns.StringColumn.MAKE, MAKE);
+        result.and(columns.whereDateBetween(MVRTransactionColumns.DateColumn.TRANSACTION_DATE, FROM, TO));
+        result.and(columns.whereAnyFlag(TitleFlag.BRAND_MASK));
+        return result.cardinality();
+    }
+}
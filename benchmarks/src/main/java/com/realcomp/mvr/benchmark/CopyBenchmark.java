@@ -0,0 +1,63 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the copy constructors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyBenchmark{
+
+    @Param({"1", "50", "500"})
+    public int historySize;
+
+    private MVRDocument document;
+    private MVRTransaction transaction;
+    private Vehicle vehicle;
+    private Owner owner;
+    private LienHolder lienHolder;
+
+    @Setup
+    public void setup(){
+        Random random = Fixtures.random();
+        document = Fixtures.document(random, historySize);
+        transaction = Fixtures.transaction(random, "10000000001");
+        vehicle = Fixtures.vehicle(random);
+        owner = Fixtures.owner(random);
+        lienHolder = Fixtures.lienHolder(random);
+    }
+
+    @Benchmark
+    public MVRDocument copyDocument(){
+        return new MVRDocument(document);
+    }
+
+    @Benchmark
+    public MVRTransaction copyTransaction(){
+        return new MVRTransaction(transaction);
+    }
+
+    @Benchmark
+    public Vehicle copyVehicle(){
+        return new Vehicle(vehicle);
+    }
+
+    @Benchmark
+    public Owner copyOwner(){
+        return new Owner(owner);
+    }
+
+    @Benchmark
+    public LienHolder copyLienHolder(){
+        return new LienHolder(lienHolder);
+    }
+}
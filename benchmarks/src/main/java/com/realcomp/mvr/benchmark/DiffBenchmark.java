@@ -0,0 +1,36 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.TransactionDiff;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field level diff of the history of a MVRDocument.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark{
+
+    @Param({"20", "500"})
+    public int historySize;
+
+    private MVRDocument document;
+
+    @Setup
+    public void setup(){
+        document = Fixtures.document(Fixtures.random(), historySize);
+    }
+
+    @Benchmark
+    public int diffHistory(Blackhole blackhole){
+        return TransactionDiff.diffHistory(document,
+                (previous, current, field, oldValue, newValue) -> blackhole.consume(field));
+    }
+}
@@ -0,0 +1,54 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * equals/hashCode on fully populated MVRTransactions.
+ * The worst case for equals is two distinct but equal instances, which compares every field.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EqualityBenchmark{
+
+    private MVRTransaction transaction;
+    private MVRTransaction equalCopy;
+    private MVRTransaction different;
+    private MVRDocument document;
+
+    @Setup
+    public void setup(){
+        transaction = Fixtures.transaction(Fixtures.random(), "10000000001");
+        equalCopy = new MVRTransaction(transaction);
+        different = new MVRTransaction(transaction);
+        different.setHeavyUseTax(!transaction.isHeavyUseTax());
+        document = Fixtures.document(Fixtures.random(), 50);
+    }
+
+    @Benchmark
+    public boolean equalsEqual(){
+        return transaction.equals(equalCopy);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent(){
+        return transaction.equals(different);
+    }
+
+    @Benchmark
+    public int hashCodeTransaction(){
+        return transaction.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeDocument(){
+        return document.hashCode();
+    }
+}
@@ -0,0 +1,38 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MVRFingerprint of fully populated MVRTransactions and MVRDocuments, to set against EqualityBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FingerprintBenchmark{
+
+    private MVRTransaction transaction;
+    private MVRDocument document;
+
+    @Setup
+    public void setup(){
+        transaction = Fixtures.transaction(Fixtures.random(), "10000000001");
+        document = Fixtures.document(Fixtures.random(), 50);
+    }
+
+    @Benchmark
+    public long fingerprintTransaction(){
+        return transaction.fingerprint();
+    }
+
+    @Benchmark
+    public long fingerprintDocument(){
+        return document.fingerprint();
+    }
+}
@@ -0,0 +1,133 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a block of 200 byte fixed-width records into MVRTransactions with FixedWidthParser, reading from a
+ * direct ByteBuffer as it would from a mapped file, against a substring and trim parser over the decoded lines.
+ * About a quarter of each record is filler that neither parser reads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedWidthBenchmark{
+
+    private static final int RECORDS = 1000;
+    private static final int RECORD_LENGTH = 200;
+    private static final String[] COLORS = {"BLK", "WHI", "RED", "BLU", "SIL", "GRY"};
+
+    private byte[] data;
+    private ByteBuffer buffer;
+    private Map<String, Color> colors;
+    private FixedWidthParser parser;
+
+    @Setup
+    public void setup(){
+        colors = new HashMap<>();
+        colors.put("BLK", Color.BLACK);
+        colors.put("WHI", Color.WHITE);
+        colors.put("RED", Color.RED);
+        colors.put("BLU", Color.BLUE);
+        colors.put("SIL", Color.SILVER);
+        colors.put("GRY", Color.GRAY);
+        parser = new FixedWidthParser(new FixedWidthLayout(RECORD_LENGTH, Arrays.asList(
+                new FixedWidthField(FixedWidthTarget.ID, 0, 12),
+                new FixedWidthField(FixedWidthTarget.TRANSACTION_DATE, 12, 8),
+                new FixedWidthField(FixedWidthTarget.TITLE_ISSUE_DATE, 20, 8),
+                new FixedWidthField(FixedWidthTarget.PLATE, 28, 7),
+                new FixedWidthField(FixedWidthTarget.REGISTRATION_COUNTY, 35, 10),
+                new FixedWidthField(FixedWidthTarget.VIN, 45, 17),
+                new FixedWidthField(FixedWidthTarget.MAKE, 62, 4),
+                new FixedWidthField(FixedWidthTarget.MODEL, 66, 10),
+                new FixedWidthField(FixedWidthTarget.MODEL_YEAR, 76, 4),
+                new FixedWidthField(FixedWidthTarget.PRIMARY_COLOR, 80, 3, new CodeTable<>(Color.class, colors)),
+                new FixedWidthField(FixedWidthTarget.EMPTY_WEIGHT, 83, 6),
+                new FixedWidthField(FixedWidthTarget.GROSS_WEIGHT, 89, 6),
+                FixedWidthField.flag(TitleFlag.STOLEN, 95, 1),
+                new FixedWidthField(FixedWidthTarget.OWNER_RAW_NAME, 96, 30),
+                new FixedWidthField(FixedWidthTarget.OWNER_RAW_NAME, 126, 30).inGroup(1))));
+
+        Random random = Fixtures.random();
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++){
+            Vehicle vehicle = Fixtures.vehicle(random);
+            String record = String.format("%-12s%s%s%-7s%-10s%s%-4s%-10s%s%s%6d%6d%s%-30s%-30s",
+                    "TX" + i,
+                    Fixtures.date(random),
+                    Fixtures.date(random),
+                    "ABC" + random.nextInt(9999),
+                    "TRAVIS",
+                    vehicle.getVin(),
+                    vehicle.getMake(),
+                    vehicle.getModel(),
+                    vehicle.getModelYear(),
+                    COLORS[random.nextInt(COLORS.length)],
+                    vehicle.getEmptyWeight(),
+                    vehicle.getGrossWeight(),
+                    random.nextInt(50) == 0 ? "Y" : "N",
+                    "OWNER " + random.nextInt(100000),
+                    random.nextBoolean() ? "CO-OWNER " + random.nextInt(100000) : "");
+            records.append(String.format("%-" + RECORD_LENGTH + "s", record)).append('\n');
+        }
+        data = records.toString().getBytes(StandardCharsets.ISO_8859_1);
+        buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data);
+        buffer.flip();
+    }
+
+    @Benchmark
+    public long substring(){
+        long sum = 0;
+        for (int offset = 0; offset < data.length; offset += RECORD_LENGTH + 1){
+            sum += parse(new String(data, offset, RECORD_LENGTH, StandardCharsets.ISO_8859_1)).getTransactionDateAsInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long parser(){
+        long[] sum = new long[1];
+        parser.parse(buffer, tx -> sum[0] += tx.getTransactionDateAsInt());
+        return sum[0];
+    }
+
+    private MVRTransaction parse(String line){
+        MVRTransaction tx = new MVRTransaction();
+        tx.setId(line.substring(0, 12).trim());
+        tx.setTransactionDate(line.substring(12, 20).trim());
+        tx.setTitleIssueDate(line.substring(20, 28).trim());
+        tx.setPlate(line.substring(28, 35).trim());
+        tx.setRegistrationCounty(line.substring(35, 45).trim());
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVin(line.substring(45, 62).trim());
+        vehicle.setMake(line.substring(62, 66).trim());
+        vehicle.setModel(line.substring(66, 76).trim());
+        vehicle.setModelYear(line.substring(76, 80).trim());
+        vehicle.setPrimaryColor(colors.get(line.substring(80, 83).trim()));
+        vehicle.setEmptyWeight(Integer.parseInt(line.substring(83, 89).trim()));
+        vehicle.setGrossWeight(Integer.parseInt(line.substring(89, 95).trim()));
+        tx.setVehicle(vehicle);
+        tx.setStolen(line.substring(95, 96).equals("Y"));
+        for (int offset = 96; offset < 156; offset += 30){
+            String name = line.substring(offset, offset + 30).trim();
+            if (!name.isEmpty()){
+                Owner owner = new Owner();
+                owner.setRawName(name);
+                tx.addOwner(owner);
+            }
+        }
+        return tx;
+    }
+}
@@ -0,0 +1,136 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds realistic, fully populated model instances for the benchmarks.
+ * All fixtures are generated from a fixed seed so runs are comparable between versions.
+ */
+public final class Fixtures{
+
+    private static final String[] MAKES = {"FORD", "CHEV", "TOYT", "HOND", "DODG", "NISS", "GMC", "JEEP"};
+    private static final String[] MODELS = {"F150", "SILVERADO", "CAMRY", "ACCORD", "RAM", "ALTIMA", "SIERRA", "WRANGLER"};
+    private static final String[] COUNTIES = {"TRAVIS", "HARRIS", "DALLAS", "BEXAR", "TARRANT", "COLLIN", "DENTON"};
+    private static final String[] LENDERS = {"ALLY FINANCIAL", "WELLS FARGO DEALER SVCS", "CAPITAL ONE AUTO FINANCE"};
+    private static final String VIN_CHARS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ";
+
+    private Fixtures(){
+    }
+
+    public static Random random(){
+        return new Random(8675309L);
+    }
+
+    public static String vin(Random random){
+        char[] vin = new char[17];
+        for (int i = 0; i < vin.length; i++){
+            vin[i] = VIN_CHARS.charAt(random.nextInt(VIN_CHARS.length()));
+        }
+        return new String(vin);
+    }
+
+    public static String date(Random random){
+        int year = 1990 + random.nextInt(28);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(28);
+        return String.format("%04d%02d%02d", year, month, day);
+    }
+
+    public static Vehicle vehicle(Random random){
+        int pick = random.nextInt(MAKES.length);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVin(vin(random));
+        vehicle.setMake(MAKES[pick]);
+        vehicle.setModel(MODELS[pick]);
+        vehicle.setModelYear(Integer.toString(1990 + random.nextInt(28)));
+        vehicle.setBodyTypeCode("PK");
+        vehicle.setVehicleClass(VehicleClass.TRUCK);
+        vehicle.setVehicleClassCode("PICKUP");
+        vehicle.setPrimaryColor(Color.values()[random.nextInt(Color.values().length)]);
+        vehicle.setSecondaryColor(Color.WHITE);
+        vehicle.setFuelType(FuelType.GASOLINE);
+        vehicle.setEmptyWeight(4000 + random.nextInt(2000));
+        vehicle.setGrossWeight(6000 + random.nextInt(2000));
+        vehicle.setTonage(1.5f);
+        vehicle.setOdometerBrand("A");
+        vehicle.setOdometerReading(Integer.toString(random.nextInt(250000)));
+        vehicle.setAttribute("plantCode", "K");
+        return vehicle;
+    }
+
+    public static Owner owner(Random random){
+        Owner owner = new Owner();
+        owner.setId(Integer.toString(random.nextInt(1000000)));
+        owner.setRawName("OWNER " + random.nextInt(100000));
+        owner.setCountry("US");
+        owner.setOwnerEvidenceType(OwnerEvidenceType.STATE_TITLE);
+        return owner;
+    }
+
+    public static LienHolder lienHolder(Random random){
+        LienHolder lienHolder = new LienHolder();
+        lienHolder.setId(Integer.toString(random.nextInt(1000000)));
+        lienHolder.setRawName(LENDERS[random.nextInt(LENDERS.length)]);
+        lienHolder.setLienDate(date(random));
+        lienHolder.setLienCountry("US");
+        return lienHolder;
+    }
+
+    /**
+     * @return a fully populated transaction for the title with the specified id
+     */
+    public static MVRTransaction transaction(Random random, String id){
+        MVRTransaction tx = new MVRTransaction();
+        tx.setId(id);
+        tx.setSource("TXDMV");
+        tx.setState("TX");
+        tx.setTransactionDate(date(random));
+        tx.setType(DocumentType.TITLE);
+        tx.setTransactionStatus(TransactionStatus.APPROVED);
+        tx.setTitleIssueDate(date(random));
+        tx.setPlate(Integer.toString(100000 + random.nextInt(900000), 36).toUpperCase());
+        tx.setRegistrationClassCode("25");
+        tx.setRegistrationCounty(COUNTIES[random.nextInt(COUNTIES.length)]);
+        tx.setRegistrationEffectiveDate(date(random));
+        tx.setRegistrationExpMonth(String.format("%02d", 1 + random.nextInt(12)));
+        tx.setRegistrationExpYear(Integer.toString(2000 + random.nextInt(18)));
+        tx.setSalePrice(Integer.toString(1000 + random.nextInt(40000)));
+        tx.setSaleDate(date(random));
+        tx.setVehicle(vehicle(random));
+        tx.setRawRenewalName("RENEWAL " + random.nextInt(100000));
+        tx.addOwner(owner(random));
+        if (random.nextBoolean()){
+            tx.addOwner(owner(random));
+        }
+        tx.addLienHolder(lienHolder(random));
+        tx.setFloodDamage(random.nextInt(50) == 0);
+        tx.setReconditioned(random.nextInt(50) == 0);
+        tx.setHeavyUseTax(random.nextInt(20) == 0);
+        tx.setAttribute("officeCode", Integer.toString(random.nextInt(254)));
+        tx.setAttribute("titleType", "O");
+        return tx;
+    }
+
+    /**
+     * @return size transactions for a single title, in random (feed) order
+     */
+    public static List<MVRTransaction> history(Random random, String id, int size){
+        List<MVRTransaction> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++){
+            history.add(transaction(random, id));
+        }
+        return history;
+    }
+
+    public static MVRDocument document(Random random, int historySize){
+        String id = Long.toString(10000000000L + random.nextInt(Integer.MAX_VALUE));
+        List<MVRTransaction> history = history(random, id, historySize);
+        MVRDocument document = new MVRDocument(history.get(0));
+        document.setHistory(history);
+        return document;
+    }
+}
@@ -0,0 +1,35 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRDocumentGUID;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MVRDocumentGUID generation, directly and through the MVRDocument setters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GUIDBenchmark{
+
+    private String source = "TXDMV";
+    private String id = "10000000001";
+
+    @Benchmark
+    public String generate(){
+        return MVRDocumentGUID.generate(source, id);
+    }
+
+    @Benchmark
+    public String buildDocument(){
+        MVRDocument document = new MVRDocument();
+        document.setSource(source);
+        document.setId(id);
+        return document.getGuid();
+    }
+}
@@ -0,0 +1,86 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRTransaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading every transaction in a MVRDocument history through each access path, and of point-in-time
+ * and range lookups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryAccessBenchmark{
+
+    @Param({"10", "100", "500"})
+    public int historySize;
+
+    private MVRDocument document;
+    private int from;
+    private int to;
+
+    @Setup
+    public void setup(){
+        document = Fixtures.document(Fixtures.random(), historySize);
+        from = document.getHistory(historySize / 4).getTransactionDateAsInt();
+        to = document.getHistory(historySize / 2).getTransactionDateAsInt();
+    }
+
+    @Benchmark
+    public void getHistory(Blackhole blackhole){
+        for (MVRTransaction tx: document.getHistory()){
+            blackhole.consume(tx.getTransactionDateAsInt());
+        }
+    }
+
+    @Benchmark
+    public void historyView(Blackhole blackhole){
+        for (MVRTransaction tx: document.getHistoryView()){
+            blackhole.consume(tx.getTransactionDateAsInt());
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole){
+        for (int i = 0; i < document.historySize(); i++){
+            blackhole.consume(document.getHistory(i).getTransactionDateAsInt());
+        }
+    }
+
+    @Benchmark
+    public void forEachHistory(Blackhole blackhole){
+        document.forEachHistory(tx -> blackhole.consume(tx.getTransactionDateAsInt()));
+    }
+
+    @Benchmark
+    public long historyStream(){
+        return document.historyStream().mapToInt(MVRTransaction::getTransactionDateAsInt).sum();
+    }
+
+    @Benchmark
+    public MVRTransaction getLatest(){
+        return document.getLatest().get();
+    }
+
+    @Benchmark
+    public MVRTransaction getLatestOrNull(){
+        return document.getLatestOrNull();
+    }
+
+    @Benchmark
+    public MVRTransaction getAsOf(){
+        return document.getAsOf(to).get();
+    }
+
+    @Benchmark
+    public int getHistoryBetween(){
+        return document.getHistoryBetween(from, to).size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a MVRDocument history with one addHistory(Collection), to set against HistoryBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBatchBenchmark{
+
+    @Param({"10", "100", "500"})
+    public int historySize;
+
+    private List<MVRTransaction> transactions;
+
+    @Setup
+    public void setup(){
+        transactions = Fixtures.history(Fixtures.random(), "10000000001", historySize);
+    }
+
+    @Benchmark
+    public MVRDocument addHistoryBatch(){
+        MVRDocument document = new MVRDocument(transactions.get(0));
+        document.addHistory(transactions);
+        return document;
+    }
+}
@@ -0,0 +1,57 @@
+package com.realcomp.mvr.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of a MVRDocument with the MVRModule serializers,
+ * to set against the default bean serialization in JsonBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonModuleBenchmark{
+
+    @Param({"1", "20"})
+    public int historySize;
+
+    private MVRDocument document;
+    private byte[] json;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() throws IOException{
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new MVRModule());
+        reader = mapper.readerFor(MVRDocument.class);
+        writer = mapper.writerFor(MVRDocument.class);
+        document = Fixtures.document(Fixtures.random(), historySize);
+        json = writer.writeValueAsBytes(document);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException{
+        return writer.writeValueAsBytes(document);
+    }
+
+    @Benchmark
+    public MVRDocument deserialize() throws IOException{
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public MVRDocument roundTrip() throws IOException{
+        return reader.readValue(writer.writeValueAsBytes(document));
+    }
+}
@@ -0,0 +1,76 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.MVRBinaryCodec;
+import com.realcomp.mvr.MVRBinaryWriter;
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MappedDocumentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * GUID lookups in a MappedDocumentRepository, with and without decoding the record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark{
+
+    @Param({"100000"})
+    public int documents;
+
+    private Path directory;
+    private MappedDocumentRepository repository;
+    private String[] guids;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException{
+        Random random = Fixtures.random();
+        directory = Files.createTempDirectory("mvr-repository");
+        guids = new String[documents];
+        try (MVRBinaryWriter<MVRDocument> writer = MVRBinaryCodec.documentWriter(directory.resolve("0.mvrb"))){
+            for (int i = 0; i < documents; i++){
+                MVRDocument document = Fixtures.document(random, 1 + random.nextInt(5));
+                guids[i] = document.getGuid();
+                writer.write(document);
+            }
+        }
+        MappedDocumentRepository.buildIndex(directory);
+        repository = MappedDocumentRepository.open(directory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException{
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)){
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private String nextGuid(){
+        next = (next + 7919) % guids.length;
+        return guids[next];
+    }
+
+    @Benchmark
+    public Optional<ByteBuffer> getRecord(){
+        return repository.getRecord(nextGuid());
+    }
+
+    @Benchmark
+    public Optional<MVRDocument> get(){
+        return repository.get(nextGuid());
+    }
+}
@@ -0,0 +1,47 @@
+package com.realcomp.mvr.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.realcomp.mvr.BoundedStringPool;
+import com.realcomp.mvr.MVRDocument;
+import com.realcomp.mvr.MVRJson;
+import com.realcomp.mvr.StringPool;
+import com.realcomp.mvr.StringPools;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of routing the low-cardinality fields through the StringPool while deserializing a MVRDocument.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringPoolBenchmark{
+
+    @Param({"none", "bounded"})
+    public String pool;
+
+    private byte[] json;
+    private ObjectReader reader;
+
+    @Setup
+    public void setup() throws IOException{
+        StringPools.set("bounded".equals(pool) ? new BoundedStringPool() : StringPool.NONE);
+        reader = MVRJson.getObjectMapper().readerFor(MVRDocument.class);
+        json = MVRJson.getObjectMapper().writeValueAsBytes(Fixtures.document(Fixtures.random(), 20));
+    }
+
+    @TearDown
+    public void tearDown(){
+        StringPools.set(StringPool.NONE);
+    }
+
+    @Benchmark
+    public MVRDocument deserialize() throws IOException{
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,57 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.FieldValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * FieldValidator compared against the java.util.regex patterns the setters used before it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark{
+
+    private static final Pattern DATE_PATTERN = Pattern.compile("^[0-9]{8}$"); //YYYYMMDD
+    private static final Pattern MONTH_PATTERN = Pattern.compile("^[0-9]{2}$"); //MM
+    private static final Pattern YEAR_PATTERN = Pattern.compile("^[0-9]{4}$"); //YYYY
+
+    private String date = "20170804";
+    private String month = "08";
+    private String year = "2017";
+
+    @Benchmark
+    public boolean regexDate(){
+        return DATE_PATTERN.matcher(date).matches();
+    }
+
+    @Benchmark
+    public boolean validatorDate(){
+        return FieldValidator.isDate(date);
+    }
+
+    @Benchmark
+    public boolean regexMonth(){
+        return MONTH_PATTERN.matcher(month).matches();
+    }
+
+    @Benchmark
+    public boolean validatorMonth(){
+        return FieldValidator.isMonth(month);
+    }
+
+    @Benchmark
+    public boolean regexYear(){
+        return YEAR_PATTERN.matcher(year).matches();
+    }
+
+    @Benchmark
+    public boolean validatorYear(){
+        return FieldValidator.isYear(year);
+    }
+}
@@ -0,0 +1,73 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.VinDecoder;
+import com.realcomp.mvr.VinValidity;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * VIN validation and model year decoding over a batch of VINs, against a regular expression baseline that
+ * only checks the alphabet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VinDecoderBenchmark{
+
+    private static final Pattern VIN = Pattern.compile("[A-HJ-NPR-Z0-9]{17}");
+    private static final int BATCH = 1000;
+
+    private String[] vins;
+    private byte[] data;
+    private VinValidity[] results;
+
+    @Setup
+    public void setup(){
+        Random random = Fixtures.random();
+        vins = new String[BATCH];
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < BATCH; i++){
+            vins[i] = Fixtures.vehicle(random).getVin();
+            all.append(vins[i]);
+        }
+        data = all.toString().getBytes(StandardCharsets.US_ASCII);
+        results = new VinValidity[BATCH];
+    }
+
+    @Benchmark
+    public int regex(){
+        int valid = 0;
+        for (String vin: vins){
+            if (VIN.matcher(vin).matches()){
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int validate(){
+        return VinDecoder.validate(vins, results);
+    }
+
+    @Benchmark
+    public int validateBytes(){
+        return VinDecoder.validate(data, 0, VinDecoder.VIN_LENGTH, BATCH, results);
+    }
+
+    @Benchmark
+    public int modelYear(){
+        int sum = 0;
+        for (String vin: vins){
+            sum += VinDecoder.modelYear(vin);
+        }
+        return sum;
+    }
+}
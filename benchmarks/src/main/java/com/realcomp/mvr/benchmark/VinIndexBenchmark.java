@@ -0,0 +1,54 @@
+package com.realcomp.mvr.benchmark;
+
+import com.realcomp.mvr.VinIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact and WMI prefix lookups in a VinIndex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VinIndexBenchmark{
+
+    @Param({"1000000"})
+    public int vins;
+
+    private VinIndex index;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void setup(){
+        Random random = Fixtures.random();
+        index = new VinIndex(vins);
+        keys = new String[vins];
+        for (int i = 0; i < vins; i++){
+            keys[i] = Fixtures.vin(random);
+            index.add(keys[i], "MVR-TXDMV-" + i);
+        }
+        index.size();
+    }
+
+    private String nextVin(){
+        next = (next + 7919) % keys.length;
+        return keys[next];
+    }
+
+    @Benchmark
+    public SortedSet<String> get(){
+        return index.get(nextVin());
+    }
+
+    @Benchmark
+    public SortedSet<String> findByWmiVds(){
+        return index.findByWmiVds(nextVin().substring(0, VinIndex.WMI_VDS_LENGTH));
+    }
+}
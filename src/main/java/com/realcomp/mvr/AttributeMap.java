@@ -0,0 +1,292 @@
+package com.realcomp.mvr;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact Map for the attributes of MVRDocuments, MVRTransactions and Vehicles, which are usually empty or hold a
+ * few keys.
+ * <p>
+ * Up to COMPACT_SIZE entries are kept in a single array of alternating keys and values, allocated on the first put
+ * and searched linearly; keys are usually canonical StringPool instances, so most comparisons are identity checks.
+ * A larger map is moved to a HashMap.
+ * <p>
+ * The array is never modified once it is in use: every put or remove replaces it with a new one of exactly the
+ * needed length. A copy made with copyOf() can therefore share the array of the original without either map, or
+ * anything else, being written to. A map held in a HashMap is copied.
+ * <p>
+ * Not thread-safe.
+ */
+final class AttributeMap extends AbstractMap<String, String>{
+
+    static final int COMPACT_SIZE = 8;
+
+    /**
+     * Exactly size alternating keys and values, or null if empty. Unused while map is set. Replaced, never modified.
+     */
+    private Object[] table;
+    private int size;
+    private HashMap<String, String> map;
+
+    private Set<Map.Entry<String, String>> entrySet;
+
+    AttributeMap(){
+    }
+
+    /**
+     * @param attributes
+     * @return a new AttributeMap with the entries of attributes, sharing its array if it is a compact
+     * AttributeMap; null if attributes is null or empty
+     */
+    static AttributeMap copyOf(Map<String, String> attributes){
+        if (attributes == null || attributes.isEmpty()){
+            return null;
+        }
+        AttributeMap copy = new AttributeMap();
+        if (attributes instanceof AttributeMap && ((AttributeMap) attributes).map == null){
+            AttributeMap source = (AttributeMap) attributes;
+            copy.table = source.table;
+            copy.size = source.size;
+        }
+        else{
+            copy.putAll(attributes);
+        }
+        return copy;
+    }
+
+    @Override
+    public int size(){
+        return map == null ? size : map.size();
+    }
+
+    @Override
+    public boolean isEmpty(){
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return map == null ? indexOf(key) >= 0 : map.containsKey(key);
+    }
+
+    @Override
+    public String get(Object key){
+        if (map != null){
+            return map.get(key);
+        }
+        int index = indexOf(key);
+        return index < 0 ? null : (String) table[index + 1];
+    }
+
+    @Override
+    public String put(String key, String value){
+        if (map != null){
+            return map.put(key, value);
+        }
+        int index = indexOf(key);
+        if (index >= 0){
+            return replaceAt(index, value);
+        }
+        if (size == COMPACT_SIZE){
+            map = new HashMap<>();
+            for (int i = 0; i < size * 2; i += 2){
+                map.put((String) table[i], (String) table[i + 1]);
+            }
+            table = null;
+            size = 0;
+            return map.put(key, value);
+        }
+        Object[] grown = table == null ? new Object[2] : Arrays.copyOf(table, size * 2 + 2);
+        grown[size * 2] = key;
+        grown[size * 2 + 1] = value;
+        table = grown;
+        size++;
+        return null;
+    }
+
+    @Override
+    public String remove(Object key){
+        if (!containsKey(key)){
+            return null;
+        }
+        if (map != null){
+            return map.remove(key);
+        }
+        return removeAt(indexOf(key));
+    }
+
+    @Override
+    public void clear(){
+        table = null;
+        size = 0;
+        map = null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet(){
+        if (entrySet == null){
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action){
+        if (map != null){
+            map.forEach(action);
+            return;
+        }
+        for (int i = 0; i < size * 2; i += 2){
+            action.accept((String) table[i], (String) table[i + 1]);
+        }
+    }
+
+    @Override
+    public int hashCode(){
+        if (map != null){
+            return map.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < size * 2; i += 2){
+            hash += Objects.hashCode(table[i]) ^ Objects.hashCode(table[i + 1]);
+        }
+        return hash;
+    }
+
+    /**
+     * @return the table index of the key, or -1
+     */
+    private int indexOf(Object key){
+        for (int i = 0; i < size * 2; i += 2){
+            if (table[i] == key){
+                return i;
+            }
+        }
+        if (key != null){
+            for (int i = 0; i < size * 2; i += 2){
+                if (key.equals(table[i])){
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private String replaceAt(int index, String value){
+        String previous = (String) table[index + 1];
+        Object[] replaced = table.clone();
+        replaced[index + 1] = value;
+        table = replaced;
+        return previous;
+    }
+
+    private String removeAt(int index){
+        String previous = (String) table[index + 1];
+        if (size == 1){
+            table = null;
+        }
+        else{
+            Object[] shrunk = new Object[size * 2 - 2];
+            System.arraycopy(table, 0, shrunk, 0, index);
+            System.arraycopy(table, index + 2, shrunk, index, shrunk.length - index);
+            table = shrunk;
+        }
+        size--;
+        return previous;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>>{
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator(){
+            return map == null ? new CompactIterator() : map.entrySet().iterator();
+        }
+
+        @Override
+        public int size(){
+            return AttributeMap.this.size();
+        }
+
+        @Override
+        public void clear(){
+            AttributeMap.this.clear();
+        }
+    }
+
+    private final class CompactIterator implements Iterator<Map.Entry<String, String>>{
+
+        private int next;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext(){
+            return next < size * 2;
+        }
+
+        @Override
+        public Map.Entry<String, String> next(){
+            if (!hasNext()){
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next += 2;
+            return new Entry(last);
+        }
+
+        @Override
+        public void remove(){
+            if (last < 0){
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+    /**
+     * An entry of the compact table; setValue writes through to the map.
+     */
+    private final class Entry implements Map.Entry<String, String>{
+
+        private final int index;
+
+        private Entry(int index){
+            this.index = index;
+        }
+
+        @Override
+        public String getKey(){
+            return (String) table[index];
+        }
+
+        @Override
+        public String getValue(){
+            return (String) table[index + 1];
+        }
+
+        @Override
+        public String setValue(String value){
+            return replaceAt(index, value);
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (!(o instanceof Map.Entry)){
+                return false;
+            }
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), that.getKey()) && Objects.equals(getValue(), that.getValue());
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString(){
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.realcomp.mvr;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with the primitive encodings used by MVRBinaryCodec.
+ * Not thread-safe; reuse one instance per writer.
+ */
+final class BinaryOutput{
+
+    private byte[] buffer;
+    private int size;
+
+    BinaryOutput(){
+        this(1024);
+    }
+
+    BinaryOutput(int capacity){
+        buffer = new byte[capacity];
+    }
+
+    int size(){
+        return size;
+    }
+
+    void reset(){
+        size = 0;
+    }
+
+    byte[] toByteArray(){
+        return Arrays.copyOf(buffer, size);
+    }
+
+    void writeTo(OutputStream out) throws IOException{
+        out.write(buffer, 0, size);
+    }
+
+    private void ensureCapacity(int additional){
+        if (size + additional > buffer.length){
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+
+    void writeByte(int value){
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes){
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    void writeFixedInt(int value){
+        ensureCapacity(4);
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Unsigned LEB128 varint.
+     */
+    void writeVarint(int value){
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0){
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * ZigZag encoded varint, for values that may be negative.
+     */
+    void writeSignedVarint(int value){
+        writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Length-prefixed UTF-8. The prefix is length + 1 so that 0 can encode null.
+     */
+    void writeString(String value){
+        if (value == null){
+            writeVarint(0);
+            return;
+        }
+        int length = value.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            if (c >= 0x80){
+                utf8Length = utf8Length(value);
+                break;
+            }
+        }
+        writeVarint(utf8Length + 1);
+        ensureCapacity(utf8Length);
+        for (int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            if (c < 0x80){
+                buffer[size++] = (byte) c;
+            }
+            else if (c < 0x800){
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))){
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            else if (Character.isSurrogate(c)){
+                buffer[size++] = (byte) '?';
+            }
+            else{
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static int utf8Length(String value){
+        int length = 0;
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if (c < 0x80){
+                length++;
+            }
+            else if (c < 0x800){
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))){
+                length += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(c)){
+                length++;
+            }
+            else{
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,144 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe StringPool with a separate, bounded table for each PooledField.
+ * Once the table of a field is full new values are no longer admitted and are returned as is,
+ * so a field that turns out to have high cardinality cannot grow the pool without bound.
+ */
+public class BoundedStringPool implements StringPool{
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final int maxSize;
+    private final Table[] tables;
+
+    public BoundedStringPool(){
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the maximum number of distinct values kept for each field
+     */
+    public BoundedStringPool(int maxSize){
+        if (maxSize < 0){
+            throw new IllegalArgumentException("maxSize [" + maxSize + "] is negative");
+        }
+        this.maxSize = maxSize;
+        tables = new Table[PooledField.values().length];
+        for (int i = 0; i < tables.length; i++){
+            tables[i] = new Table();
+        }
+    }
+
+    @Override
+    public String canonicalize(@NotNull PooledField field, String value){
+        if (value == null){
+            return null;
+        }
+        Table table = tables[field.ordinal()];
+        String canonical = table.values.get(value);
+        if (canonical != null){
+            table.hits.increment();
+            return canonical;
+        }
+        table.misses.increment();
+        if (table.size.get() >= maxSize){
+            table.rejected.increment();
+            return value;
+        }
+        canonical = table.values.putIfAbsent(value, value);
+        if (canonical != null){
+            return canonical;
+        }
+        table.size.incrementAndGet();
+        return value;
+    }
+
+    public int getMaxSize(){
+        return maxSize;
+    }
+
+    /**
+     * @param field
+     * @return the number of distinct values pooled for the field
+     */
+    public int size(@NotNull PooledField field){
+        return tables[field.ordinal()].size.get();
+    }
+
+    /**
+     * @param field
+     * @return the number of lookups of the field that returned a pooled instance
+     */
+    public long getHits(@NotNull PooledField field){
+        return tables[field.ordinal()].hits.sum();
+    }
+
+    /**
+     * @param field
+     * @return the number of lookups of the field that did not find a pooled instance
+     */
+    public long getMisses(@NotNull PooledField field){
+        return tables[field.ordinal()].misses.sum();
+    }
+
+    /**
+     * @param field
+     * @return the number of misses of the field that were not admitted because its table was full
+     */
+    public long getRejected(@NotNull PooledField field){
+        return tables[field.ordinal()].rejected.sum();
+    }
+
+    /**
+     * @param field
+     * @return hits / (hits + misses) for the field, or 0 if it has not been used
+     */
+    public double getHitRate(@NotNull PooledField field){
+        long hits = getHits(field);
+        long total = hits + getMisses(field);
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    /**
+     * Removes all pooled values and resets the statistics.
+     * Not atomic with respect to concurrent calls to canonicalize().
+     */
+    public void clear(){
+        for (Table table: tables){
+            table.values.clear();
+            table.size.set(0);
+            table.hits.reset();
+            table.misses.reset();
+            table.rejected.reset();
+        }
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder s = new StringBuilder("BoundedStringPool{");
+        for (PooledField field: PooledField.values()){
+            if (field.ordinal() > 0){
+                s.append(", ");
+            }
+            s.append(field).append("=").append(size(field))
+                    .append(String.format(" (%.1f%%)", getHitRate(field) * 100));
+        }
+        return s.append('}').toString();
+    }
+
+    private static final class Table{
+        private final ConcurrentMap<String, String> values = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+}
@@ -0,0 +1,273 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable lookup table from the raw codes a state sends to the constants of an MVR enum.
+ * <p>
+ * Codes are matched ignoring ASCII case and surrounding whitespace. The table is open addressed with linear probing
+ * and at most half full, so a lookup is one hash of the input and usually a single comparison, without allocating.
+ * Lookups can be made on a CharSequence, or on the ASCII bytes of a ByteBuffer or byte array, as read from a
+ * fixed-width record.
+ * <p>
+ * Codes that are not in the table are counted, along with the distinct unmapped codes (up to
+ * MAX_UNMAPPED_CODES of them), for monitoring. A blank code is not looked up or counted. Thread-safe.
+ *
+ * @param <E>
+ */
+public final class CodeTable<E extends Enum<E>>{
+
+    public static final int MAX_UNMAPPED_CODES = 256;
+
+    private static final int BASIS = 0x811c9dc5;
+    private static final int PRIME = 0x01000193;
+
+    @NotNull
+    private final Class<E> type;
+    private final char[][] keys;
+    private final E[] values;
+    private final int mask;
+    private final int size;
+
+    private final LongAdder unmapped = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> unmappedCodes = new ConcurrentHashMap<>();
+
+    /**
+     * @param type
+     * @param mappings raw code to enum constant. Codes are trimmed and upper cased.
+     * @throws IllegalArgumentException if a code is blank, or two codes differ only in case or whitespace
+     */
+    public CodeTable(@NotNull Class<E> type, @NotNull Map<String, E> mappings){
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(mappings);
+        this.type = type;
+        Map<String, E> normalized = new LinkedHashMap<>();
+        for (Map.Entry<String, E> entry: mappings.entrySet()){
+            String code = normalize(Objects.requireNonNull(entry.getKey()));
+            if (code.isEmpty()){
+                throw new IllegalArgumentException("code [" + entry.getKey() + "] for " + type.getSimpleName() + " is blank");
+            }
+            E value = Objects.requireNonNull(entry.getValue());
+            if (normalized.put(code, value) != null){
+                throw new IllegalArgumentException("code [" + entry.getKey() + "] for " + type.getSimpleName() + " is mapped more than once");
+            }
+        }
+        size = normalized.size();
+        char[][] codes = new char[size][];
+        int i = 0;
+        for (String code: normalized.keySet()){
+            codes[i++] = code.toCharArray();
+        }
+
+        //at least twice the number of codes, so there is always an empty slot to end a probe
+        int capacity = Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+        mask = capacity - 1;
+        keys = new char[capacity][];
+        values = newArray(type, capacity);
+        i = 0;
+        for (E value: normalized.values()){
+            int slot = hash(codes[i]) & mask;
+            while (keys[slot] != null){
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = codes[i];
+            values[slot] = value;
+            i++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E[] newArray(Class<E> type, int length){
+        return (E[]) Array.newInstance(type, length);
+    }
+
+    @NotNull
+    public Class<E> getType(){
+        return type;
+    }
+
+    /**
+     * @return the number of codes
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @param code
+     * @return the constant the code maps to; null if the code is null, blank or not mapped
+     */
+    public E lookup(CharSequence code){
+        return code == null ? null : lookup(code, 0, code.length());
+    }
+
+    /**
+     * @param code
+     * @param from the start of the code in the CharSequence, inclusive
+     * @param to the end of the code, exclusive
+     * @return the constant the code maps to; null if the code is blank or not mapped
+     */
+    public E lookup(@NotNull CharSequence code, int from, int to){
+        return find(Objects.requireNonNull(code), from, to);
+    }
+
+    /**
+     * Looks up a code without changing the position of the buffer.
+     * @param buffer ASCII bytes
+     * @param offset the absolute index of the code in the buffer
+     * @param length
+     * @return the constant the code maps to; null if the code is blank or not mapped
+     */
+    public E lookup(@NotNull ByteBuffer buffer, int offset, int length){
+        return find(Objects.requireNonNull(buffer), offset, offset + length);
+    }
+
+    /**
+     * @param bytes ASCII bytes
+     * @param offset the index of the code in the array
+     * @param length
+     * @return the constant the code maps to; null if the code is blank or not mapped
+     */
+    public E lookup(@NotNull byte[] bytes, int offset, int length){
+        return find(Objects.requireNonNull(bytes), offset, offset + length);
+    }
+
+    /**
+     * @param code a byte[], ByteBuffer or CharSequence
+     */
+    private E find(Object code, int from, int to){
+        while (from < to && charAt(code, from) <= ' '){
+            from++;
+        }
+        while (to > from && charAt(code, to - 1) <= ' '){
+            to--;
+        }
+        if (from == to){
+            return null;
+        }
+        int h = BASIS;
+        for (int i = from; i < to; i++){
+            h = (h ^ upperCase(charAt(code, i))) * PRIME;
+        }
+        for (int slot = finish(h) & mask; keys[slot] != null; slot = (slot + 1) & mask){
+            if (matches(keys[slot], code, from, to)){
+                return values[slot];
+            }
+        }
+        unmapped(code, from, to);
+        return null;
+    }
+
+    private static boolean matches(char[] key, Object code, int from, int to){
+        if (key.length != to - from){
+            return false;
+        }
+        for (int i = 0; i < key.length; i++){
+            if (key[i] != upperCase(charAt(code, from + i))){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bytes are read as ISO-8859-1.
+     */
+    private static char charAt(Object code, int index){
+        if (code instanceof byte[]){
+            return (char) (((byte[]) code)[index] & 0xff);
+        }
+        if (code instanceof ByteBuffer){
+            return (char) (((ByteBuffer) code).get(index) & 0xff);
+        }
+        return ((CharSequence) code).charAt(index);
+    }
+
+    /**
+     * @return the number of lookups of codes that are not in the table
+     */
+    public long getUnmapped(){
+        return unmapped.sum();
+    }
+
+    /**
+     * @return the number of lookups of each distinct unmapped code, for up to MAX_UNMAPPED_CODES codes
+     */
+    @NotNull
+    public Map<String, Long> getUnmappedCodes(){
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry: unmappedCodes.entrySet()){
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    public void resetUnmapped(){
+        unmapped.reset();
+        unmappedCodes.clear();
+    }
+
+    /**
+     * Allocates, but only for a code that is not in the table.
+     */
+    private void unmapped(Object code, int from, int to){
+        unmapped.increment();
+        char[] chars = new char[to - from];
+        for (int i = 0; i < chars.length; i++){
+            chars[i] = upperCase(charAt(code, from + i));
+        }
+        String key = new String(chars);
+        LongAdder count = unmappedCodes.get(key);
+        if (count == null){
+            if (unmappedCodes.size() >= MAX_UNMAPPED_CODES){
+                return;
+            }
+            count = unmappedCodes.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    private static int hash(char[] code){
+        int h = BASIS;
+        for (char c: code){
+            h = (h ^ c) * PRIME;
+        }
+        return finish(h);
+    }
+
+    private static int finish(int h){
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static char upperCase(char c){
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private static String normalize(String code){
+        String trimmed = code.trim();
+        StringBuilder upper = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++){
+            upper.append(upperCase(trimmed.charAt(i)));
+        }
+        return upper.toString();
+    }
+
+    @Override
+    public String toString(){
+        return "CodeTable{" +
+                "type=" + type.getSimpleName() +
+                ", size=" + size +
+                ", unmapped=" + unmapped.sum() +
+                '}';
+    }
+}
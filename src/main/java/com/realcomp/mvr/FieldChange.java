@@ -0,0 +1,102 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * The old and new value of one changed field of a MVRTransaction.
+ */
+public final class FieldChange{
+
+    /**
+     * The index of a field that does not belong to an Owner or LienHolder.
+     */
+    public static final int NO_INDEX = -1;
+
+    @NotNull
+    private final TransactionField field;
+    private final int index;
+    private final Object oldValue;
+    private final Object newValue;
+
+    public FieldChange(@NotNull TransactionField field, Object oldValue, Object newValue){
+        this(field, NO_INDEX, oldValue, newValue);
+    }
+
+    /**
+     * @param field
+     * @param index of the Owner or LienHolder in its list, or NO_INDEX
+     * @param oldValue
+     * @param newValue
+     */
+    public FieldChange(@NotNull TransactionField field, int index, Object oldValue, Object newValue){
+        Objects.requireNonNull(field);
+        this.field = field;
+        this.index = index;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    @NotNull
+    public TransactionField getField(){
+        return field;
+    }
+
+    /**
+     * @return the index of the Owner or LienHolder the field belongs to, or NO_INDEX
+     */
+    public int getIndex(){
+        return index;
+    }
+
+    public Object getOldValue(){
+        return oldValue;
+    }
+
+    public Object getNewValue(){
+        return newValue;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if (this == o){
+            return true;
+        }
+        if (!(o instanceof FieldChange)){
+            return false;
+        }
+
+        FieldChange that = (FieldChange) o;
+
+        if (field != that.field){
+            return false;
+        }
+        if (index != that.index){
+            return false;
+        }
+        if (oldValue != null ? !oldValue.equals(that.oldValue) : that.oldValue != null){
+            return false;
+        }
+        return newValue != null ? newValue.equals(that.newValue) : that.newValue == null;
+    }
+
+    @Override
+    public int hashCode(){
+        int result = field.hashCode();
+        result = 31 * result + index;
+        result = 31 * result + (oldValue != null ? oldValue.hashCode() : 0);
+        result = 31 * result + (newValue != null ? newValue.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString(){
+        return "FieldChange{" +
+                "field=" + field +
+                (index == NO_INDEX ? "" : ", index=" + index) +
+                ", oldValue=" + oldValue +
+                ", newValue=" + newValue +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.realcomp.mvr;
+
+/**
+ * Utility class for validating the fixed-format fields of the model (YYYYMMDD, MM, YYYY).
+ * The checks are hand written and do not allocate.
+ */
+public final class FieldValidator{
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private FieldValidator(){
+    }
+
+    /**
+     * @param value
+     * @param length
+     * @return true if value has exactly length characters, all of them ASCII digits
+     */
+    public static boolean isDigits(CharSequence value, int length){
+        if (value == null || value.length() != length){
+            return false;
+        }
+        for (int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            if (c < '0' || c > '9'){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * "00000000" is accepted as the unknown date.
+     * @param value
+     * @return true if value is a YYYYMMDD calendar date
+     */
+    public static boolean isDate(CharSequence value){
+        if (!isDigits(value, 8)){
+            return false;
+        }
+        int packed = 0;
+        for (int i = 0; i < 8; i++){
+            packed = packed * 10 + (value.charAt(i) - '0');
+        }
+        return isDate(packed);
+    }
+
+    /**
+     * MVRDate.UNKNOWN is accepted as the unknown date.
+     * @param packed a packed YYYYMMDD date
+     * @return true if packed is a calendar date
+     */
+    public static boolean isDate(int packed){
+        if (packed == MVRDate.UNKNOWN){
+            return true;
+        }
+        if (packed < 0 || packed > 99991231){
+            return false;
+        }
+        int year = MVRDate.year(packed);
+        int month = MVRDate.month(packed);
+        int day = MVRDate.day(packed);
+        return month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    /**
+     * @param value
+     * @return true if value is a MM month, 01 through 12
+     */
+    public static boolean isMonth(CharSequence value){
+        if (!isDigits(value, 2)){
+            return false;
+        }
+        int month = (value.charAt(0) - '0') * 10 + (value.charAt(1) - '0');
+        return month >= 1 && month <= 12;
+    }
+
+    /**
+     * @param value
+     * @return true if value is a YYYY year
+     */
+    public static boolean isYear(CharSequence value){
+        return isDigits(value, 4);
+    }
+
+    static int daysInMonth(int year, int month){
+        if (month == 2 && isLeapYear(year)){
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    static boolean isLeapYear(int year){
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.realcomp.mvr;
+
+/**
+ * How the bytes of a FixedWidthField are decoded. Values are trimmed of surrounding whitespace first; a blank
+ * value leaves the target field unset.
+ */
+public enum FixedWidthConverter{
+
+    /**
+     * ISO-8859-1 text. The only converter that allocates a String.
+     */
+    TEXT,
+
+    /**
+     * An 8 digit YYYYMMDD date, decoded to a packed date.
+     */
+    YYYYMMDD,
+
+    /**
+     * An 8 digit MMDDYYYY date, decoded to a packed date.
+     */
+    MMDDYYYY,
+
+    /**
+     * Up to 9 digits, with an optional leading '-'.
+     */
+    INTEGER,
+
+    /**
+     * Y, T or 1 for true; N, F or 0 for false.
+     */
+    FLAG,
+
+    /**
+     * A raw code, translated to an enum constant with a CodeTable.
+     */
+    CODE;
+
+    public boolean isDate(){
+        return this == YYYYMMDD || this == MMDDYYYY;
+    }
+}
@@ -0,0 +1,183 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * One field of a FixedWidthLayout: where the value is in the record, the model field it is parsed into,
+ * and the converter that decodes it. Immutable.
+ */
+public final class FixedWidthField{
+
+    /**
+     * The number of Owners or LienHolders a layout can describe.
+     */
+    public static final int MAX_GROUPS = 16;
+
+    @NotNull
+    private final FixedWidthTarget target;
+    private final int offset;
+    private final int length;
+    @NotNull
+    private final FixedWidthConverter converter;
+    private final CodeTable<?> codeTable;
+    private final TitleFlag flag;
+    private final String attributeKey;
+    private final int group;
+
+    /**
+     * A field decoded with the default converter of its target.
+     * @param target a target other than a CODE, TITLE_FLAG or ATTRIBUTE target
+     * @param offset of the field in the record
+     * @param length
+     */
+    public FixedWidthField(@NotNull FixedWidthTarget target, int offset, int length){
+        this(target, offset, length, Objects.requireNonNull(target).getConverter(), null, null, null, 0);
+    }
+
+    /**
+     * @param target a target other than a CODE, TITLE_FLAG or ATTRIBUTE target
+     * @param offset of the field in the record
+     * @param length
+     * @param converter a converter accepted by the target
+     */
+    public FixedWidthField(@NotNull FixedWidthTarget target, int offset, int length, @NotNull FixedWidthConverter converter){
+        this(target, offset, length, converter, null, null, null, 0);
+    }
+
+    /**
+     * A field of raw codes.
+     * @param target a CODE target
+     * @param offset of the field in the record
+     * @param length
+     * @param codeTable the table of the enum of the target, as compiled by StateCodeMappings
+     */
+    public FixedWidthField(@NotNull FixedWidthTarget target, int offset, int length, @NotNull CodeTable<?> codeTable){
+        this(target, offset, length, FixedWidthConverter.CODE, Objects.requireNonNull(codeTable), null, null, 0);
+    }
+
+    private FixedWidthField(FixedWidthTarget target, int offset, int length, FixedWidthConverter converter,
+                            CodeTable<?> codeTable, TitleFlag flag, String attributeKey, int group){
+        Objects.requireNonNull(target);
+        Objects.requireNonNull(converter);
+        if (offset < 0){
+            throw new IllegalArgumentException("offset [" + offset + "] of " + target + " is negative");
+        }
+        if (length <= 0){
+            throw new IllegalArgumentException("length [" + length + "] of " + target + " is not positive");
+        }
+        if (!target.accepts(converter)){
+            throw new IllegalArgumentException(target + " cannot be decoded as " + converter);
+        }
+        if (converter == FixedWidthConverter.CODE && (codeTable == null || codeTable.getType() != target.getCodeType())){
+            throw new IllegalArgumentException(target + " requires a CodeTable of " + target.getCodeType().getSimpleName());
+        }
+        if ((target == FixedWidthTarget.TITLE_FLAG) != (flag != null)){
+            throw new IllegalArgumentException("only " + FixedWidthTarget.TITLE_FLAG + " has a TitleFlag");
+        }
+        boolean attribute = target == FixedWidthTarget.ATTRIBUTE || target == FixedWidthTarget.VEHICLE_ATTRIBUTE;
+        if (attribute != (attributeKey != null)){
+            throw new IllegalArgumentException("only " + FixedWidthTarget.ATTRIBUTE + " and " +
+                    FixedWidthTarget.VEHICLE_ATTRIBUTE + " have an attribute key");
+        }
+        if (group < 0 || group >= MAX_GROUPS){
+            throw new IllegalArgumentException("group [" + group + "] is not between 0 and " + (MAX_GROUPS - 1));
+        }
+        this.target = target;
+        this.offset = offset;
+        this.length = length;
+        this.converter = converter;
+        this.codeTable = codeTable;
+        this.flag = flag;
+        this.attributeKey = attributeKey;
+        this.group = group;
+    }
+
+    /**
+     * @param flag
+     * @param offset of the field in the record
+     * @param length
+     * @return a FLAG field that sets a TitleFlag
+     */
+    @NotNull
+    public static FixedWidthField flag(@NotNull TitleFlag flag, int offset, int length){
+        Objects.requireNonNull(flag);
+        return new FixedWidthField(
+                FixedWidthTarget.TITLE_FLAG, offset, length, FixedWidthConverter.FLAG, null, flag, null, 0);
+    }
+
+    /**
+     * @param target ATTRIBUTE or VEHICLE_ATTRIBUTE
+     * @param key
+     * @param offset of the field in the record
+     * @param length
+     * @return a TEXT field that sets an attribute of the MVRTransaction or Vehicle
+     */
+    @NotNull
+    public static FixedWidthField attribute(@NotNull FixedWidthTarget target, @NotNull String key, int offset, int length){
+        Objects.requireNonNull(key);
+        return new FixedWidthField(target, offset, length, FixedWidthConverter.TEXT, null, null, key, 0);
+    }
+
+    /**
+     * @param group the index of the Owner or LienHolder the field belongs to
+     * @return a copy of this field in the group
+     * @throws IllegalArgumentException if the target is not an OWNER or LIEN_HOLDER target
+     */
+    @NotNull
+    public FixedWidthField inGroup(int group){
+        FixedWidthTarget.Scope scope = target.getScope();
+        if (scope != FixedWidthTarget.Scope.OWNER && scope != FixedWidthTarget.Scope.LIEN_HOLDER){
+            throw new IllegalArgumentException(target + " is not an Owner or LienHolder field");
+        }
+        return new FixedWidthField(target, offset, length, converter, codeTable, flag, attributeKey, group);
+    }
+
+    @NotNull
+    public FixedWidthTarget getTarget(){
+        return target;
+    }
+
+    public int getOffset(){
+        return offset;
+    }
+
+    public int getLength(){
+        return length;
+    }
+
+    @NotNull
+    public FixedWidthConverter getConverter(){
+        return converter;
+    }
+
+    public CodeTable<?> getCodeTable(){
+        return codeTable;
+    }
+
+    public TitleFlag getFlag(){
+        return flag;
+    }
+
+    public String getAttributeKey(){
+        return attributeKey;
+    }
+
+    public int getGroup(){
+        return group;
+    }
+
+    @Override
+    public String toString(){
+        return "FixedWidthField{" +
+                "target=" + target +
+                ", offset=" + offset +
+                ", length=" + length +
+                ", converter=" + converter +
+                (flag == null ? "" : ", flag=" + flag) +
+                (attributeKey == null ? "" : ", attributeKey='" + attributeKey + '\'') +
+                ", group=" + group +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The layout of the records of a fixed-width state extract: the record length and the fields that are kept.
+ * Bytes not covered by a field are skipped. Fields may overlap. Immutable.
+ *
+ * @see FixedWidthParser
+ */
+public final class FixedWidthLayout{
+
+    private final int recordLength;
+    @NotNull
+    private final List<FixedWidthField> fields;
+
+    /**
+     * @param recordLength the length of a record, not counting a line separator
+     * @param fields
+     * @throws IllegalArgumentException if a field extends past the end of the record
+     */
+    public FixedWidthLayout(int recordLength, @NotNull List<FixedWidthField> fields){
+        Objects.requireNonNull(fields);
+        if (recordLength <= 0){
+            throw new IllegalArgumentException("recordLength [" + recordLength + "] is not positive");
+        }
+        for (FixedWidthField field: fields){
+            Objects.requireNonNull(field);
+            if (field.getOffset() + field.getLength() > recordLength){
+                throw new IllegalArgumentException(field + " extends past the end of the record");
+            }
+        }
+        this.recordLength = recordLength;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+    }
+
+    public int getRecordLength(){
+        return recordLength;
+    }
+
+    @NotNull
+    public List<FixedWidthField> getFields(){
+        return fields;
+    }
+
+    @Override
+    public String toString(){
+        return "FixedWidthLayout{" +
+                "recordLength=" + recordLength +
+                ", fields=" + fields.size() +
+                '}';
+    }
+}
@@ -0,0 +1,590 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Parses the records of a fixed-width state extract into MVRTransactions, as described by a FixedWidthLayout.
+ * <p>
+ * Records are read from a ByteBuffer, typically a memory mapped file. The bytes of a heap buffer are read in
+ * place; a record of a direct or read-only buffer is copied with one bulk get into an array that is reused for
+ * every record. Records may be separated by CR, LF or CRLF. Only the fields of the layout are decoded. Dates,
+ * numbers, flags and codes are decoded straight from the bytes; a String is only created for a TEXT field, and
+ * the values of repeated fields such as MAKE or REGISTRATION_COUNTY are reused from record to record. The
+ * Vehicle, and the Owner or LienHolder of a group, are only created if one of their fields is not blank.
+ * <p>
+ * A value that cannot be decoded, or that the setter of its field rejects, leaves the field unset and is counted
+ * by getInvalid(). Unmapped codes are counted by their CodeTable. The caller sets the fields that are not in the
+ * record, such as state and source.
+ * <p>
+ * Not thread-safe; use one parser per thread.
+ */
+public class FixedWidthParser{
+
+    private static final int CACHE_SIZE = 256;
+    private static final int INVALID = -2;
+
+    @NotNull
+    private final FixedWidthLayout layout;
+    private final FixedWidthField[] fields;
+    private final int recordLength;
+
+    /**
+     * Recently created Strings of each repeated TEXT field, by hash; null for other fields.
+     */
+    private final String[][] caches;
+
+    /**
+     * The record being parsed, when it is copied out of the buffer.
+     */
+    private final byte[] record;
+    private ByteBuffer source;
+    private ByteBuffer view;
+
+    private final long[] invalid = new long[FixedWidthTarget.values().length];
+    private long records;
+
+    private MVRTransaction tx;
+    private Vehicle vehicle;
+    private final Owner[] owners;
+    private final LienHolder[] lienHolders;
+
+    public FixedWidthParser(@NotNull FixedWidthLayout layout){
+        Objects.requireNonNull(layout);
+        this.layout = layout;
+        fields = layout.getFields().toArray(new FixedWidthField[0]);
+        recordLength = layout.getRecordLength();
+        caches = new String[fields.length][];
+        int ownerGroups = 0;
+        int lienHolderGroups = 0;
+        for (int i = 0; i < fields.length; i++){
+            FixedWidthTarget target = fields[i].getTarget();
+            if (target.isRepeated() && fields[i].getConverter() == FixedWidthConverter.TEXT){
+                caches[i] = new String[CACHE_SIZE];
+            }
+            if (target.getScope() == FixedWidthTarget.Scope.OWNER){
+                ownerGroups = Math.max(ownerGroups, fields[i].getGroup() + 1);
+            }
+            else if (target.getScope() == FixedWidthTarget.Scope.LIEN_HOLDER){
+                lienHolderGroups = Math.max(lienHolderGroups, fields[i].getGroup() + 1);
+            }
+        }
+        record = new byte[recordLength];
+        owners = new Owner[ownerGroups];
+        lienHolders = new LienHolder[lienHolderGroups];
+    }
+
+    @NotNull
+    public FixedWidthLayout getLayout(){
+        return layout;
+    }
+
+    /**
+     * Parses every record of a file. The file is memory mapped and must be smaller than 2GB.
+     * @param file
+     * @param consumer receives each MVRTransaction, in file order
+     * @return the number of records parsed
+     * @throws IOException
+     * @throws IllegalArgumentException if the file ends with a partial record
+     */
+    public long parse(@NotNull Path file, @NotNull Consumer<MVRTransaction> consumer) throws IOException{
+        Objects.requireNonNull(file);
+        return parse(MappedDocumentRepository.map(file), consumer);
+    }
+
+    /**
+     * Parses the records between the position and the limit of a buffer, without changing its position.
+     * @param buffer
+     * @param consumer receives each MVRTransaction, in buffer order
+     * @return the number of records parsed
+     * @throws IllegalArgumentException if the buffer ends with a partial record
+     */
+    public long parse(@NotNull ByteBuffer buffer, @NotNull Consumer<MVRTransaction> consumer){
+        Objects.requireNonNull(buffer);
+        Objects.requireNonNull(consumer);
+        int position = buffer.position();
+        int limit = buffer.limit();
+        long count = 0;
+        while (true){
+            while (position < limit && isSeparator(buffer.get(position))){
+                position++;
+            }
+            if (position == limit){
+                source = null;
+                view = null;
+                return count;
+            }
+            consumer.accept(parse(buffer, position));
+            position += recordLength;
+            count++;
+        }
+    }
+
+    /**
+     * @param buffer
+     * @param offset the absolute index of the record in the buffer
+     * @return the MVRTransaction of the record
+     * @throws IllegalArgumentException if the record extends past the limit of the buffer
+     */
+    @NotNull
+    public MVRTransaction parse(@NotNull ByteBuffer buffer, int offset){
+        Objects.requireNonNull(buffer);
+        if (offset < 0 || offset > buffer.limit() - recordLength){
+            throw new IllegalArgumentException(
+                    "record at offset [" + offset + "] is shorter than " + recordLength + " bytes");
+        }
+        byte[] bytes;
+        int base;
+        if (buffer.hasArray()){
+            bytes = buffer.array();
+            base = buffer.arrayOffset() + offset;
+        }
+        else{
+            if (buffer != source){
+                source = buffer;
+                view = buffer.duplicate();
+            }
+            view.limit(view.capacity());
+            view.position(offset);
+            view.get(record, 0, recordLength);
+            bytes = record;
+            base = 0;
+        }
+        tx = new MVRTransaction();
+        vehicle = null;
+        Arrays.fill(owners, null);
+        Arrays.fill(lienHolders, null);
+        for (int i = 0; i < fields.length; i++){
+            parse(i, bytes, base);
+        }
+        if (vehicle != null){
+            tx.setVehicle(vehicle);
+        }
+        for (Owner owner: owners){
+            if (owner != null){
+                tx.addOwner(owner);
+            }
+        }
+        for (LienHolder lienHolder: lienHolders){
+            if (lienHolder != null){
+                tx.addLienHolder(lienHolder);
+            }
+        }
+        records++;
+        MVRTransaction parsed = tx;
+        tx = null;
+        vehicle = null;
+        return parsed;
+    }
+
+    /**
+     * @return the number of records parsed
+     */
+    public long getRecords(){
+        return records;
+    }
+
+    /**
+     * @return the number of values, of all targets, that could not be decoded or were rejected
+     */
+    public long getInvalid(){
+        long total = 0;
+        for (long count: invalid){
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @param target
+     * @return the number of values of the target that could not be decoded or were rejected
+     */
+    public long getInvalid(@NotNull FixedWidthTarget target){
+        return invalid[target.ordinal()];
+    }
+
+    private void parse(int index, byte[] bytes, int base){
+        FixedWidthField field = fields[index];
+        int from = base + field.getOffset();
+        int to = from + field.getLength();
+        while (from < to && isBlank(bytes[from])){
+            from++;
+        }
+        while (to > from && isBlank(bytes[to - 1])){
+            to--;
+        }
+        if (from == to){
+            return;
+        }
+        try{
+            switch (field.getConverter()){
+                case TEXT:
+                    setText(field, text(index, bytes, from, to));
+                    break;
+                case YYYYMMDD:
+                case MMDDYYYY:
+                    int date = date(field.getConverter(), bytes, from, to);
+                    if (date == INVALID){
+                        invalid[field.getTarget().ordinal()]++;
+                    }
+                    else{
+                        setDate(field, date);
+                    }
+                    break;
+                case INTEGER:
+                    long integer = integer(bytes, from, to);
+                    if (integer == Long.MIN_VALUE){
+                        invalid[field.getTarget().ordinal()]++;
+                    }
+                    else{
+                        setInteger(field, (int) integer);
+                    }
+                    break;
+                case FLAG:
+                    int flag = flag(bytes[from]);
+                    if (flag == INVALID || to - from != 1){
+                        invalid[field.getTarget().ordinal()]++;
+                    }
+                    else{
+                        setFlag(field, flag == 1);
+                    }
+                    break;
+                case CODE:
+                    Enum<?> code = field.getCodeTable().lookup(bytes, from, to - from);
+                    if (code != null){
+                        setCode(field, code);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException(field.getConverter().name());
+            }
+        }
+        catch (IllegalArgumentException ex){
+            invalid[field.getTarget().ordinal()]++;
+        }
+    }
+
+    private void setText(FixedWidthField field, String value){
+        switch (field.getTarget()){
+            case ID:
+                tx.setId(value);
+                break;
+            case STATE:
+                tx.setState(value);
+                break;
+            case SOURCE:
+                tx.setSource(value);
+                break;
+            case PLATE:
+                tx.setPlate(value);
+                break;
+            case REGISTRATION_CLASS_CODE:
+                tx.setRegistrationClassCode(value);
+                break;
+            case REGISTRATION_COUNTY:
+                tx.setRegistrationCounty(value);
+                break;
+            case REGISTRATION_EXP_MONTH:
+                tx.setRegistrationExpMonth(value);
+                break;
+            case REGISTRATION_EXP_YEAR:
+                tx.setRegistrationExpYear(value);
+                break;
+            case SALE_PRICE:
+                tx.setSalePrice(value);
+                break;
+            case RAW_RENEWAL_NAME:
+                tx.setRawRenewalName(value);
+                break;
+            case ATTRIBUTE:
+                tx.setAttribute(field.getAttributeKey(), value);
+                break;
+            case VIN:
+                vehicle().setVin(value);
+                break;
+            case BODY_TYPE_CODE:
+                vehicle().setBodyTypeCode(value);
+                break;
+            case VEHICLE_CLASS_CODE:
+                vehicle().setVehicleClassCode(value);
+                break;
+            case MAKE:
+                vehicle().setMake(value);
+                break;
+            case MODEL:
+                vehicle().setModel(value);
+                break;
+            case MODEL_YEAR:
+                vehicle().setModelYear(value);
+                break;
+            case BODY_VIN:
+                vehicle().setBodyVin(value);
+                break;
+            case ODOMETER_BRAND:
+                vehicle().setOdometerBrand(value);
+                break;
+            case ODOMETER_READING:
+                vehicle().setOdometerReading(value);
+                break;
+            case VEHICLE_ATTRIBUTE:
+                vehicle().setAttribute(field.getAttributeKey(), value);
+                break;
+            case OWNER_ID:
+                owner(field.getGroup()).setId(value);
+                break;
+            case OWNER_RAW_NAME:
+                owner(field.getGroup()).setRawName(value);
+                break;
+            case OWNER_COUNTRY:
+                owner(field.getGroup()).setCountry(value);
+                break;
+            case LIEN_HOLDER_ID:
+                lienHolder(field.getGroup()).setId(value);
+                break;
+            case LIEN_HOLDER_RAW_NAME:
+                lienHolder(field.getGroup()).setRawName(value);
+                break;
+            case LIEN_COUNTRY:
+                lienHolder(field.getGroup()).setLienCountry(value);
+                break;
+            default:
+                throw new IllegalStateException(field.getTarget().name());
+        }
+    }
+
+    private void setDate(FixedWidthField field, int date){
+        switch (field.getTarget()){
+            case TRANSACTION_DATE:
+                tx.setTransactionDateAsInt(date);
+                break;
+            case TITLE_ISSUE_DATE:
+                tx.setTitleIssueDateAsInt(date);
+                break;
+            case REGISTRATION_EFFECTIVE_DATE:
+                tx.setRegistrationEffectiveDateAsInt(date);
+                break;
+            case SALE_DATE:
+                tx.setSaleDateAsInt(date);
+                break;
+            case SURRENDERED_TITLE_DATE:
+                tx.setSurrenderedTitleDateAsInt(date);
+                break;
+            case LIEN_DATE:
+                lienHolder(field.getGroup()).setLienDateAsInt(date);
+                break;
+            default:
+                throw new IllegalStateException(field.getTarget().name());
+        }
+    }
+
+    private void setInteger(FixedWidthField field, int value){
+        switch (field.getTarget()){
+            case LENGTH:
+                vehicle().setLength(value);
+                break;
+            case EMPTY_WEIGHT:
+                vehicle().setEmptyWeight(value);
+                break;
+            case GROSS_WEIGHT:
+                vehicle().setGrossWeight(value);
+                break;
+            default:
+                throw new IllegalStateException(field.getTarget().name());
+        }
+    }
+
+    private void setFlag(FixedWidthField field, boolean value){
+        switch (field.getTarget()){
+            case REGISTRATION_INVALID:
+                tx.setRegistrationInvalid(value);
+                break;
+            case TITLE_FLAG:
+                tx.setFlag(field.getFlag(), value);
+                break;
+            case ADDITIONAL_LIEN_HOLDERS:
+                tx.setAdditionalLienHolders(value);
+                break;
+            case FIXED_EQUIPMENT:
+                vehicle().setFixedEquipment(value);
+                break;
+            default:
+                throw new IllegalStateException(field.getTarget().name());
+        }
+    }
+
+    private void setCode(FixedWidthField field, Enum<?> value){
+        switch (field.getTarget()){
+            case TYPE:
+                tx.setType((DocumentType) value);
+                break;
+            case TRANSACTION_STATUS:
+                tx.setTransactionStatus((TransactionStatus) value);
+                break;
+            case BONDED_TITLE_TYPE:
+                tx.setBondedTitleType((BondedTitleType) value);
+                break;
+            case VEHICLE_CLASS:
+                vehicle().setVehicleClass((VehicleClass) value);
+                break;
+            case PRIMARY_COLOR:
+                vehicle().setPrimaryColor((Color) value);
+                break;
+            case SECONDARY_COLOR:
+                vehicle().setSecondaryColor((Color) value);
+                break;
+            case FUEL_TYPE:
+                vehicle().setFuelType((FuelType) value);
+                break;
+            case TRAILER_TYPE:
+                vehicle().setTrailerType((TrailerType) value);
+                break;
+            case OWNER_EVIDENCE_TYPE:
+                owner(field.getGroup()).setOwnerEvidenceType((OwnerEvidenceType) value);
+                break;
+            default:
+                throw new IllegalStateException(field.getTarget().name());
+        }
+    }
+
+    private Vehicle vehicle(){
+        if (vehicle == null){
+            vehicle = new Vehicle();
+        }
+        return vehicle;
+    }
+
+    private Owner owner(int group){
+        if (owners[group] == null){
+            owners[group] = new Owner();
+        }
+        return owners[group];
+    }
+
+    private LienHolder lienHolder(int group){
+        if (lienHolders[group] == null){
+            lienHolders[group] = new LienHolder();
+        }
+        return lienHolders[group];
+    }
+
+    /**
+     * @return the ISO-8859-1 String of the bytes, reused from the cache of the field if it has one
+     */
+    private String text(int index, byte[] bytes, int from, int to){
+        int length = to - from;
+        String[] cache = caches[index];
+        if (cache == null){
+            return new String(bytes, from, length, StandardCharsets.ISO_8859_1);
+        }
+        int hash = 0;
+        for (int i = from; i < to; i++){
+            hash = 31 * hash + (bytes[i] & 0xff);
+        }
+        int slot = (hash ^ hash >>> 16) & (CACHE_SIZE - 1);
+        String cached = cache[slot];
+        if (cached != null && cached.length() == length){
+            boolean match = true;
+            for (int i = 0; i < length; i++){
+                if (cached.charAt(i) != (bytes[from + i] & 0xff)){
+                    match = false;
+                    break;
+                }
+            }
+            if (match){
+                return cached;
+            }
+        }
+        String value = new String(bytes, from, length, StandardCharsets.ISO_8859_1);
+        cache[slot] = value;
+        return value;
+    }
+
+    /**
+     * @return the packed date, or INVALID
+     */
+    private static int date(FixedWidthConverter converter, byte[] bytes, int from, int to){
+        if (to - from != 8){
+            return INVALID;
+        }
+        int packed = 0;
+        for (int i = from; i < to; i++){
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9){
+                return INVALID;
+            }
+            packed = packed * 10 + digit;
+        }
+        if (converter == FixedWidthConverter.MMDDYYYY){
+            packed = packed % 10000 * 10000 + packed / 10000;
+        }
+        return FieldValidator.isDate(packed) ? packed : INVALID;
+    }
+
+    /**
+     * @return the value, or Long.MIN_VALUE if the bytes are not an integer of at most 9 digits
+     */
+    private static long integer(byte[] bytes, int from, int to){
+        boolean negative = bytes[from] == '-';
+        if (negative){
+            from++;
+        }
+        if (from == to || to - from > 9){
+            return Long.MIN_VALUE;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++){
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9){
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return 1 for true, 0 for false, or INVALID
+     */
+    private static int flag(byte b){
+        switch (b){
+            case 'Y':
+            case 'y':
+            case 'T':
+            case 't':
+            case '1':
+                return 1;
+            case 'N':
+            case 'n':
+            case 'F':
+            case 'f':
+            case '0':
+                return 0;
+            default:
+                return INVALID;
+        }
+    }
+
+    private static boolean isBlank(byte b){
+        return (b & 0xff) <= ' ';
+    }
+
+    private static boolean isSeparator(byte b){
+        return b == '\r' || b == '\n';
+    }
+
+    @Override
+    public String toString(){
+        return "FixedWidthParser{" +
+                "layout=" + layout +
+                ", records=" + records +
+                ", invalid=" + getInvalid() +
+                '}';
+    }
+}
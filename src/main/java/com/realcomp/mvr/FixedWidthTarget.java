@@ -0,0 +1,136 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The model fields a FixedWidthField can be parsed into, with the converter used by default.
+ * <p>
+ * TITLE_FLAG fields name the TitleFlag they set, and the ATTRIBUTE fields the attribute key. The OWNER and
+ * LIEN_HOLDER fields belong to the Owner or LienHolder of their group, for records with several of them.
+ */
+public enum FixedWidthTarget{
+
+    ID(Scope.TRANSACTION, FixedWidthConverter.TEXT),
+    STATE(Scope.TRANSACTION, FixedWidthConverter.TEXT, true),
+    SOURCE(Scope.TRANSACTION, FixedWidthConverter.TEXT, true),
+    TRANSACTION_DATE(Scope.TRANSACTION, FixedWidthConverter.YYYYMMDD),
+    TYPE(Scope.TRANSACTION, DocumentType.class),
+    TRANSACTION_STATUS(Scope.TRANSACTION, TransactionStatus.class),
+    TITLE_ISSUE_DATE(Scope.TRANSACTION, FixedWidthConverter.YYYYMMDD),
+    BONDED_TITLE_TYPE(Scope.TRANSACTION, BondedTitleType.class),
+    PLATE(Scope.TRANSACTION, FixedWidthConverter.TEXT),
+    REGISTRATION_CLASS_CODE(Scope.TRANSACTION, FixedWidthConverter.TEXT, true),
+    REGISTRATION_COUNTY(Scope.TRANSACTION, FixedWidthConverter.TEXT, true),
+    REGISTRATION_EFFECTIVE_DATE(Scope.TRANSACTION, FixedWidthConverter.YYYYMMDD),
+    REGISTRATION_EXP_MONTH(Scope.TRANSACTION, FixedWidthConverter.TEXT, true),
+    REGISTRATION_EXP_YEAR(Scope.TRANSACTION, FixedWidthConverter.TEXT, true),
+    REGISTRATION_INVALID(Scope.TRANSACTION, FixedWidthConverter.FLAG),
+    SALE_PRICE(Scope.TRANSACTION, FixedWidthConverter.TEXT),
+    SALE_DATE(Scope.TRANSACTION, FixedWidthConverter.YYYYMMDD),
+    TITLE_FLAG(Scope.TRANSACTION, FixedWidthConverter.FLAG),
+    SURRENDERED_TITLE_DATE(Scope.TRANSACTION, FixedWidthConverter.YYYYMMDD),
+    RAW_RENEWAL_NAME(Scope.TRANSACTION, FixedWidthConverter.TEXT),
+    ADDITIONAL_LIEN_HOLDERS(Scope.TRANSACTION, FixedWidthConverter.FLAG),
+    ATTRIBUTE(Scope.TRANSACTION, FixedWidthConverter.TEXT),
+
+    VIN(Scope.VEHICLE, FixedWidthConverter.TEXT),
+    BODY_TYPE_CODE(Scope.VEHICLE, FixedWidthConverter.TEXT, true),
+    VEHICLE_CLASS(Scope.VEHICLE, VehicleClass.class),
+    VEHICLE_CLASS_CODE(Scope.VEHICLE, FixedWidthConverter.TEXT, true),
+    MAKE(Scope.VEHICLE, FixedWidthConverter.TEXT, true),
+    MODEL(Scope.VEHICLE, FixedWidthConverter.TEXT, true),
+    MODEL_YEAR(Scope.VEHICLE, FixedWidthConverter.TEXT, true),
+    PRIMARY_COLOR(Scope.VEHICLE, Color.class),
+    SECONDARY_COLOR(Scope.VEHICLE, Color.class),
+    BODY_VIN(Scope.VEHICLE, FixedWidthConverter.TEXT),
+    LENGTH(Scope.VEHICLE, FixedWidthConverter.INTEGER),
+    EMPTY_WEIGHT(Scope.VEHICLE, FixedWidthConverter.INTEGER),
+    GROSS_WEIGHT(Scope.VEHICLE, FixedWidthConverter.INTEGER),
+    FUEL_TYPE(Scope.VEHICLE, FuelType.class),
+    FIXED_EQUIPMENT(Scope.VEHICLE, FixedWidthConverter.FLAG),
+    TRAILER_TYPE(Scope.VEHICLE, TrailerType.class),
+    ODOMETER_BRAND(Scope.VEHICLE, FixedWidthConverter.TEXT, true),
+    ODOMETER_READING(Scope.VEHICLE, FixedWidthConverter.TEXT),
+    VEHICLE_ATTRIBUTE(Scope.VEHICLE, FixedWidthConverter.TEXT),
+
+    OWNER_ID(Scope.OWNER, FixedWidthConverter.TEXT),
+    OWNER_RAW_NAME(Scope.OWNER, FixedWidthConverter.TEXT),
+    OWNER_EVIDENCE_TYPE(Scope.OWNER, OwnerEvidenceType.class),
+    OWNER_COUNTRY(Scope.OWNER, FixedWidthConverter.TEXT, true),
+
+    LIEN_HOLDER_ID(Scope.LIEN_HOLDER, FixedWidthConverter.TEXT),
+    LIEN_HOLDER_RAW_NAME(Scope.LIEN_HOLDER, FixedWidthConverter.TEXT),
+    LIEN_DATE(Scope.LIEN_HOLDER, FixedWidthConverter.YYYYMMDD),
+    LIEN_COUNTRY(Scope.LIEN_HOLDER, FixedWidthConverter.TEXT, true);
+
+    /**
+     * The object a target field belongs to.
+     */
+    public enum Scope{
+        TRANSACTION,
+        VEHICLE,
+        OWNER,
+        LIEN_HOLDER
+    }
+
+    @NotNull
+    private final Scope scope;
+    @NotNull
+    private final FixedWidthConverter converter;
+    private final Class<? extends Enum<?>> codeType;
+    private final boolean repeated;
+
+    FixedWidthTarget(Scope scope, FixedWidthConverter converter){
+        this(scope, converter, false);
+    }
+
+    FixedWidthTarget(Scope scope, FixedWidthConverter converter, boolean repeated){
+        this.scope = scope;
+        this.converter = converter;
+        this.codeType = null;
+        this.repeated = repeated;
+    }
+
+    FixedWidthTarget(Scope scope, Class<? extends Enum<?>> codeType){
+        this.scope = scope;
+        this.converter = FixedWidthConverter.CODE;
+        this.codeType = codeType;
+        this.repeated = false;
+    }
+
+    @NotNull
+    public Scope getScope(){
+        return scope;
+    }
+
+    /**
+     * @return the converter used when a FixedWidthField does not name one
+     */
+    @NotNull
+    public FixedWidthConverter getConverter(){
+        return converter;
+    }
+
+    /**
+     * @return the enum of a CODE target, or null
+     */
+    public Class<? extends Enum<?>> getCodeType(){
+        return codeType;
+    }
+
+    /**
+     * @param converter
+     * @return true if the converter decodes values of this target
+     */
+    public boolean accepts(@NotNull FixedWidthConverter converter){
+        return converter == this.converter || (converter.isDate() && this.converter.isDate());
+    }
+
+    /**
+     * @return true if the values of this TEXT target repeat from record to record, so FixedWidthParser
+     * reuses their Strings
+     */
+    boolean isRepeated(){
+        return repeated;
+    }
+}
@@ -1,21 +1,18 @@
 package com.realcomp.mvr;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.realcomp.address.Address;
 import com.realcomp.address.RawAddress;
 import com.realcomp.names.Name;
 
-import java.util.regex.Pattern;
-
 public class LienHolder{
 
-    private static final Pattern DATE_PATTERN = Pattern.compile("^[0-9]{8}$"); //YYYYMMDD
-
     private String id;
     private String rawName;
     private Name name;
     private RawAddress rawAddress;
     private Address address;
-    private String lienDate;
+    private int lienDate = MVRDate.NONE;
     private String lienCountry;
 
     public LienHolder(){
@@ -27,7 +24,7 @@ public class LienHolder{
         rawAddress = copy.getRawAddress() == null ? null : new RawAddress(copy.getRawAddress());
         address = copy.getAddress() == null ? null : new Address(copy.getAddress());
         name = copy.getName() == null ? null : new Name(copy.getName());
-        lienDate = copy.getLienDate();
+        lienDate = copy.lienDate;
         lienCountry = copy.getLienCountry();
     }
 
@@ -73,13 +70,30 @@ public class LienHolder{
     }
 
     public String getLienDate(){
-        return lienDate;
+        return MVRDate.format(lienDate);
     }
 
     public void setLienDate(String lienDate){
-        if (lienDate != null && !DATE_PATTERN.matcher(lienDate).matches()){
+        if (lienDate != null && !FieldValidator.isDate(lienDate)){
+            throw new IllegalArgumentException(
+                    "lienDate [" + lienDate + "] is not a valid YYYYMMDD date");
+        }
+        this.lienDate = MVRDate.pack(lienDate);
+    }
+
+    /**
+     * @return the lienDate as a packed YYYYMMDD int, or MVRDate.NONE
+     */
+    @JsonIgnore
+    public int getLienDateAsInt(){
+        return lienDate;
+    }
+
+    @JsonIgnore
+    public void setLienDateAsInt(int lienDate){
+        if (!MVRDate.isValid(lienDate)){
             throw new IllegalArgumentException(
-                    "lienDate [" + lienDate + "] does not match pattern YYYYMMDD");
+                    "lienDate [" + lienDate + "] is not a packed YYYYMMDD date");
         }
         this.lienDate = lienDate;
     }
@@ -119,7 +133,7 @@ public class LienHolder{
         if (address != null ? !address.equals(that.address) : that.address != null){
             return false;
         }
-        if (lienDate != null ? !lienDate.equals(that.lienDate) : that.lienDate != null){
+        if (lienDate != that.lienDate){
             return false;
         }
         return lienCountry != null ? lienCountry.equals(that.lienCountry) : that.lienCountry == null;
@@ -133,7 +147,7 @@ public class LienHolder{
         result = 31 * result + (name != null ? name.hashCode() : 0);
         result = 31 * result + (rawAddress != null ? rawAddress.hashCode() : 0);
         result = 31 * result + (address != null ? address.hashCode() : 0);
-        result = 31 * result + (lienDate != null ? lienDate.hashCode() : 0);
+        result = 31 * result + lienDate;
         result = 31 * result + (lienCountry != null ? lienCountry.hashCode() : 0);
         return result;
     }
@@ -0,0 +1,59 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.realcomp.address.Address;
+import com.realcomp.address.RawAddress;
+import com.realcomp.names.Name;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class LienHolderJsonDeserializer extends StdDeserializer<LienHolder>{
+
+    LienHolderJsonDeserializer(){
+        super(LienHolder.class);
+    }
+
+    @Override
+    public LienHolder deserialize(JsonParser p, DeserializationContext ctxt) throws IOException{
+        LienHolder lienHolder = new LienHolder();
+        try{
+            for (String field = firstFieldName(p, LienHolder.class); field != null; field = p.nextFieldName()){
+                p.nextToken();
+                switch (field){
+                    case "id":
+                        lienHolder.setId(readString(p));
+                        break;
+                    case "rawName":
+                        lienHolder.setRawName(readString(p));
+                        break;
+                    case "name":
+                        lienHolder.setName(readObject(p, ctxt, Name.class));
+                        break;
+                    case "rawAddress":
+                        lienHolder.setRawAddress(readObject(p, ctxt, RawAddress.class));
+                        break;
+                    case "address":
+                        lienHolder.setAddress(readObject(p, ctxt, Address.class));
+                        break;
+                    case "lienDate":
+                        lienHolder.setLienDateAsInt(readDate(p));
+                        break;
+                    case "lienCountry":
+                        lienHolder.setLienCountry(readString(p));
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, lienHolder, field);
+                }
+            }
+        }
+        catch (IllegalArgumentException | NullPointerException ex){
+            throw JsonMappingException.from(p, ex.getMessage(), ex);
+        }
+        return lienHolder;
+    }
+}
@@ -0,0 +1,29 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class LienHolderJsonSerializer extends StdSerializer<LienHolder>{
+
+    LienHolderJsonSerializer(){
+        super(LienHolder.class);
+    }
+
+    @Override
+    public void serialize(LienHolder lienHolder, JsonGenerator gen, SerializerProvider provider) throws IOException{
+        gen.writeStartObject();
+        writeString(gen, "id", lienHolder.getId());
+        writeString(gen, "rawName", lienHolder.getRawName());
+        writeObject(gen, provider, "name", lienHolder.getName());
+        writeObject(gen, provider, "rawAddress", lienHolder.getRawAddress());
+        writeObject(gen, provider, "address", lienHolder.getAddress());
+        writeDate(gen, "lienDate", lienHolder.getLienDateAsInt(), new char[8]);
+        writeString(gen, "lienCountry", lienHolder.getLienCountry());
+        gen.writeEndObject();
+    }
+}
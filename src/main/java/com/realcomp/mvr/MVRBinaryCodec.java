@@ -0,0 +1,561 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realcomp.address.Address;
+import com.realcomp.address.RawAddress;
+import com.realcomp.names.Name;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding of MVRDocuments and MVRTransactions.
+ *
+ * A file starts with a 6 byte header: the magic "MVRB", a format version and a record type
+ * ('D' for MVRDocuments, 'T' for MVRTransactions). Every record that follows is prefixed with
+ * its varint encoded length so files can be read one record at a time.
+ *
+ * Within a record, integers are LEB128 varints, Strings are length-prefixed UTF-8, enums are
+ * encoded by ordinal and the boolean flags of a MVRTransaction share one varint bitset. Enum
+ * constants must therefore only ever be appended; reordering them requires a new VERSION.
+ * Name, Address and RawAddress belong to address-common and are embedded as length-prefixed JSON.
+ */
+public final class MVRBinaryCodec{
+
+    public static final int VERSION = 1;
+
+    static final byte[] MAGIC = {'M', 'V', 'R', 'B'};
+    static final byte DOCUMENT = 'D';
+    static final byte TRANSACTION = 'T';
+    static final int HEADER_LENGTH = MAGIC.length + 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //registrationInvalid and additionalLienHolders use bits 0 - 1, the TitleFlags the bits above them
+    private static final int REGISTRATION_INVALID = 1;
+    private static final int ADDITIONAL_LIEN_HOLDERS = 1 << 1;
+    private static final int TITLE_FLAG_SHIFT = 2;
+    //keeps the varint non-negative
+    static final int MAX_TITLE_FLAGS = Integer.SIZE - 1 - TITLE_FLAG_SHIFT;
+
+    private static final BondedTitleType[] BONDED_TITLE_TYPES = BondedTitleType.values();
+    private static final Color[] COLORS = Color.values();
+    private static final DocumentType[] DOCUMENT_TYPES = DocumentType.values();
+    private static final FuelType[] FUEL_TYPES = FuelType.values();
+    private static final OwnerEvidenceType[] OWNER_EVIDENCE_TYPES = OwnerEvidenceType.values();
+    private static final TrailerType[] TRAILER_TYPES = TrailerType.values();
+    private static final TransactionStatus[] TRANSACTION_STATUSES = TransactionStatus.values();
+    private static final VehicleClass[] VEHICLE_CLASSES = VehicleClass.values();
+
+    private MVRBinaryCodec(){
+    }
+
+    public static byte[] encode(@NotNull MVRDocument doc){
+        Objects.requireNonNull(doc);
+        BinaryOutput out = new BinaryOutput();
+        write(doc, out);
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(@NotNull MVRTransaction tx){
+        Objects.requireNonNull(tx);
+        BinaryOutput out = new BinaryOutput();
+        write(tx, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a single MVRDocument record (without its length prefix) starting at the buffer's position.
+     * The position is advanced past the record.
+     */
+    public static MVRDocument decodeDocument(@NotNull ByteBuffer in){
+        Objects.requireNonNull(in);
+        try{
+            return readDocument(in);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException ex){
+            throw new IllegalArgumentException("truncated MVRDocument record", ex);
+        }
+    }
+
+    /**
+     * Decode a single MVRTransaction record (without its length prefix) starting at the buffer's position.
+     * The position is advanced past the record.
+     */
+    public static MVRTransaction decodeTransaction(@NotNull ByteBuffer in){
+        Objects.requireNonNull(in);
+        try{
+            return readTransaction(in);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException ex){
+            throw new IllegalArgumentException("truncated MVRTransaction record", ex);
+        }
+    }
+
+    public static MVRBinaryWriter<MVRDocument> documentWriter(@NotNull OutputStream out) throws IOException{
+        return new MVRBinaryWriter<>(out, DOCUMENT, MVRBinaryCodec::write);
+    }
+
+    public static MVRBinaryWriter<MVRDocument> documentWriter(@NotNull Path path) throws IOException{
+        return documentWriter(create(path));
+    }
+
+    public static MVRBinaryWriter<MVRTransaction> transactionWriter(@NotNull OutputStream out) throws IOException{
+        return new MVRBinaryWriter<>(out, TRANSACTION, MVRBinaryCodec::write);
+    }
+
+    public static MVRBinaryWriter<MVRTransaction> transactionWriter(@NotNull Path path) throws IOException{
+        return transactionWriter(create(path));
+    }
+
+    public static MVRBinaryReader<MVRDocument> documentReader(@NotNull InputStream in) throws IOException{
+        return new MVRBinaryReader<>(in, DOCUMENT, MVRBinaryCodec::decodeDocument);
+    }
+
+    public static MVRBinaryReader<MVRDocument> documentReader(@NotNull Path path) throws IOException{
+        return documentReader(open(path));
+    }
+
+    public static MVRBinaryReader<MVRTransaction> transactionReader(@NotNull InputStream in) throws IOException{
+        return new MVRBinaryReader<>(in, TRANSACTION, MVRBinaryCodec::decodeTransaction);
+    }
+
+    public static MVRBinaryReader<MVRTransaction> transactionReader(@NotNull Path path) throws IOException{
+        return transactionReader(open(path));
+    }
+
+    private static InputStream open(Path path) throws IOException{
+        Objects.requireNonNull(path);
+        return new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+    }
+
+    private static OutputStream create(Path path) throws IOException{
+        Objects.requireNonNull(path);
+        return new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+    }
+
+    static void writeHeader(OutputStream out, byte recordType) throws IOException{
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(recordType);
+    }
+
+    /**
+     * @throws IOException if the header is not a supported MVRB header for the record type
+     */
+    static void checkHeader(byte[] header, byte recordType) throws IOException{
+        for (int i = 0; i < MAGIC.length; i++){
+            if (header[i] != MAGIC[i]){
+                throw new IOException("not a MVRB file");
+            }
+        }
+        int version = header[MAGIC.length] & 0xFF;
+        if (version < 1 || version > VERSION){
+            throw new IOException("unsupported MVRB version [" + version + "]");
+        }
+        if (header[MAGIC.length + 1] != recordType){
+            throw new IOException("MVRB record type [" + (char) header[MAGIC.length + 1] + "] is not [" + (char) recordType + "]");
+        }
+    }
+
+
+    static void write(MVRDocument doc, BinaryOutput out){
+        //the guid must stay the first field; see readGuid()
+        out.writeString(doc.getGuid());
+        out.writeString(doc.getSource());
+        out.writeString(doc.getState());
+        out.writeString(doc.getId());
+        writeEnum(doc.getType(), out);
+        writeEnum(doc.getTransactionStatus(), out);
+        writeAttributes(doc.attributes(), out);
+        out.writeVarint(doc.historyList().size());
+        for (MVRTransaction tx: doc.historyList()){
+            write(tx, out);
+        }
+    }
+
+    static void write(MVRTransaction tx, BinaryOutput out){
+        out.writeString(tx.getId());
+        out.writeString(tx.getState());
+        out.writeString(tx.getSource());
+        writeDate(tx.getTransactionDateAsInt(), out);
+        writeEnum(tx.getType(), out);
+        writeEnum(tx.getTransactionStatus(), out);
+        writeDate(tx.getTitleIssueDateAsInt(), out);
+        writeEnum(tx.getBondedTitleType(), out);
+        out.writeString(tx.getPlate());
+        out.writeString(tx.getRegistrationClassCode());
+        out.writeString(tx.getRegistrationCounty());
+        writeDate(tx.getRegistrationEffectiveDateAsInt(), out);
+        out.writeString(tx.getRegistrationExpMonth());
+        out.writeString(tx.getRegistrationExpYear());
+        out.writeString(tx.getSalePrice());
+        writeDate(tx.getSaleDateAsInt(), out);
+        writeDate(tx.getSurrenderedTitleDateAsInt(), out);
+        out.writeVarint(flags(tx));
+        writeVehicle(tx.getVehicle(), out);
+        writeJson(tx.getRawVehicleLocation(), out);
+        writeJson(tx.getVehicleLocation(), out);
+        out.writeString(tx.getRawRenewalName());
+        writeJson(tx.getRenewalName(), out);
+        writeJson(tx.getRenewalRawAddress(), out);
+        writeJson(tx.getRenewalAddress(), out);
+        out.writeVarint(tx.getOwners().size());
+        for (Owner owner: tx.getOwners()){
+            writeOwner(owner, out);
+        }
+        out.writeVarint(tx.getLienHolders().size());
+        for (LienHolder lienHolder: tx.getLienHolders()){
+            writeLienHolder(lienHolder, out);
+        }
+        writeAttributes(tx.attributes(), out);
+    }
+
+    /**
+     * registrationInvalid and additionalLienHolders, followed by the TitleFlag bits
+     */
+    private static int flags(MVRTransaction tx){
+        int flags = tx.getFlagMask() << TITLE_FLAG_SHIFT;
+        flags |= tx.isRegistrationInvalid() ? REGISTRATION_INVALID : 0;
+        flags |= tx.isAdditionalLienHolders() ? ADDITIONAL_LIEN_HOLDERS : 0;
+        return flags;
+    }
+
+    private static void setFlags(MVRTransaction tx, int flags){
+        tx.setFlagMask(flags >>> TITLE_FLAG_SHIFT);
+        tx.setRegistrationInvalid((flags & REGISTRATION_INVALID) != 0);
+        tx.setAdditionalLienHolders((flags & ADDITIONAL_LIEN_HOLDERS) != 0);
+    }
+
+    private static void writeVehicle(Vehicle vehicle, BinaryOutput out){
+        if (vehicle == null){
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(vehicle.isFixedEquipment() ? 2 : 1);
+        out.writeString(vehicle.getVin());
+        out.writeString(vehicle.getBodyTypeCode());
+        writeEnum(vehicle.getVehicleClass(), out);
+        out.writeString(vehicle.getVehicleClassCode());
+        out.writeString(vehicle.getMake());
+        out.writeString(vehicle.getModel());
+        out.writeString(vehicle.getModelYear());
+        writeEnum(vehicle.getPrimaryColor(), out);
+        writeEnum(vehicle.getSecondaryColor(), out);
+        out.writeFixedInt(Float.floatToIntBits(vehicle.getTonage()));
+        out.writeString(vehicle.getBodyVin());
+        out.writeSignedVarint(vehicle.getLength());
+        out.writeSignedVarint(vehicle.getEmptyWeight());
+        out.writeSignedVarint(vehicle.getGrossWeight());
+        writeEnum(vehicle.getFuelType(), out);
+        writeEnum(vehicle.getTrailerType(), out);
+        out.writeString(vehicle.getOdometerBrand());
+        out.writeString(vehicle.getOdometerReading());
+        writeAttributes(vehicle.attributes(), out);
+    }
+
+    private static void writeOwner(Owner owner, BinaryOutput out){
+        out.writeString(owner.getId());
+        out.writeString(owner.getRawName());
+        writeJson(owner.getName(), out);
+        writeJson(owner.getRawAddress(), out);
+        writeJson(owner.getAddress(), out);
+        writeEnum(owner.getOwnerEvidenceType(), out);
+        out.writeString(owner.getCountry());
+    }
+
+    private static void writeLienHolder(LienHolder lienHolder, BinaryOutput out){
+        out.writeString(lienHolder.getId());
+        out.writeString(lienHolder.getRawName());
+        writeJson(lienHolder.getName(), out);
+        writeJson(lienHolder.getRawAddress(), out);
+        writeJson(lienHolder.getAddress(), out);
+        writeDate(lienHolder.getLienDateAsInt(), out);
+        out.writeString(lienHolder.getLienCountry());
+    }
+
+    /**
+     * ordinal + 1, 0 is null
+     */
+    private static void writeEnum(Enum<?> value, BinaryOutput out){
+        out.writeVarint(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * packed date + 1, 0 is MVRDate.NONE
+     */
+    private static void writeDate(int packed, BinaryOutput out){
+        out.writeVarint(packed + 1);
+    }
+
+    private static void writeAttributes(Map<String, String> attributes, BinaryOutput out){
+        if (attributes == null){
+            out.writeVarint(0);
+            return;
+        }
+        out.writeVarint(attributes.size());
+        for (Map.Entry<String, String> entry: attributes.entrySet()){
+            out.writeString(entry.getKey());
+            out.writeString(entry.getValue());
+        }
+    }
+
+    private static void writeJson(Object value, BinaryOutput out){
+        if (value == null){
+            out.writeVarint(0);
+            return;
+        }
+        try{
+            byte[] json = MVRJson.getObjectMapper().writeValueAsBytes(value);
+            out.writeVarint(json.length + 1);
+            out.writeBytes(json);
+        }
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+
+    /**
+     * @return the guid of the MVRDocument record starting at the buffer's position, without decoding the rest of it
+     */
+    static String readGuid(ByteBuffer in){
+        return readString(in);
+    }
+
+    private static MVRDocument readDocument(ByteBuffer in){
+        MVRDocument doc = new MVRDocument();
+        String guid = readString(in);
+        doc.setSource(readString(in));
+        doc.setState(readString(in));
+        doc.setId(readString(in));
+        doc.setGuid(guid);
+        doc.setType(readEnum(in, DOCUMENT_TYPES));
+        doc.setTransactionStatus(readEnum(in, TRANSACTION_STATUSES));
+        int attributes = readVarint(in);
+        if (attributes > 0){
+            //only a record with attributes allocates a map for them
+            readAttributes(in, attributes, doc.getAttributes());
+        }
+        int count = readVarint(in);
+        List<MVRTransaction> history = doc.historyList();
+        for (int i = 0; i < count; i++){
+            //records are written in history order; checked rather than sorted, as the binary searches rely on it
+            MVRTransaction tx = readTransaction(in);
+            if (i > 0 && history.get(i - 1).compareTo(tx) > 0){
+                throw new IllegalArgumentException("MVRDocument history is out of order at [" + i + "]");
+            }
+            history.add(tx);
+        }
+        return doc;
+    }
+
+    private static MVRTransaction readTransaction(ByteBuffer in){
+        MVRTransaction tx = new MVRTransaction();
+        tx.setId(readString(in));
+        tx.setState(readString(in));
+        tx.setSource(readString(in));
+        tx.setTransactionDateAsInt(readDate(in));
+        tx.setType(readEnum(in, DOCUMENT_TYPES));
+        tx.setTransactionStatus(readEnum(in, TRANSACTION_STATUSES));
+        tx.setTitleIssueDateAsInt(readDate(in));
+        tx.setBondedTitleType(readEnum(in, BONDED_TITLE_TYPES));
+        tx.setPlate(readString(in));
+        tx.setRegistrationClassCode(readString(in));
+        tx.setRegistrationCounty(readString(in));
+        tx.setRegistrationEffectiveDateAsInt(readDate(in));
+        tx.setRegistrationExpMonth(readString(in));
+        tx.setRegistrationExpYear(readString(in));
+        tx.setSalePrice(readString(in));
+        tx.setSaleDateAsInt(readDate(in));
+        tx.setSurrenderedTitleDateAsInt(readDate(in));
+        setFlags(tx, readVarint(in));
+        tx.setVehicle(readVehicle(in));
+        tx.setRawVehicleLocation(readJson(in, RawAddress.class));
+        tx.setVehicleLocation(readJson(in, Address.class));
+        tx.setRawRenewalName(readString(in));
+        tx.setRenewalName(readJson(in, Name.class));
+        tx.setRenewalRawAddress(readJson(in, RawAddress.class));
+        tx.setRenewalAddress(readJson(in, Address.class));
+        int owners = readVarint(in);
+        for (int i = 0; i < owners; i++){
+            tx.addOwner(readOwner(in));
+        }
+        int lienHolders = readVarint(in);
+        for (int i = 0; i < lienHolders; i++){
+            tx.addLienHolder(readLienHolder(in));
+        }
+        int attributes = readVarint(in);
+        if (attributes > 0){
+            readAttributes(in, attributes, tx.getAttributes());
+        }
+        return tx;
+    }
+
+    private static Vehicle readVehicle(ByteBuffer in){
+        int presence = in.get();
+        if (presence == 0){
+            return null;
+        }
+        Vehicle vehicle = new Vehicle();
+        vehicle.setFixedEquipment(presence == 2);
+        vehicle.setVin(readString(in));
+        vehicle.setBodyTypeCode(readString(in));
+        vehicle.setVehicleClass(readEnum(in, VEHICLE_CLASSES));
+        vehicle.setVehicleClassCode(readString(in));
+        vehicle.setMake(readString(in));
+        vehicle.setModel(readString(in));
+        vehicle.setModelYear(readString(in));
+        vehicle.setPrimaryColor(readEnum(in, COLORS));
+        vehicle.setSecondaryColor(readEnum(in, COLORS));
+        vehicle.setTonage(Float.intBitsToFloat(in.getInt()));
+        vehicle.setBodyVin(readString(in));
+        vehicle.setLength(readSignedVarint(in));
+        vehicle.setEmptyWeight(readSignedVarint(in));
+        vehicle.setGrossWeight(readSignedVarint(in));
+        vehicle.setFuelType(readEnum(in, FUEL_TYPES));
+        vehicle.setTrailerType(readEnum(in, TRAILER_TYPES));
+        vehicle.setOdometerBrand(readString(in));
+        vehicle.setOdometerReading(readString(in));
+        int attributes = readVarint(in);
+        if (attributes > 0){
+            readAttributes(in, attributes, vehicle.getAttributes());
+        }
+        return vehicle;
+    }
+
+    private static Owner readOwner(ByteBuffer in){
+        Owner owner = new Owner();
+        owner.setId(readString(in));
+        owner.setRawName(readString(in));
+        owner.setName(readJson(in, Name.class));
+        owner.setRawAddress(readJson(in, RawAddress.class));
+        owner.setAddress(readJson(in, Address.class));
+        owner.setOwnerEvidenceType(readEnum(in, OWNER_EVIDENCE_TYPES));
+        owner.setCountry(readString(in));
+        return owner;
+    }
+
+    private static LienHolder readLienHolder(ByteBuffer in){
+        LienHolder lienHolder = new LienHolder();
+        lienHolder.setId(readString(in));
+        lienHolder.setRawName(readString(in));
+        lienHolder.setName(readJson(in, Name.class));
+        lienHolder.setRawAddress(readJson(in, RawAddress.class));
+        lienHolder.setAddress(readJson(in, Address.class));
+        lienHolder.setLienDateAsInt(readDate(in));
+        lienHolder.setLienCountry(readString(in));
+        return lienHolder;
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, E[] values){
+        int value = readVarint(in);
+        if (value == 0){
+            return null;
+        }
+        if (value > values.length){
+            throw new IllegalArgumentException("unknown ordinal [" + (value - 1) + "] for " +
+                    values[0].getDeclaringClass().getSimpleName());
+        }
+        return values[value - 1];
+    }
+
+    private static int readDate(ByteBuffer in){
+        return readVarint(in) - 1;
+    }
+
+    private static void readAttributes(ByteBuffer in, int count, Map<String, String> attributes){
+        for (int i = 0; i < count; i++){
+            attributes.put(StringPools.canonicalize(PooledField.ATTRIBUTE_KEY, readString(in)), readString(in));
+        }
+    }
+
+    private static <T> T readJson(ByteBuffer in, Class<T> type){
+        int length = readVarint(in) - 1;
+        if (length < 0){
+            return null;
+        }
+        if (length > in.remaining()){
+            throw new BufferUnderflowException();
+        }
+        ObjectMapper mapper = MVRJson.getObjectMapper();
+        try{
+            if (in.hasArray()){
+                T value = mapper.readValue(in.array(), in.arrayOffset() + in.position(), length, type);
+                in.position(in.position() + length);
+                return value;
+            }
+            byte[] json = new byte[length];
+            in.get(json);
+            return mapper.readValue(json, type);
+        }
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static String readString(ByteBuffer in){
+        int length = readVarint(in) - 1;
+        if (length < 0){
+            return null;
+        }
+        if (length > in.remaining()){
+            throw new BufferUnderflowException();
+        }
+        if (in.hasArray()){
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int readVarint(ByteBuffer in){
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7){
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0){
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    private static int readSignedVarint(ByteBuffer in){
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a varint directly from a stream.
+     * @return the value, or -1 if the stream is at end of file before the first byte
+     */
+    static int readVarint(InputStream in) throws IOException{
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7){
+            int b = in.read();
+            if (b < 0){
+                if (shift == 0){
+                    return -1;
+                }
+                throw new EOFException("truncated varint");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0){
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+}
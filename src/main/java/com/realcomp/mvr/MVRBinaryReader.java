@@ -0,0 +1,103 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads MVRB records one at a time; only the current record is held in memory.
+ * The header is read and checked when the reader is created.
+ * Closing the reader closes the underlying InputStream.
+ * Create instances with MVRBinaryCodec.
+ *
+ * @param <T> MVRDocument or MVRTransaction
+ */
+public class MVRBinaryReader<T> implements Iterator<T>, Closeable{
+
+    private final DataInputStream in;
+    private final Function<ByteBuffer, T> decoder;
+    private byte[] record = new byte[1024];
+    private int nextLength = -2;
+
+    MVRBinaryReader(@NotNull InputStream in, byte recordType, @NotNull Function<ByteBuffer, T> decoder)
+            throws IOException{
+        Objects.requireNonNull(in);
+        Objects.requireNonNull(decoder);
+        this.in = new DataInputStream(in);
+        this.decoder = decoder;
+        byte[] header = new byte[MVRBinaryCodec.HEADER_LENGTH];
+        this.in.readFully(header);
+        MVRBinaryCodec.checkHeader(header, recordType);
+    }
+
+    /**
+     * @return true if another record is available
+     * @throws UncheckedIOException if the input could not be read
+     */
+    @Override
+    public boolean hasNext(){
+        if (nextLength == -2){
+            try{
+                nextLength = MVRBinaryCodec.readVarint(in);
+            }
+            catch (IOException ex){
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return nextLength >= 0;
+    }
+
+    /**
+     * @return the next record
+     * @throws UncheckedIOException if the input could not be read
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    @Override
+    public T next(){
+        if (!hasNext()){
+            throw new NoSuchElementException();
+        }
+        int length = nextLength;
+        nextLength = -2;
+        if (record.length < length){
+            record = new byte[Math.max(length, record.length * 2)];
+        }
+        try{
+            in.readFully(record, 0, length);
+        }
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record, 0, length);
+        T value = decoder.apply(buffer);
+        if (buffer.hasRemaining()){
+            throw new IllegalArgumentException("MVRB record has " + buffer.remaining() + " unread bytes");
+        }
+        return value;
+    }
+
+    /**
+     * @return a sequential Stream over the remaining records. Closing the Stream closes this reader.
+     */
+    public Stream<T> stream(){
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try{
+                close();
+            }
+            catch (IOException ex){
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException{
+        in.close();
+    }
+}
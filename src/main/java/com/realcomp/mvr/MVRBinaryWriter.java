@@ -0,0 +1,78 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes MVRB records one at a time. The header is written when the writer is created.
+ * Closing the writer closes the underlying OutputStream.
+ * Create instances with MVRBinaryCodec.
+ *
+ * @param <T> MVRDocument or MVRTransaction
+ */
+public class MVRBinaryWriter<T> implements Closeable, Flushable{
+
+    private final OutputStream out;
+    private final BiConsumer<T, BinaryOutput> encoder;
+    private final BinaryOutput record = new BinaryOutput();
+    private final BinaryOutput length = new BinaryOutput(5);
+    private long bytesWritten;
+
+    MVRBinaryWriter(@NotNull OutputStream out, byte recordType, @NotNull BiConsumer<T, BinaryOutput> encoder)
+            throws IOException{
+        Objects.requireNonNull(out);
+        Objects.requireNonNull(encoder);
+        this.out = out;
+        this.encoder = encoder;
+        MVRBinaryCodec.writeHeader(out, recordType);
+        bytesWritten = MVRBinaryCodec.HEADER_LENGTH;
+    }
+
+    /**
+     * @param value
+     * @return the offset of the record in the output, counting the header
+     * @throws IOException
+     */
+    public long write(@NotNull T value) throws IOException{
+        Objects.requireNonNull(value);
+        long offset = bytesWritten;
+        record.reset();
+        encoder.accept(value, record);
+        length.reset();
+        length.writeVarint(record.size());
+        length.writeTo(out);
+        record.writeTo(out);
+        bytesWritten += length.size() + record.size();
+        return offset;
+    }
+
+    public void writeAll(@NotNull Iterable<? extends T> values) throws IOException{
+        Objects.requireNonNull(values);
+        for (T value: values){
+            write(value);
+        }
+    }
+
+    /**
+     * @return the number of bytes written, including the header
+     */
+    public long getBytesWritten(){
+        return bytesWritten;
+    }
+
+    @Override
+    public void flush() throws IOException{
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException{
+        out.close();
+    }
+}
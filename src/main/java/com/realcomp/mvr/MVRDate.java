@@ -0,0 +1,90 @@
+package com.realcomp.mvr;
+
+/**
+ * Utility class for the packed integer form of the YYYYMMDD dates used by the model.
+ * The date "20170804" is stored as the int 20170804, which orders the same way the String does.
+ */
+public final class MVRDate{
+
+    /**
+     * Packed value of an absent (null) date.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Packed value of the "00000000" unknown date.
+     */
+    public static final int UNKNOWN = 0;
+
+    private MVRDate(){
+    }
+
+    /**
+     * @param date a YYYYMMDD date, or null
+     * @return the packed date, or NONE if date is null
+     * @throws IllegalArgumentException if date is not 8 digits
+     */
+    public static int pack(String date){
+        if (date == null){
+            return NONE;
+        }
+        if (date.length() != 8){
+            throw new IllegalArgumentException("date [" + date + "] does not match pattern YYYYMMDD");
+        }
+        int packed = 0;
+        for (int i = 0; i < 8; i++){
+            int digit = date.charAt(i) - '0';
+            if (digit < 0 || digit > 9){
+                throw new IllegalArgumentException("date [" + date + "] does not match pattern YYYYMMDD");
+            }
+            packed = packed * 10 + digit;
+        }
+        return packed;
+    }
+
+    /**
+     * @param packed a packed date, or NONE
+     * @return the YYYYMMDD form of the date, or null if packed is NONE
+     */
+    public static String format(int packed){
+        if (packed == NONE){
+            return null;
+        }
+        char[] chars = new char[8];
+        format(packed, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the 8 YYYYMMDD characters of a packed date into dest.
+     * @param packed a packed date other than NONE
+     * @param dest
+     * @param offset
+     */
+    public static void format(int packed, char[] dest, int offset){
+        for (int i = offset + 7; i >= offset; i--){
+            dest[i] = (char) ('0' + packed % 10);
+            packed /= 10;
+        }
+    }
+
+    /**
+     * @param packed
+     * @return true if packed is NONE or a valid packed calendar date
+     */
+    public static boolean isValid(int packed){
+        return packed == NONE || FieldValidator.isDate(packed);
+    }
+
+    public static int year(int packed){
+        return packed / 10000;
+    }
+
+    public static int month(int packed){
+        return packed / 100 % 100;
+    }
+
+    public static int day(int packed){
+        return packed % 100;
+    }
+}
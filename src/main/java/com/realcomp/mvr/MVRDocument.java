@@ -4,10 +4,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class MVRDocument{
 
-    @NotNull
+    /**
+     * Derived from source and id on first use unless explicitly set.
+     */
     private String guid;
 
     @NotNull
@@ -28,7 +32,11 @@ public class MVRDocument{
     @NotNull
     private List<MVRTransaction> history;
 
-    @NotNull
+    private List<MVRTransaction> historyView;
+
+    /**
+     * Null until the first attribute is set.
+     */
     private Map<String,String> attributes;
 
     public MVRDocument(){
@@ -36,10 +44,8 @@ public class MVRDocument{
         source = "";
         state = "";
         history = new ArrayList<>();
-        attributes = new HashMap<>();
         type = DocumentType.UNKNOWN;
         transactionStatus = TransactionStatus.UNKNOWN;
-        guid = MVRDocumentGUID.generate(this);
     }
 
 
@@ -51,33 +57,37 @@ public class MVRDocument{
         history = new ArrayList<>();
         type = latest.getType();
         transactionStatus = latest.getTransactionStatus();
-        guid = MVRDocumentGUID.generate(this);
-        attributes = new HashMap<>();
-        attributes.putAll(latest.getAttributes());
-        guid = MVRDocumentGUID.generate(this);
+        attributes = AttributeMap.copyOf(latest.attributes());
     }
 
+    /**
+     * Deep copy; every MVRTransaction in the history is copied.
+     * @param copy
+     */
     public MVRDocument(@NotNull MVRDocument copy){
         Objects.requireNonNull(copy);
         id = copy.getId();
         source = copy.getSource();
         state = copy.getState();
-        history = new ArrayList<>();
-        for (MVRTransaction tx: copy.getHistory()){
+        history = new ArrayList<>(copy.history.size());
+        for (MVRTransaction tx: copy.history){
             history.add(new MVRTransaction(tx));
         }
-        Collections.sort(history);
         type = copy.getType();
         transactionStatus = copy.getTransactionStatus();
-        guid = MVRDocumentGUID.generate(this);
-        attributes = new HashMap<>();
-        attributes.putAll(copy.getAttributes());
+        attributes = AttributeMap.copyOf(copy.attributes);
     }
 
 
 
+    /**
+     * @return the explicitly set guid, or the "MVR-{source}-{id}" guid generated by MVRDocumentGUID
+     */
     @NotNull
     public String getGuid(){
+        if (guid == null){
+            guid = MVRDocumentGUID.generate(source, id);
+        }
         return guid;
     }
 
@@ -94,7 +104,7 @@ public class MVRDocument{
     public void setId(@NotNull String id){
         Objects.requireNonNull(id);
         this.id = id;
-        guid = MVRDocumentGUID.generate(this);
+        guid = null;
     }
 
     @NotNull
@@ -104,8 +114,8 @@ public class MVRDocument{
 
     public void setSource(@NotNull String source){
         Objects.requireNonNull(source);
-        this.source = source;
-        guid = MVRDocumentGUID.generate(this);
+        this.source = StringPools.canonicalize(PooledField.SOURCE, source);
+        guid = null;
     }
 
     @NotNull
@@ -114,7 +124,7 @@ public class MVRDocument{
     }
 
     public void setState(@NotNull String state){
-        this.state = state;
+        this.state = StringPools.canonicalize(PooledField.STATE, state);
     }
 
 
@@ -140,9 +150,20 @@ public class MVRDocument{
 
     @NotNull
     public Map<String, String> getAttributes(){
+        if (attributes == null){
+            attributes = new AttributeMap();
+        }
         return attributes;
     }
 
+    /**
+     * @return the attributes, without allocating a map if there are none. Must not be modified.
+     */
+    @NotNull
+    Map<String, String> attributes(){
+        return attributes == null ? Collections.emptyMap() : attributes;
+    }
+
 
     public void setAttributes(@NotNull Map<String, String> attributes){
         Objects.requireNonNull(attributes);
@@ -151,7 +172,7 @@ public class MVRDocument{
 
     public String setAttribute(@NotNull String key, String value){
         Objects.requireNonNull(key);
-        return attributes.put(key, value);
+        return getAttributes().put(StringPools.canonicalize(PooledField.ATTRIBUTE_KEY, key), value);
     }
 
     /**
@@ -162,6 +183,164 @@ public class MVRDocument{
         return new ArrayList<>(history);
     }
 
+    /**
+     * @return unmodifiable, live view of the ordered MVRTransaction history. Nothing is copied.
+     */
+    @JsonIgnore
+    @NotNull
+    public List<MVRTransaction> getHistoryView(){
+        if (historyView == null){
+            historyView = new HistoryView();
+        }
+        return historyView;
+    }
+
+    /**
+     * @return the number of MVRTransactions in the history
+     */
+    public int historySize(){
+        return history.size();
+    }
+
+    /**
+     * @param index
+     * @return the MVRTransaction at index in the ordered history
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    @NotNull
+    public MVRTransaction getHistory(int index){
+        if (index < 0 || index >= history.size()){
+            throw new IndexOutOfBoundsException("index [" + index + "] size [" + history.size() + "]");
+        }
+        return history.get(index);
+    }
+
+    /**
+     * Visits the history in order. The action must not modify the history of this document.
+     * @param action
+     */
+    public void forEachHistory(@NotNull Consumer<? super MVRTransaction> action){
+        Objects.requireNonNull(action);
+        for (MVRTransaction tx: history){
+            action.accept(tx);
+        }
+    }
+
+    /**
+     * @return the ordered MVRTransaction history as a sequential Stream
+     */
+    @NotNull
+    public Stream<MVRTransaction> historyStream(){
+        return getHistoryView().stream();
+    }
+
+    /**
+     * @param date YYYYMMDD
+     * @return the latest MVRTransaction with a transactionDate on or before the date
+     */
+    @NotNull
+    public Optional<MVRTransaction> getAsOf(@NotNull String date){
+        return getAsOf(MVRDate.pack(Objects.requireNonNull(date)));
+    }
+
+    /**
+     * @param date packed YYYYMMDD date
+     * @return the latest MVRTransaction with a transactionDate on or before the date
+     */
+    @NotNull
+    public Optional<MVRTransaction> getAsOf(int date){
+        int index = floorIndex(date);
+        return index < 0 ? Optional.empty() : Optional.of(getHistory(index));
+    }
+
+    /**
+     * @param from YYYYMMDD, inclusive
+     * @param to YYYYMMDD, inclusive
+     * @return unmodifiable, live view of the MVRTransactions with a transactionDate from the from date through
+     * the to date, in order
+     */
+    @NotNull
+    public List<MVRTransaction> getHistoryBetween(@NotNull String from, @NotNull String to){
+        return getHistoryBetween(MVRDate.pack(Objects.requireNonNull(from)), MVRDate.pack(Objects.requireNonNull(to)));
+    }
+
+    /**
+     * The view covers the positions of the matching transactions when it is created; it must not be used after
+     * the history is modified.
+     *
+     * @param from packed YYYYMMDD date, inclusive
+     * @param to packed YYYYMMDD date, inclusive
+     * @return unmodifiable, live view of the MVRTransactions with a transactionDate from the from date through
+     * the to date, in order
+     */
+    @NotNull
+    public List<MVRTransaction> getHistoryBetween(int from, int to){
+        if (from > to){
+            throw new IllegalArgumentException("from [" + from + "] is after to [" + to + "]");
+        }
+        return getHistoryView().subList(lowerBound(from), upperBound(to));
+    }
+
+    /**
+     * @param date packed YYYYMMDD date
+     * @return the index of the last MVRTransaction with a transactionDate on or before the date, or -1 if none
+     */
+    public int floorIndex(int date){
+        return upperBound(date) - 1;
+    }
+
+    /**
+     * @param date packed YYYYMMDD date
+     * @return the index of the first MVRTransaction with a transactionDate on or after the date, or -1 if none
+     */
+    public int ceilingIndex(int date){
+        int index = lowerBound(date);
+        return index == history.size() ? -1 : index;
+    }
+
+    /**
+     * @return the index of the first transaction with a transactionDate not before the date
+     */
+    private int lowerBound(int date){
+        int low = 0;
+        int high = history.size();
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (history.get(mid).getTransactionDateAsInt() < date){
+                low = mid + 1;
+            }
+            else{
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first transaction with a transactionDate after the date
+     */
+    private int upperBound(int date){
+        int low = 0;
+        int high = history.size();
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (history.get(mid).getTransactionDateAsInt() <= date){
+                low = mid + 1;
+            }
+            else{
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the live, ordered MVRTransaction history. For serializers; must not be modified.
+     */
+    List<MVRTransaction> historyList(){
+        return history;
+    }
+
     public void setHistory(@NotNull List<MVRTransaction> history){
         Objects.requireNonNull(history);
         this.history = new ArrayList<>(history);
@@ -170,13 +349,77 @@ public class MVRDocument{
 
     /**
      * Add a MVRTransaction to the transaction history.
-     * Ordering of transactions is maintained.
+     * Ordering of transactions is maintained. The insertion point is found by binary search;
+     * transactions with equal transaction dates keep their insertion order.
      * @param tx
      */
     public void addHistory(@NotNull MVRTransaction tx){
         Objects.requireNonNull(tx);
-        this.history.add(tx);
-        Collections.sort(this.history);
+        history.add(insertionPoint(tx), tx);
+    }
+
+    /**
+     * Add a batch of MVRTransactions to the transaction history in a single pass.
+     * Ordering of transactions is maintained. The batch does not need to be sorted; it is
+     * copied, and only sorted if it is not already in order.
+     * @param transactions
+     */
+    public void addHistory(@NotNull Collection<? extends MVRTransaction> transactions){
+        Objects.requireNonNull(transactions);
+        if (transactions.isEmpty()){
+            return;
+        }
+        List<MVRTransaction> batch = new ArrayList<>(transactions);
+        boolean sorted = true;
+        MVRTransaction previous = null;
+        for (MVRTransaction tx: batch){
+            Objects.requireNonNull(tx);
+            if (previous != null && previous.compareTo(tx) > 0){
+                sorted = false;
+            }
+            previous = tx;
+        }
+        if (!sorted){
+            Collections.sort(batch);
+        }
+
+        if (history.isEmpty() || history.get(history.size() - 1).compareTo(batch.get(0)) <= 0){
+            history.addAll(batch);
+            return;
+        }
+
+        List<MVRTransaction> merged = new ArrayList<>(history.size() + batch.size());
+        int i = 0;
+        int j = 0;
+        while (i < history.size() && j < batch.size()){
+            if (batch.get(j).compareTo(history.get(i)) < 0){
+                merged.add(batch.get(j++));
+            }
+            else{
+                merged.add(history.get(i++));
+            }
+        }
+        merged.addAll(history.subList(i, history.size()));
+        merged.addAll(batch.subList(j, batch.size()));
+        history = merged;
+    }
+
+    /**
+     * @return index after the last transaction in the history that does not sort after tx
+     */
+    private int insertionPoint(MVRTransaction tx){
+        int low = 0;
+        int high = history.size();
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (history.get(mid).compareTo(tx) <= 0){
+                low = mid + 1;
+            }
+            else{
+                high = mid;
+            }
+        }
+        return low;
     }
 
     /**
@@ -184,7 +427,22 @@ public class MVRDocument{
      */
     @JsonIgnore
     public Optional<MVRTransaction> getLatest(){
-        return history.isEmpty() ? Optional.empty() : Optional.of(history.get(history.size() - 1));
+        return Optional.ofNullable(getLatestOrNull());
+    }
+
+    /**
+     * @return the latest (last) MVRTransaction in the history collection, or null if the history is empty
+     */
+    @JsonIgnore
+    public MVRTransaction getLatestOrNull(){
+        return history.isEmpty() ? null : history.get(history.size() - 1);
+    }
+
+    /**
+     * @return a stable 64-bit hash of the content of this document and its history, see MVRFingerprint
+     */
+    public long fingerprint(){
+        return MVRFingerprint.of(this);
     }
 
     @Override
@@ -198,7 +456,7 @@ public class MVRDocument{
 
         MVRDocument that = (MVRDocument) o;
 
-        if (!guid.equals(that.guid)){
+        if (!getGuid().equals(that.getGuid())){
             return false;
         }
         if (!source.equals(that.source)){
@@ -219,20 +477,41 @@ public class MVRDocument{
         if (!history.equals(that.history)){
             return false;
         }
-        return attributes.equals(that.attributes);
+        return attributes().equals(that.attributes());
 
     }
 
+    /**
+     * Not cached: rehashes the entire history on every call, since the transactions can be modified through
+     * their getters. Use fingerprint() or MVRFingerprint to compare documents repeatedly.
+     */
     @Override
     public int hashCode(){
-        int result = guid.hashCode();
+        int result = getGuid().hashCode();
         result = 31 * result + source.hashCode();
         result = 31 * result + state.hashCode();
         result = 31 * result + id.hashCode();
         result = 31 * result + type.hashCode();
         result = 31 * result + transactionStatus.hashCode();
         result = 31 * result + history.hashCode();
-        result = 31 * result + attributes.hashCode();
+        result = 31 * result + attributes().hashCode();
         return result;
     }
+
+    /**
+     * Read-only view of the history that follows the document as its history list is replaced.
+     * Reads go straight to the history list and never modify the document.
+     */
+    private final class HistoryView extends AbstractList<MVRTransaction> implements RandomAccess{
+
+        @Override
+        public MVRTransaction get(int index){
+            return history.get(index);
+        }
+
+        @Override
+        public int size(){
+            return history.size();
+        }
+    }
 }
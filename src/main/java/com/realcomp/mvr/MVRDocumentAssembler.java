@@ -0,0 +1,449 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Groups MVRTransactions that arrive in any order into MVRDocuments, keyed by
+ * MVRDocumentGUID.generate(source, id), without holding the whole feed in memory.
+ * <p>
+ * Transactions are buffered until maxBufferedTransactions is reached, then sorted by GUID and transactionDate
+ * and spilled to a run file in the spill directory with the MVRB transaction codec. documents() k-way merges
+ * the runs, and the transactions still buffered, with a PriorityQueue and emits one MVRDocument per GUID in
+ * GUID order while it streams. If there are more than maxMergeWidth runs they are first merged into fewer,
+ * longer runs. Only the buffer, one record per run and the transactions of the current document are in memory.
+ * Transactions of a GUID with equal transactionDates keep the order they were added in.
+ * <p>
+ * The MVRDocument takes its id, source, state, type, transactionStatus and attributes from the latest
+ * transaction, as new MVRDocument(MVRTransaction) does.
+ * <p>
+ * Not thread-safe. close() deletes the run files.
+ */
+public class MVRDocumentAssembler implements Closeable{
+
+    public static final int DEFAULT_MAX_BUFFERED_TRANSACTIONS = 500_000;
+    public static final int DEFAULT_MAX_MERGE_WIDTH = 64;
+
+    private final Path spillDirectory;
+    private final int maxBufferedTransactions;
+    private final int maxMergeWidth;
+
+    private final List<Entry> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private final Set<Path> runFiles = new LinkedHashSet<>();
+    private final List<Closeable> open = new ArrayList<>();
+    private long sequence;
+    private boolean merging;
+
+    private long transactionsAdded;
+    private long spilledRuns;
+    private long spilledTransactions;
+    private long spilledBytes;
+    private long spillNanos;
+    private long mergedTransactions;
+    private long mergeNanos;
+    private long documentsEmitted;
+
+    public MVRDocumentAssembler(@NotNull Path spillDirectory){
+        this(spillDirectory, DEFAULT_MAX_BUFFERED_TRANSACTIONS, DEFAULT_MAX_MERGE_WIDTH);
+    }
+
+    /**
+     * @param spillDirectory where run files are written
+     * @param maxBufferedTransactions the number of transactions held in memory before a run is spilled
+     * @param maxMergeWidth the maximum number of runs read at the same time
+     */
+    public MVRDocumentAssembler(@NotNull Path spillDirectory, int maxBufferedTransactions, int maxMergeWidth){
+        Objects.requireNonNull(spillDirectory);
+        if (maxBufferedTransactions < 1){
+            throw new IllegalArgumentException("maxBufferedTransactions [" + maxBufferedTransactions + "] is less than 1");
+        }
+        if (maxMergeWidth < 2){
+            throw new IllegalArgumentException("maxMergeWidth [" + maxMergeWidth + "] is less than 2");
+        }
+        this.spillDirectory = spillDirectory;
+        this.maxBufferedTransactions = maxBufferedTransactions;
+        this.maxMergeWidth = maxMergeWidth;
+    }
+
+    /**
+     * @param tx
+     * @throws IOException if a run could not be spilled
+     * @throws IllegalStateException if documents() has been called
+     */
+    public void add(@NotNull MVRTransaction tx) throws IOException{
+        Objects.requireNonNull(tx);
+        if (merging){
+            throw new IllegalStateException("transactions cannot be added after documents() has been called");
+        }
+        buffer.add(new Entry(MVRDocumentGUID.generate(tx.getSource(), tx.getId()), tx, sequence++));
+        transactionsAdded++;
+        if (buffer.size() >= maxBufferedTransactions){
+            spill();
+        }
+    }
+
+    public void addAll(@NotNull Iterable<MVRTransaction> transactions) throws IOException{
+        Objects.requireNonNull(transactions);
+        for (MVRTransaction tx: transactions){
+            add(tx);
+        }
+    }
+
+    /**
+     * Merges the added transactions into MVRDocuments. May only be called once.
+     *
+     * @return the MVRDocuments in GUID order
+     * @throws IOException if the runs could not be merged
+     * @throws UncheckedIOException if a run can not be read while iterating
+     */
+    @NotNull
+    public Iterator<MVRDocument> documents() throws IOException{
+        if (merging){
+            throw new IllegalStateException("documents() has already been called");
+        }
+        merging = true;
+        Collections.sort(buffer);
+        while (runs.size() > maxMergeWidth){
+            mergeRuns();
+        }
+        List<Iterator<MVRTransaction>> sources = new ArrayList<>(runs.size() + 1);
+        for (Path run: runs){
+            sources.add(openRun(run));
+        }
+        List<MVRTransaction> buffered = new ArrayList<>(buffer.size());
+        for (Entry entry: buffer){
+            buffered.add(entry.tx);
+        }
+        buffer.clear();
+        sources.add(buffered.iterator());
+        return new DocumentIterator(new Merge(sources));
+    }
+
+    /**
+     * @return a sequential Stream over documents(). Closing the Stream closes this assembler.
+     * @throws IOException if the runs could not be merged
+     */
+    @NotNull
+    public Stream<MVRDocument> stream() throws IOException{
+        Spliterator<MVRDocument> spliterator = Spliterators.spliteratorUnknownSize(
+                documents(), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try{
+                close();
+            }
+            catch (IOException ex){
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    public long getTransactionsAdded(){
+        return transactionsAdded;
+    }
+
+    public long getSpilledRuns(){
+        return spilledRuns;
+    }
+
+    public long getSpilledTransactions(){
+        return spilledTransactions;
+    }
+
+    /**
+     * @return the bytes written to run files, including the runs written by intermediate merges
+     */
+    public long getSpilledBytes(){
+        return spilledBytes;
+    }
+
+    /**
+     * @return time spent sorting and writing runs, in nanoseconds
+     */
+    public long getSpillNanos(){
+        return spillNanos;
+    }
+
+    /**
+     * @return the transactions read by the final merge and the intermediate merges
+     */
+    public long getMergedTransactions(){
+        return mergedTransactions;
+    }
+
+    /**
+     * @return time spent merging runs and assembling documents, in nanoseconds,
+     * not counting the time the caller spends between documents
+     */
+    public long getMergeNanos(){
+        return mergeNanos;
+    }
+
+    public long getDocumentsEmitted(){
+        return documentsEmitted;
+    }
+
+    /**
+     * @return spilled transactions per second, or 0 if nothing was spilled
+     */
+    public double getSpillThroughput(){
+        return spillNanos == 0 ? 0d : spilledTransactions * 1e9 / spillNanos;
+    }
+
+    /**
+     * @return merged transactions per second, or 0 if nothing was merged
+     */
+    public double getMergeThroughput(){
+        return mergeNanos == 0 ? 0d : mergedTransactions * 1e9 / mergeNanos;
+    }
+
+    /**
+     * Closes the open runs and deletes the run files.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException{
+        IOException failure = null;
+        for (Closeable closeable: open){
+            try{
+                closeable.close();
+            }
+            catch (IOException ex){
+                failure = ex;
+            }
+        }
+        open.clear();
+        for (Path run: runFiles){
+            try{
+                Files.deleteIfExists(run);
+            }
+            catch (IOException ex){
+                failure = ex;
+            }
+        }
+        runFiles.clear();
+        runs.clear();
+        buffer.clear();
+        if (failure != null){
+            throw failure;
+        }
+    }
+
+    @Override
+    public String toString(){
+        return "MVRDocumentAssembler{" +
+                "transactionsAdded=" + transactionsAdded +
+                ", spilledRuns=" + spilledRuns +
+                ", spilledTransactions=" + spilledTransactions +
+                ", spilledBytes=" + spilledBytes +
+                ", spillThroughput=" + Math.round(getSpillThroughput()) + "/s" +
+                ", mergedTransactions=" + mergedTransactions +
+                ", mergeThroughput=" + Math.round(getMergeThroughput()) + "/s" +
+                ", documentsEmitted=" + documentsEmitted +
+                '}';
+    }
+
+    /**
+     * Builds a MVRDocument from the transactions of one GUID. The history is only sorted if the transactions are
+     * out of order.
+     * @param transactions in any order, not empty
+     */
+    static MVRDocument assemble(List<MVRTransaction> transactions){
+        //the last of the latest, as it would be after a stable sort
+        MVRTransaction latest = transactions.get(0);
+        for (MVRTransaction tx: transactions){
+            if (tx.compareTo(latest) >= 0){
+                latest = tx;
+            }
+        }
+        MVRDocument document = new MVRDocument(latest);
+        document.addHistory(transactions);
+        return document;
+    }
+
+    private void spill() throws IOException{
+        long start = System.nanoTime();
+        Collections.sort(buffer);
+        Path run = createRun();
+        runs.add(run);
+        try (MVRBinaryWriter<MVRTransaction> writer = MVRBinaryCodec.transactionWriter(run)){
+            for (Entry entry: buffer){
+                writer.write(entry.tx);
+            }
+            spilledBytes += writer.getBytesWritten();
+        }
+        spilledRuns++;
+        spilledTransactions += buffer.size();
+        buffer.clear();
+        spillNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Merges each group of maxMergeWidth consecutive runs into one run, keeping the runs in the order they were added.
+     */
+    private void mergeRuns() throws IOException{
+        List<Path> merged = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i += maxMergeWidth){
+            List<Path> inputs = new ArrayList<>(runs.subList(i, Math.min(i + maxMergeWidth, runs.size())));
+            merged.add(inputs.size() == 1 ? inputs.get(0) : mergeRuns(inputs));
+        }
+        runs.clear();
+        runs.addAll(merged);
+    }
+
+    private Path mergeRuns(List<Path> inputs) throws IOException{
+        Path run = createRun();
+        List<MVRBinaryReader<MVRTransaction>> readers = new ArrayList<>(inputs.size());
+        try{
+            for (Path input: inputs){
+                readers.add(openRun(input));
+            }
+            long start = System.nanoTime();
+            try (MVRBinaryWriter<MVRTransaction> writer = MVRBinaryCodec.transactionWriter(run)){
+                Merge merge = new Merge(new ArrayList<>(readers));
+                while (merge.hasNext()){
+                    writer.write(merge.next().tx);
+                }
+                spilledBytes += writer.getBytesWritten();
+            }
+            mergeNanos += System.nanoTime() - start;
+        }
+        finally{
+            for (MVRBinaryReader<MVRTransaction> reader: readers){
+                open.remove(reader);
+                reader.close();
+            }
+        }
+        for (Path input: inputs){
+            Files.delete(input);
+            runFiles.remove(input);
+        }
+        return run;
+    }
+
+    private Path createRun() throws IOException{
+        Path run = Files.createTempFile(spillDirectory, "mvr-run-", ".tmp");
+        runFiles.add(run);
+        return run;
+    }
+
+    private MVRBinaryReader<MVRTransaction> openRun(Path run) throws IOException{
+        MVRBinaryReader<MVRTransaction> reader = MVRBinaryCodec.transactionReader(run);
+        open.add(reader);
+        return reader;
+    }
+
+    /**
+     * A buffered transaction and the order it was added in.
+     */
+    private static final class Entry implements Comparable<Entry>{
+        private final String guid;
+        private final MVRTransaction tx;
+        private final long sequence;
+
+        private Entry(String guid, MVRTransaction tx, long sequence){
+            this.guid = guid;
+            this.tx = tx;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(@NotNull Entry other){
+            int cmp = guid.compareTo(other.guid);
+            if (cmp == 0){
+                cmp = tx.compareTo(other.tx);
+            }
+            return cmp == 0 ? Long.compare(sequence, other.sequence) : cmp;
+        }
+    }
+
+    /**
+     * The k-way merge of sorted runs. The run index stands in for the sequence, as earlier runs hold
+     * earlier transactions.
+     */
+    private final class Merge implements Iterator<Entry>{
+
+        private final List<Iterator<MVRTransaction>> sources;
+        private final PriorityQueue<Entry> heads;
+
+        private Merge(List<Iterator<MVRTransaction>> sources){
+            this.sources = sources;
+            heads = new PriorityQueue<>(Math.max(1, sources.size()));
+            for (int i = 0; i < sources.size(); i++){
+                advance(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext(){
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Entry next(){
+            Entry head = heads.poll();
+            if (head == null){
+                throw new NoSuchElementException();
+            }
+            advance((int) head.sequence);
+            mergedTransactions++;
+            return head;
+        }
+
+        private void advance(int source){
+            Iterator<MVRTransaction> iterator = sources.get(source);
+            if (iterator.hasNext()){
+                MVRTransaction tx = iterator.next();
+                heads.add(new Entry(MVRDocumentGUID.generate(tx.getSource(), tx.getId()), tx, source));
+            }
+        }
+    }
+
+    private final class DocumentIterator implements Iterator<MVRDocument>{
+
+        private final Merge merge;
+        private Entry pending;
+
+        private DocumentIterator(Merge merge){
+            this.merge = merge;
+            pending = merge.hasNext() ? merge.next() : null;
+        }
+
+        @Override
+        public boolean hasNext(){
+            return pending != null;
+        }
+
+        @Override
+        public MVRDocument next(){
+            if (pending == null){
+                throw new NoSuchElementException();
+            }
+            long start = System.nanoTime();
+            String guid = pending.guid;
+            List<MVRTransaction> group = new ArrayList<>();
+            group.add(pending.tx);
+            pending = null;
+            while (merge.hasNext()){
+                Entry entry = merge.next();
+                if (!entry.guid.equals(guid)){
+                    pending = entry;
+                    break;
+                }
+                group.add(entry.tx);
+            }
+            MVRDocument document = assemble(group);
+            documentsEmitted++;
+            mergeNanos += System.nanoTime() - start;
+            return document;
+        }
+    }
+}
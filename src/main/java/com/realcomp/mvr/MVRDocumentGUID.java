@@ -9,14 +9,88 @@ import java.util.Objects;
  */
 public class MVRDocumentGUID{
 
+    private static final String PREFIX = "MVR-";
+
+    @NotNull
+    private final String source;
+
+    @NotNull
+    private final String id;
+
+    private MVRDocumentGUID(@NotNull String source, @NotNull String id){
+        this.source = source;
+        this.id = id;
+    }
+
     public static String generate(@NotNull MVRDocument mvr){
         Objects.requireNonNull(mvr);
-        return String.format("%s-%s-%s", "MVR", mvr.getSource(), mvr.getId());
+        return generate(mvr.getSource(), mvr.getId());
     }
 
     public static String generate(@NotNull String source, @NotNull String id){
         Objects.requireNonNull(source);
         Objects.requireNonNull(id);
-        return String.format("%s-%s-%s", "MVR", source, id);
+        return new StringBuilder(PREFIX.length() + source.length() + 1 + id.length())
+                .append(PREFIX)
+                .append(source)
+                .append('-')
+                .append(id)
+                .toString();
+    }
+
+    /**
+     * Parse a GUID with the form "MVR-{source}-{id}".
+     * The source ends at the first '-' after the "MVR-" prefix; the id may contain '-'.
+     *
+     * @param guid
+     * @return the source and id of the guid
+     * @throws IllegalArgumentException if the guid does not have the form "MVR-{source}-{id}"
+     */
+    public static MVRDocumentGUID parse(@NotNull String guid){
+        Objects.requireNonNull(guid);
+        int separator = guid.indexOf('-', PREFIX.length());
+        if (!guid.startsWith(PREFIX) || separator < 0){
+            throw new IllegalArgumentException("guid [" + guid + "] does not match pattern MVR-{source}-{id}");
+        }
+        return new MVRDocumentGUID(guid.substring(PREFIX.length(), separator), guid.substring(separator + 1));
+    }
+
+    @NotNull
+    public String getSource(){
+        return source;
+    }
+
+    @NotNull
+    public String getId(){
+        return id;
+    }
+
+    @Override
+    public String toString(){
+        return generate(source, id);
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if (this == o){
+            return true;
+        }
+        if (!(o instanceof MVRDocumentGUID)){
+            return false;
+        }
+
+        MVRDocumentGUID that = (MVRDocumentGUID) o;
+
+        if (!source.equals(that.source)){
+            return false;
+        }
+        return id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode(){
+        int result = source.hashCode();
+        result = 31 * result + id.hashCode();
+        return result;
     }
 }
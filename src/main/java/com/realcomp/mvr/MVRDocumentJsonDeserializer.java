@@ -0,0 +1,70 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class MVRDocumentJsonDeserializer extends StdDeserializer<MVRDocument>{
+
+    private final MVRTransactionJsonDeserializer transactionDeserializer = new MVRTransactionJsonDeserializer();
+
+    MVRDocumentJsonDeserializer(){
+        super(MVRDocument.class);
+    }
+
+    @Override
+    public MVRDocument deserialize(JsonParser p, DeserializationContext ctxt) throws IOException{
+        MVRDocument doc = new MVRDocument();
+        try{
+            for (String field = firstFieldName(p, MVRDocument.class); field != null; field = p.nextFieldName()){
+                p.nextToken();
+                switch (field){
+                    case "guid":
+                        doc.setGuid(readString(p));
+                        break;
+                    case "source":
+                        doc.setSource(readString(p));
+                        break;
+                    case "state":
+                        doc.setState(readString(p));
+                        break;
+                    case "id":
+                        doc.setId(readString(p));
+                        break;
+                    case "type":
+                        doc.setType(readEnum(p, DocumentType.class));
+                        break;
+                    case "transactionStatus":
+                        doc.setTransactionStatus(readEnum(p, TransactionStatus.class));
+                        break;
+                    case "history":
+                        if (startArray(p)){
+                            List<MVRTransaction> history = new ArrayList<>();
+                            while (p.nextToken() != JsonToken.END_ARRAY){
+                                history.add(transactionDeserializer.deserialize(p, ctxt));
+                            }
+                            doc.setHistory(history);
+                        }
+                        break;
+                    case "attributes":
+                        readAttributes(p, doc.getAttributes());
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, doc, field);
+                }
+            }
+        }
+        catch (IllegalArgumentException | NullPointerException ex){
+            throw JsonMappingException.from(p, ex.getMessage(), ex);
+        }
+        return doc;
+    }
+}
@@ -0,0 +1,44 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+/**
+ * Writes the same fields as default bean serialization, skipping empty values.
+ * The history is written from the document's own list rather than the copy getHistory() returns.
+ */
+class MVRDocumentJsonSerializer extends StdSerializer<MVRDocument>{
+
+    private final MVRTransactionJsonSerializer transactionSerializer = new MVRTransactionJsonSerializer();
+
+    MVRDocumentJsonSerializer(){
+        super(MVRDocument.class);
+    }
+
+    @Override
+    public void serialize(MVRDocument doc, JsonGenerator gen, SerializerProvider provider) throws IOException{
+        gen.writeStartObject();
+        gen.writeStringField("guid", doc.getGuid());
+        gen.writeStringField("source", doc.getSource());
+        writeString(gen, "state", doc.getState());
+        gen.writeStringField("id", doc.getId());
+        gen.writeStringField("type", doc.getType().name());
+        gen.writeStringField("transactionStatus", doc.getTransactionStatus().name());
+        List<MVRTransaction> history = doc.historyList();
+        if (!history.isEmpty()){
+            gen.writeArrayFieldStart("history");
+            for (int i = 0; i < history.size(); i++){
+                transactionSerializer.serialize(history.get(i), gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        writeAttributes(gen, doc.attributes());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,316 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stable 64-bit content hash of MVRDocuments and MVRTransactions, for detecting records that did not change
+ * between feed deliveries.
+ * <p>
+ * Every field that takes part in equals() is mixed in, in declaration order, with the MurmurHash3 64-bit mixing
+ * functions. Strings are mixed in four chars at a time and enums by name, so nothing is allocated and the value
+ * does not depend on String.hashCode(), enum ordinals or the JVM. Attribute maps are hashed independently of
+ * their iteration order. Name, RawAddress and Address are hashed through their JSON form, written by a private
+ * ObjectMapper with properties and map entries sorted, so the result does not depend on how MVRJson is configured.
+ * <p>
+ * Equal objects have equal fingerprints. The fingerprint changes if a field is added to the model; VERSION is
+ * incremented whenever it does, and is mixed into every fingerprint.
+ */
+public final class MVRFingerprint{
+
+    /**
+     * The version of the fingerprint. Fingerprints of different versions never match.
+     */
+    public static final int VERSION = 1;
+
+    private static final long SEED = 0x4d56524650524e54L + VERSION;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long NULL = 0x9e3779b97f4a7c15L;
+
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .writer();
+
+    private long hash = SEED;
+    private long length;
+    private MVRFingerprint entry;
+    private JsonSink json;
+
+    private MVRFingerprint(){
+    }
+
+    /**
+     * @param document
+     * @return the fingerprint of the document and its entire history
+     */
+    public static long of(@NotNull MVRDocument document){
+        Objects.requireNonNull(document);
+        MVRFingerprint fingerprint = new MVRFingerprint();
+        fingerprint.add(document);
+        return fingerprint.finish();
+    }
+
+    /**
+     * @param tx
+     * @return the fingerprint of the transaction
+     */
+    public static long of(@NotNull MVRTransaction tx){
+        Objects.requireNonNull(tx);
+        MVRFingerprint fingerprint = new MVRFingerprint();
+        fingerprint.add(tx);
+        return fingerprint.finish();
+    }
+
+    /**
+     * @param vehicle
+     * @return the fingerprint of the vehicle
+     */
+    public static long of(@NotNull Vehicle vehicle){
+        Objects.requireNonNull(vehicle);
+        MVRFingerprint fingerprint = new MVRFingerprint();
+        fingerprint.add(vehicle);
+        return fingerprint.finish();
+    }
+
+    private void add(MVRDocument document){
+        add(document.getGuid());
+        add(document.getSource());
+        add(document.getState());
+        add(document.getId());
+        add(document.getType());
+        add(document.getTransactionStatus());
+        List<MVRTransaction> history = document.historyList();
+        add(history.size());
+        for (MVRTransaction tx: history){
+            add(tx);
+        }
+        add(document.attributes());
+    }
+
+    private void add(MVRTransaction tx){
+        add(tx.getId());
+        add(tx.getState());
+        add(tx.getSource());
+        add(tx.getTransactionDateAsInt());
+        add(tx.getType());
+        add(tx.getTransactionStatus());
+        add(tx.getTitleIssueDateAsInt());
+        add(tx.getBondedTitleType());
+        add(tx.getPlate());
+        add(tx.getRegistrationClassCode());
+        add(tx.getRegistrationCounty());
+        add(tx.getRegistrationEffectiveDateAsInt());
+        add(tx.getRegistrationExpMonth());
+        add(tx.getRegistrationExpYear());
+        add(tx.isRegistrationInvalid());
+        Vehicle vehicle = tx.getVehicle();
+        if (vehicle == null){
+            mix(NULL);
+        }
+        else{
+            add(vehicle);
+        }
+        addJson(tx.getRawVehicleLocation());
+        addJson(tx.getVehicleLocation());
+        add(tx.getSalePrice());
+        add(tx.getSaleDateAsInt());
+        add(tx.getFlagMask());
+        add(tx.getSurrenderedTitleDateAsInt());
+        add(tx.getOwners().size());
+        for (Owner owner: tx.getOwners()){
+            add(owner.getId());
+            add(owner.getRawName());
+            addJson(owner.getName());
+            addJson(owner.getRawAddress());
+            addJson(owner.getAddress());
+            add(owner.getOwnerEvidenceType());
+            add(owner.getCountry());
+        }
+        add(tx.getRawRenewalName());
+        addJson(tx.getRenewalName());
+        addJson(tx.getRenewalRawAddress());
+        addJson(tx.getRenewalAddress());
+        add(tx.getLienHolders().size());
+        for (LienHolder lienHolder: tx.getLienHolders()){
+            add(lienHolder.getId());
+            add(lienHolder.getRawName());
+            addJson(lienHolder.getName());
+            addJson(lienHolder.getRawAddress());
+            addJson(lienHolder.getAddress());
+            add(lienHolder.getLienDateAsInt());
+            add(lienHolder.getLienCountry());
+        }
+        add(tx.isAdditionalLienHolders());
+        add(tx.attributes());
+    }
+
+    private void add(Vehicle vehicle){
+        add(vehicle.getVin());
+        add(vehicle.getBodyTypeCode());
+        add(vehicle.getVehicleClass());
+        add(vehicle.getVehicleClassCode());
+        add(vehicle.getMake());
+        add(vehicle.getModel());
+        add(vehicle.getModelYear());
+        add(vehicle.getPrimaryColor());
+        add(vehicle.getSecondaryColor());
+        add(Float.floatToIntBits(vehicle.getTonage()));
+        add(vehicle.getBodyVin());
+        add(vehicle.getLength());
+        add(vehicle.getEmptyWeight());
+        add(vehicle.getGrossWeight());
+        add(vehicle.getFuelType());
+        add(vehicle.isFixedEquipment());
+        add(vehicle.getTrailerType());
+        add(vehicle.getOdometerBrand());
+        add(vehicle.getOdometerReading());
+        add(vehicle.attributes());
+    }
+
+    private void add(CharSequence value){
+        if (value == null){
+            mix(NULL);
+            return;
+        }
+        int length = value.length();
+        mix(length);
+        int i = 0;
+        for (; i + 4 <= length; i += 4){
+            mix((long) value.charAt(i)
+                    | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32
+                    | (long) value.charAt(i + 3) << 48);
+        }
+        if (i < length){
+            long tail = 0;
+            for (int shift = 0; i < length; i++, shift += 16){
+                tail |= (long) value.charAt(i) << shift;
+            }
+            mix(tail);
+        }
+    }
+
+    private void add(Enum<?> value){
+        add(value == null ? null : value.name());
+    }
+
+    private void add(int value){
+        mix(value);
+    }
+
+    private void add(boolean value){
+        mix(value ? 1 : 0);
+    }
+
+    /**
+     * Mixes in the sum of the fingerprints of the entries, so the result does not depend on the iteration order.
+     */
+    private void add(Map<String, String> attributes){
+        if (entry == null){
+            entry = new MVRFingerprint();
+        }
+        long sum = 0;
+        for (Map.Entry<String, String> e: attributes.entrySet()){
+            entry.reset();
+            entry.add(e.getKey());
+            entry.add(e.getValue());
+            sum += entry.finish();
+        }
+        mix(attributes.size());
+        mix(sum);
+    }
+
+    private void addJson(Object value){
+        if (value == null){
+            mix(NULL);
+            return;
+        }
+        if (json == null){
+            json = new JsonSink();
+        }
+        try{
+            JSON_WRITER.writeValue(json, value);
+        }
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        json.flushTail();
+    }
+
+    private void mix(long k){
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        k *= C2;
+        hash ^= k;
+        hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+        length++;
+    }
+
+    private long finish(){
+        return fmix(hash ^ length);
+    }
+
+    private void reset(){
+        hash = SEED;
+        length = 0;
+    }
+
+    private static long fmix(long k){
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Mixes the bytes written to it into the fingerprint, eight at a time.
+     */
+    private final class JsonSink extends OutputStream{
+
+        private long word;
+        private int bytes;
+        private int count;
+
+        @Override
+        public void write(int b){
+            word |= (long) (b & 0xff) << (bytes << 3);
+            if (++bytes == 8){
+                mix(word);
+                word = 0;
+                bytes = 0;
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len){
+            for (int i = off; i < off + len; i++){
+                write(b[i]);
+            }
+        }
+
+        private void flushTail(){
+            if (bytes > 0){
+                mix(word);
+                word = 0;
+                bytes = 0;
+            }
+            mix(count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Streaming newline-delimited JSON (NDJSON) I/O for MVRDocuments and MVRTransactions.
+ * Records are read and written one at a time, so memory use does not depend on the size of the file.
+ * All readers and writers share one configured ObjectMapper, with the MVRModule registered,
+ * and its ObjectReaders/ObjectWriters.
+ */
+public final class MVRJson{
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new MVRModule());
+
+    private static final ObjectReader DOCUMENT_READER = MAPPER.readerFor(MVRDocument.class);
+    private static final ObjectReader TRANSACTION_READER = MAPPER.readerFor(MVRTransaction.class);
+
+    private static final ObjectWriter DOCUMENT_WRITER =
+            MAPPER.writerFor(MVRDocument.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final ObjectWriter TRANSACTION_WRITER =
+            MAPPER.writerFor(MVRTransaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private MVRJson(){
+    }
+
+    /**
+     * @return the ObjectMapper shared by all MVRJson readers and writers. Do not reconfigure it.
+     */
+    public static ObjectMapper getObjectMapper(){
+        return MAPPER;
+    }
+
+    public static MVRJsonReader<MVRDocument> documentReader(@NotNull InputStream in) throws IOException{
+        return new MVRJsonReader<>(DOCUMENT_READER, in);
+    }
+
+    public static MVRJsonReader<MVRDocument> documentReader(@NotNull Path path) throws IOException{
+        return documentReader(open(path));
+    }
+
+    public static MVRJsonReader<MVRTransaction> transactionReader(@NotNull InputStream in) throws IOException{
+        return new MVRJsonReader<>(TRANSACTION_READER, in);
+    }
+
+    public static MVRJsonReader<MVRTransaction> transactionReader(@NotNull Path path) throws IOException{
+        return transactionReader(open(path));
+    }
+
+    public static MVRJsonWriter<MVRDocument> documentWriter(@NotNull OutputStream out) throws IOException{
+        return new MVRJsonWriter<>(DOCUMENT_WRITER, out);
+    }
+
+    public static MVRJsonWriter<MVRDocument> documentWriter(@NotNull Path path) throws IOException{
+        return documentWriter(create(path));
+    }
+
+    public static MVRJsonWriter<MVRTransaction> transactionWriter(@NotNull OutputStream out) throws IOException{
+        return new MVRJsonWriter<>(TRANSACTION_WRITER, out);
+    }
+
+    public static MVRJsonWriter<MVRTransaction> transactionWriter(@NotNull Path path) throws IOException{
+        return transactionWriter(create(path));
+    }
+
+    private static InputStream open(Path path) throws IOException{
+        Objects.requireNonNull(path);
+        return new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+    }
+
+    private static OutputStream create(Path path) throws IOException{
+        Objects.requireNonNull(path);
+        return new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,79 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a stream of JSON records one at a time. Records may be newline-delimited or simply concatenated.
+ * Closing the reader closes the underlying InputStream.
+ * Create instances with MVRJson.
+ *
+ * @param <T> MVRDocument or MVRTransaction
+ */
+public class MVRJsonReader<T> implements Iterator<T>, Closeable{
+
+    private final MappingIterator<T> records;
+
+    MVRJsonReader(@NotNull ObjectReader reader, @NotNull InputStream in) throws IOException{
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(in);
+        records = reader.readValues(reader.getFactory().createParser(in));
+    }
+
+    /**
+     * @return true if another record is available
+     * @throws UncheckedIOException if the input could not be read
+     */
+    @Override
+    public boolean hasNext(){
+        try{
+            return records.hasNextValue();
+        }
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return the next record
+     * @throws UncheckedIOException if the input could not be read or parsed
+     */
+    @Override
+    public T next(){
+        try{
+            return records.nextValue();
+        }
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return a sequential Stream over the remaining records. Closing the Stream closes this reader.
+     */
+    public Stream<T> stream(){
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try{
+                close();
+            }
+            catch (IOException ex){
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException{
+        records.close();
+    }
+}
@@ -0,0 +1,229 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Shared read/write helpers for the hand-written MVRModule serializers and deserializers.
+ * The write helpers skip null, false, zero and empty values; the read helpers accept the
+ * output of both the MVRModule serializers and default Jackson bean serialization.
+ */
+final class MVRJsonSupport{
+
+    private MVRJsonSupport(){
+    }
+
+    static void writeString(JsonGenerator gen, String name, String value) throws IOException{
+        if (value != null){
+            gen.writeStringField(name, value);
+        }
+    }
+
+    static void writeBoolean(JsonGenerator gen, String name, boolean value) throws IOException{
+        if (value){
+            gen.writeBooleanField(name, true);
+        }
+    }
+
+    static void writeInt(JsonGenerator gen, String name, int value) throws IOException{
+        if (value != 0){
+            gen.writeNumberField(name, value);
+        }
+    }
+
+    static void writeFloat(JsonGenerator gen, String name, float value) throws IOException{
+        if (value != 0f){
+            gen.writeNumberField(name, value);
+        }
+    }
+
+    static void writeEnum(JsonGenerator gen, String name, Enum<?> value) throws IOException{
+        if (value != null){
+            gen.writeStringField(name, value.name());
+        }
+    }
+
+    /**
+     * Writes a packed date as its YYYYMMDD String without allocating one.
+     * @param buffer at least 8 chars of scratch space
+     */
+    static void writeDate(JsonGenerator gen, String name, int packed, char[] buffer) throws IOException{
+        if (packed != MVRDate.NONE){
+            MVRDate.format(packed, buffer, 0);
+            gen.writeFieldName(name);
+            gen.writeString(buffer, 0, 8);
+        }
+    }
+
+    /**
+     * Writes a value whose serialization is owned by another library (Name, Address, RawAddress).
+     */
+    static void writeObject(JsonGenerator gen, SerializerProvider provider, String name, Object value)
+            throws IOException{
+        if (value != null){
+            provider.defaultSerializeField(name, value, gen);
+        }
+    }
+
+    static void writeAttributes(JsonGenerator gen, Map<String, String> attributes) throws IOException{
+        if (attributes != null && !attributes.isEmpty()){
+            gen.writeObjectFieldStart("attributes");
+            for (Map.Entry<String, String> entry: attributes.entrySet()){
+                gen.writeFieldName(entry.getKey());
+                if (entry.getValue() == null){
+                    gen.writeNull();
+                }
+                else{
+                    gen.writeString(entry.getValue());
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * @return the text of the current scalar token, or null for a JSON null
+     */
+    static String readString(JsonParser p) throws IOException{
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL){
+            return null;
+        }
+        if (!token.isScalarValue()){
+            throw JsonMappingException.from(p, "expected a String value for [" + p.getCurrentName() + "] but found " + token);
+        }
+        return p.getText();
+    }
+
+    static boolean readBoolean(JsonParser p) throws IOException{
+        return p.getValueAsBoolean();
+    }
+
+    static int readInt(JsonParser p) throws IOException{
+        return p.getValueAsInt();
+    }
+
+    static float readFloat(JsonParser p) throws IOException{
+        return (float) p.getValueAsDouble();
+    }
+
+    /**
+     * Parses a YYYYMMDD String directly from the parser's character buffer.
+     * @return the packed date, or MVRDate.NONE for a JSON null
+     */
+    static int readDate(JsonParser p) throws IOException{
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL){
+            return MVRDate.NONE;
+        }
+        if (token != JsonToken.VALUE_STRING || p.getTextLength() != 8){
+            throw JsonMappingException.from(p, "[" + p.getCurrentName() + "] is not a valid YYYYMMDD date");
+        }
+        char[] chars = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int packed = 0;
+        for (int i = offset; i < offset + 8; i++){
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9){
+                throw JsonMappingException.from(p, "[" + p.getCurrentName() + "] is not a valid YYYYMMDD date");
+            }
+            packed = packed * 10 + digit;
+        }
+        return packed;
+    }
+
+    /**
+     * @return the enum constant named by the current token, or null for a JSON null
+     */
+    static <E extends Enum<E>> E readEnum(JsonParser p, Class<E> type) throws IOException{
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL){
+            return null;
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT){
+            E[] values = type.getEnumConstants();
+            int ordinal = p.getIntValue();
+            if (ordinal >= 0 && ordinal < values.length){
+                return values[ordinal];
+            }
+        }
+        else if (token == JsonToken.VALUE_STRING){
+            try{
+                return Enum.valueOf(type, p.getText());
+            }
+            catch (IllegalArgumentException ex){
+                //fall through
+            }
+        }
+        throw JsonMappingException.from(p,
+                "[" + p.getText() + "] is not one of the values accepted for " + type.getSimpleName());
+    }
+
+    /**
+     * Reads a value whose deserialization is owned by another library (Name, Address, RawAddress).
+     * @return the value, or null for a JSON null
+     */
+    static <T> T readObject(JsonParser p, DeserializationContext ctxt, Class<T> type) throws IOException{
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL){
+            return null;
+        }
+        return ctxt.readValue(p, type);
+    }
+
+    /**
+     * Reads a JSON object of String values into the attributes map.
+     */
+    static void readAttributes(JsonParser p, Map<String, String> attributes) throws IOException{
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL){
+            return;
+        }
+        if (token != JsonToken.START_OBJECT){
+            throw JsonMappingException.from(p, "expected an Object for [attributes] but found " + token);
+        }
+        for (String key = p.nextFieldName(); key != null; key = p.nextFieldName()){
+            p.nextToken();
+            attributes.put(StringPools.canonicalize(PooledField.ATTRIBUTE_KEY, key), readString(p));
+        }
+    }
+
+    /**
+     * @return the name of the first field of the Object starting at the current token, or null if it is empty
+     * @throws JsonMappingException if the current token does not start an Object
+     */
+    static String firstFieldName(JsonParser p, Class<?> type) throws IOException{
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.START_OBJECT){
+            return p.nextFieldName();
+        }
+        if (token == JsonToken.FIELD_NAME){
+            return p.getCurrentName();
+        }
+        if (token == JsonToken.END_OBJECT){
+            return null;
+        }
+        throw JsonMappingException.from(p, "expected an Object for " + type.getSimpleName() + " but found " + token);
+    }
+
+    /**
+     * @return true if the current token starts an Array, false for a JSON null
+     * @throws JsonMappingException for any other token
+     */
+    static boolean startArray(JsonParser p) throws IOException{
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL){
+            return false;
+        }
+        if (token != JsonToken.START_ARRAY){
+            throw JsonMappingException.from(p, "expected an Array for [" + p.getCurrentName() + "] but found " + token);
+        }
+        return true;
+    }
+}
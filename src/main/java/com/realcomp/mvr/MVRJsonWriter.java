@@ -0,0 +1,55 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Writes JSON records one at a time, one record per line.
+ * Closing the writer closes the underlying OutputStream.
+ * Create instances with MVRJson.
+ *
+ * @param <T> MVRDocument or MVRTransaction
+ */
+public class MVRJsonWriter<T> implements Closeable, Flushable{
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    MVRJsonWriter(@NotNull ObjectWriter writer, @NotNull OutputStream out) throws IOException{
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(out);
+        this.writer = writer;
+        generator = writer.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+    }
+
+    public void write(@NotNull T record) throws IOException{
+        Objects.requireNonNull(record);
+        writer.writeValue(generator, record);
+        generator.writeRaw('\n');
+    }
+
+    public void writeAll(@NotNull Iterable<? extends T> records) throws IOException{
+        Objects.requireNonNull(records);
+        for (T record: records){
+            write(record);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException{
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException{
+        generator.close();
+    }
+}
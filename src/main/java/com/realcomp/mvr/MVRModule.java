@@ -0,0 +1,30 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Jackson Module with hand-written serializers and deserializers for the MVR model.
+ * Serialization skips null, false, zero, empty and default values; deserialization also
+ * reads the JSON written by default bean serialization.
+ *
+ * <pre>
+ * ObjectMapper mapper = new ObjectMapper().registerModule(new MVRModule());
+ * </pre>
+ */
+public class MVRModule extends SimpleModule{
+
+    public MVRModule(){
+        super("MVRModule", Version.unknownVersion());
+        addSerializer(MVRDocument.class, new MVRDocumentJsonSerializer());
+        addDeserializer(MVRDocument.class, new MVRDocumentJsonDeserializer());
+        addSerializer(MVRTransaction.class, new MVRTransactionJsonSerializer());
+        addDeserializer(MVRTransaction.class, new MVRTransactionJsonDeserializer());
+        addSerializer(Vehicle.class, new VehicleJsonSerializer());
+        addDeserializer(Vehicle.class, new VehicleJsonDeserializer());
+        addSerializer(Owner.class, new OwnerJsonSerializer());
+        addDeserializer(Owner.class, new OwnerJsonDeserializer());
+        addSerializer(LienHolder.class, new LienHolderJsonSerializer());
+        addDeserializer(LienHolder.class, new LienHolderJsonDeserializer());
+    }
+}
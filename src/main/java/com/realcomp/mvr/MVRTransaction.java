@@ -1,18 +1,16 @@
 package com.realcomp.mvr;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.realcomp.address.Address;
 import com.realcomp.address.RawAddress;
 import com.realcomp.names.Name;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 public class MVRTransaction implements Comparable<MVRTransaction>{
 
-    private static final Pattern DATE_PATTERN = Pattern.compile("^[0-9]{8}$"); //YYYYMMDD
-    private static final Pattern MONTH_PATTERN = Pattern.compile("^[0-9]{2}$"); //MM
-    private static final Pattern YEAR_PATTERN = Pattern.compile("^[0-9]{4}$"); //YYYY
+    private static final int ALL_FLAGS = (1 << TitleFlag.values().length) - 1;
 
     @NotNull
     private String id;
@@ -31,9 +29,9 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     /**
      * This is the date this transaction was created. This could be the data date of the raw data.
+     * Packed YYYYMMDD, see MVRDate.
      */
-    @NotNull
-    private String transactionDate;
+    private int transactionDate;
 
 
     @NotNull
@@ -42,13 +40,13 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     @NotNull
     private TransactionStatus transactionStatus;
 
-    private String titleIssueDate;
+    private int titleIssueDate = MVRDate.NONE;
     private BondedTitleType bondedTitleType = BondedTitleType.NONE;
 
     private String plate;
     private String registrationClassCode;
     private String registrationCounty;
-    private String registrationEffectiveDate;
+    private int registrationEffectiveDate = MVRDate.NONE;
     private String registrationExpMonth;
     private String registrationExpYear;
     private boolean registrationInvalid;
@@ -57,44 +55,13 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     private RawAddress rawVehicleLocation;
     private Address vehicleLocation;
     private String salePrice;
-    private String saleDate;
-
-    private boolean stolen;
-    private boolean exempt;
-    private boolean governmentOwned;
-    private boolean lemonLaw;
-
-    //Indicates that a salvage title or other title was
-    // previously issued for a motor vehicle which has been
-    // declared a total loss due to flood damage.
-    private boolean floodDamage;
-
-    private boolean inspectionWaived;
-    private boolean junk;
-
-    /**
-     * Indicates that a salvage title or other title has
-     * previously been issued on a vehicle that has, at
-     * some time, been a vehicle with a history of a
-     * previously issued salvaged title.
-     */
-    private boolean reconditioned;
+    private int saleDate = MVRDate.NONE;
 
     /**
-     * Indicates that some type of physical modification was made to the vehicle.
-     * Example: 	Vehicle was changed from one type of vehicle to another.
-     * Example: 	Vehicle has had a new frame installed and the identification number of the frame acts as the VIN.
-     * Example: 	Vehicle with a VEHMODLYR prior to 1956 has had a motor change.
-     * Example: 	Vehicle was assembled from three component parts (motor, frame and body).
+     * TitleFlag bits
      */
-    private boolean reconstructed;
-    private boolean titleRevoked;
-    private boolean surrenderedTitle;
-    private String surrenderedTitleDate;
-    private boolean safetySuspension;
-    private boolean plateSeized;
-    private boolean stickerSeized;
-    private boolean heavyUseTax;
+    private int flags;
+    private int surrenderedTitleDate = MVRDate.NONE;
 
     @NotNull
     private List<Owner> owners;
@@ -119,18 +86,31 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     private Map<String, String> attributes;
 
+    /**
+     * Cached hash of the String, enum, date, flag and boolean fields, or 0 if not computed.
+     * Reset by every setter of those fields. Only these fields are cached: the Vehicle, owners, lienHolders,
+     * names, addresses and attributes can be modified through their getters without the transaction knowing,
+     * so hashCode() rehashes them on every call.
+     */
+    private int hash;
+
     public MVRTransaction(){
         id = "";
         state = "";
-        transactionDate = "00000000";
+        transactionDate = MVRDate.UNKNOWN;
         source = "";
         type = DocumentType.UNKNOWN;
         transactionStatus = TransactionStatus.UNKNOWN;
-        attributes = new HashMap<>();
         owners = new ArrayList<>();
         lienHolders = new ArrayList<>();
     }
 
+    /**
+     * Deep copy. The Vehicle, owners, lienHolders, renewalName and renewalRawAddress are copied. The
+     * rawVehicleLocation, vehicleLocation and renewalAddress are shared with the original, and the attributes
+     * share their storage with the original until either map is modified.
+     * @param copy
+     */
     public MVRTransaction(MVRTransaction copy){
         Objects.requireNonNull(copy);
         id = copy.id;
@@ -138,20 +118,20 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         transactionDate = copy.transactionDate;
         source = copy.source;
         type = copy.type;
-        transactionStatus = copy.getTransactionStatus();
-        attributes = new HashMap<>();
-        attributes.putAll(copy.getAttributes());
-        owners = new ArrayList<>();
-        for (Owner owner: copy.getOwners()){
+        transactionStatus = copy.transactionStatus;
+        attributes = AttributeMap.copyOf(copy.attributes);
+        owners = new ArrayList<>(copy.owners.size());
+        for (Owner owner: copy.owners){
             owners.add(new Owner(owner));
         }
-        lienHolders = new ArrayList<>();
-        for (LienHolder lienHolder: copy.getLienHolders()){
+        lienHolders = new ArrayList<>(copy.lienHolders.size());
+        for (LienHolder lienHolder: copy.lienHolders){
             lienHolders.add(new LienHolder(lienHolder));
         }
-        rawRenewalName = copy.getRawRenewalName();
-        renewalName = copy.getRenewalName() == null ? null : new Name(copy.getRawRenewalName());
-        renewalRawAddress = copy.getRenewalRawAddress() == null ? null : new RawAddress(copy.getRenewalRawAddress());
+        rawRenewalName = copy.rawRenewalName;
+        renewalName = copy.renewalName == null ? null : new Name(copy.renewalName);
+        renewalRawAddress = copy.renewalRawAddress == null ? null : new RawAddress(copy.renewalRawAddress);
+        renewalAddress = copy.renewalAddress;
         additionalLienHolders = copy.additionalLienHolders;
         titleIssueDate = copy.titleIssueDate;
         bondedTitleType = copy.bondedTitleType;
@@ -162,27 +142,14 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         registrationExpMonth = copy.registrationExpMonth;
         registrationExpYear = copy.registrationExpYear;
         registrationInvalid = copy.registrationInvalid;
-        vehicle = new Vehicle(copy.vehicle);
+        vehicle = copy.vehicle == null ? null : new Vehicle(copy.vehicle);
         rawVehicleLocation = copy.rawVehicleLocation;
         vehicleLocation = copy.vehicleLocation;
         salePrice = copy.salePrice;
         saleDate = copy.saleDate;
-        stolen = copy.stolen;
-        exempt = copy.exempt;
-        governmentOwned = copy.governmentOwned;
-        lemonLaw = copy.lemonLaw;
-        floodDamage = copy.floodDamage;
-        inspectionWaived = copy.inspectionWaived;
-        junk = copy.junk;
-        reconditioned = copy.reconditioned;
-        reconstructed = copy.reconstructed;
-        titleRevoked = copy.titleRevoked;
-        surrenderedTitle = copy.surrenderedTitle;
+        flags = copy.flags;
         surrenderedTitleDate = copy.surrenderedTitleDate;
-        safetySuspension = copy.safetySuspension;
-        plateSeized = copy.plateSeized;
-        stickerSeized = copy.stickerSeized;
-        heavyUseTax = copy.heavyUseTax;
+        hash = copy.hash;
     }
 
     @NotNull
@@ -193,6 +160,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     public void setId(@NotNull String id){
         Objects.requireNonNull(id);
         this.id = id;
+        hash = 0;
     }
 
     @NotNull
@@ -202,7 +170,8 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setState(@NotNull String state){
         Objects.requireNonNull(state);
-        this.state = state;
+        this.state = StringPools.canonicalize(PooledField.STATE, state);
+        hash = 0;
     }
 
     @NotNull
@@ -212,21 +181,41 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setSource(@NotNull String source){
         Objects.requireNonNull(source);
-        this.source = source;
+        this.source = StringPools.canonicalize(PooledField.SOURCE, source);
+        hash = 0;
     }
 
     @NotNull
     public String getTransactionDate(){
-        return transactionDate;
+        return MVRDate.format(transactionDate);
     }
 
     public void setTransactionDate(@NotNull String transactionDate){
         Objects.requireNonNull(transactionDate);
-        if (!DATE_PATTERN.matcher(transactionDate).matches()){
+        if (!FieldValidator.isDate(transactionDate)){
             throw new IllegalArgumentException(
-                    "transactionDate [" + transactionDate + "] does not match pattern YYYYMMDD");
+                    "transactionDate [" + transactionDate + "] is not a valid YYYYMMDD date");
+        }
+        this.transactionDate = MVRDate.pack(transactionDate);
+        hash = 0;
+    }
+
+    /**
+     * @return the transactionDate as a packed YYYYMMDD int
+     */
+    @JsonIgnore
+    public int getTransactionDateAsInt(){
+        return transactionDate;
+    }
+
+    @JsonIgnore
+    public void setTransactionDateAsInt(int transactionDate){
+        if (transactionDate == MVRDate.NONE || !MVRDate.isValid(transactionDate)){
+            throw new IllegalArgumentException(
+                    "transactionDate [" + transactionDate + "] is not a packed YYYYMMDD date");
         }
         this.transactionDate = transactionDate;
+        hash = 0;
     }
 
     @NotNull
@@ -237,6 +226,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     public void setType(@NotNull DocumentType type){
         Objects.requireNonNull(type);
         this.type = type;
+        hash = 0;
     }
 
     @NotNull
@@ -247,19 +237,39 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     public void setTransactionStatus(@NotNull TransactionStatus transactionStatus){
         Objects.requireNonNull(transactionStatus);
         this.transactionStatus = transactionStatus;
+        hash = 0;
     }
 
 
     public String getTitleIssueDate(){
-        return titleIssueDate;
+        return MVRDate.format(titleIssueDate);
     }
 
     public void setTitleIssueDate(String titleIssueDate){
-        if (titleIssueDate != null && !DATE_PATTERN.matcher(titleIssueDate).matches()){
+        if (titleIssueDate != null && !FieldValidator.isDate(titleIssueDate)){
+            throw new IllegalArgumentException(
+                    "titleIssueDate [" + titleIssueDate + "] is not a valid YYYYMMDD date");
+        }
+        this.titleIssueDate = MVRDate.pack(titleIssueDate);
+        hash = 0;
+    }
+
+    /**
+     * @return the titleIssueDate as a packed YYYYMMDD int, or MVRDate.NONE
+     */
+    @JsonIgnore
+    public int getTitleIssueDateAsInt(){
+        return titleIssueDate;
+    }
+
+    @JsonIgnore
+    public void setTitleIssueDateAsInt(int titleIssueDate){
+        if (!MVRDate.isValid(titleIssueDate)){
             throw new IllegalArgumentException(
-                    "titleIssueDate [" + titleIssueDate + "] does not match pattern YYYYMMDD");
+                    "titleIssueDate [" + titleIssueDate + "] is not a packed YYYYMMDD date");
         }
         this.titleIssueDate = titleIssueDate;
+        hash = 0;
     }
 
     public BondedTitleType getBondedTitleType(){
@@ -268,6 +278,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setBondedTitleType(BondedTitleType bondedTitleType){
         this.bondedTitleType = bondedTitleType;
+        hash = 0;
     }
 
     public String getPlate(){
@@ -276,6 +287,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setPlate(String plate){
         this.plate = plate;
+        hash = 0;
     }
 
     public String getRegistrationClassCode(){
@@ -283,7 +295,8 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     }
 
     public void setRegistrationClassCode(String registrationClassCode){
-        this.registrationClassCode = registrationClassCode;
+        this.registrationClassCode = StringPools.canonicalize(PooledField.REGISTRATION_CLASS_CODE, registrationClassCode);
+        hash = 0;
     }
 
     public String getRegistrationCounty(){
@@ -291,19 +304,39 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     }
 
     public void setRegistrationCounty(String registrationCounty){
-        this.registrationCounty = registrationCounty;
+        this.registrationCounty = StringPools.canonicalize(PooledField.REGISTRATION_COUNTY, registrationCounty);
+        hash = 0;
     }
 
     public String getRegistrationEffectiveDate(){
-        return registrationEffectiveDate;
+        return MVRDate.format(registrationEffectiveDate);
     }
 
     public void setRegistrationEffectiveDate(String registrationEffectiveDate){
-        if (registrationEffectiveDate != null && !DATE_PATTERN.matcher(registrationEffectiveDate).matches()){
+        if (registrationEffectiveDate != null && !FieldValidator.isDate(registrationEffectiveDate)){
             throw new IllegalArgumentException(
-                    "registrationEffectiveDate [" + registrationEffectiveDate + "] does not match pattern YYYYMMDD");
+                    "registrationEffectiveDate [" + registrationEffectiveDate + "] is not a valid YYYYMMDD date");
+        }
+        this.registrationEffectiveDate = MVRDate.pack(registrationEffectiveDate);
+        hash = 0;
+    }
+
+    /**
+     * @return the registrationEffectiveDate as a packed YYYYMMDD int, or MVRDate.NONE
+     */
+    @JsonIgnore
+    public int getRegistrationEffectiveDateAsInt(){
+        return registrationEffectiveDate;
+    }
+
+    @JsonIgnore
+    public void setRegistrationEffectiveDateAsInt(int registrationEffectiveDate){
+        if (!MVRDate.isValid(registrationEffectiveDate)){
+            throw new IllegalArgumentException(
+                    "registrationEffectiveDate [" + registrationEffectiveDate + "] is not a packed YYYYMMDD date");
         }
         this.registrationEffectiveDate = registrationEffectiveDate;
+        hash = 0;
     }
 
 
@@ -312,11 +345,12 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     }
 
     public void setRegistrationExpMonth(String registrationExpMonth){
-        if (registrationExpMonth != null && !MONTH_PATTERN.matcher(registrationExpMonth).matches()){
+        if (registrationExpMonth != null && !FieldValidator.isMonth(registrationExpMonth)){
             throw new IllegalArgumentException(
-                    "registrationExpMonth [" + registrationExpMonth + "] does not match pattern MM");
+                    "registrationExpMonth [" + registrationExpMonth + "] is not a valid MM month");
         }
         this.registrationExpMonth = registrationExpMonth;
+        hash = 0;
     }
 
     public String getRegistrationExpYear(){
@@ -324,11 +358,12 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     }
 
     public void setRegistrationExpYear(String registrationExpYear){
-        if (registrationExpYear != null && !YEAR_PATTERN.matcher(registrationExpYear).matches()){
+        if (registrationExpYear != null && !FieldValidator.isYear(registrationExpYear)){
             throw new IllegalArgumentException(
                     "registrationExpYear [" + registrationExpYear + "] does not match pattern YYYY");
         }
         this.registrationExpYear = registrationExpYear;
+        hash = 0;
     }
 
     public boolean isRegistrationInvalid(){
@@ -337,6 +372,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setRegistrationInvalid(boolean registrationInvalid){
         this.registrationInvalid = registrationInvalid;
+        hash = 0;
     }
 
 
@@ -346,150 +382,271 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setSalePrice(String salePrice){
         this.salePrice = salePrice;
+        hash = 0;
     }
 
     public String getSaleDate(){
-        return saleDate;
+        return MVRDate.format(saleDate);
     }
 
     public void setSaleDate(String saleDate){
-        if (saleDate != null && !DATE_PATTERN.matcher(saleDate).matches()){
+        if (saleDate != null && !FieldValidator.isDate(saleDate)){
+            throw new IllegalArgumentException(
+                    "saleDate [" + saleDate + "] is not a valid YYYYMMDD date");
+        }
+        this.saleDate = MVRDate.pack(saleDate);
+        hash = 0;
+    }
+
+    /**
+     * @return the saleDate as a packed YYYYMMDD int, or MVRDate.NONE
+     */
+    @JsonIgnore
+    public int getSaleDateAsInt(){
+        return saleDate;
+    }
+
+    @JsonIgnore
+    public void setSaleDateAsInt(int saleDate){
+        if (!MVRDate.isValid(saleDate)){
             throw new IllegalArgumentException(
-                    "saleDate [" + saleDate + "] does not match pattern YYYYMMDD");
+                    "saleDate [" + saleDate + "] is not a packed YYYYMMDD date");
         }
         this.saleDate = saleDate;
+        hash = 0;
     }
 
     public boolean isStolen(){
-        return stolen;
+        return hasFlag(TitleFlag.STOLEN);
     }
 
     public void setStolen(boolean stolen){
-        this.stolen = stolen;
+        setFlag(TitleFlag.STOLEN, stolen);
     }
 
     public boolean isExempt(){
-        return exempt;
+        return hasFlag(TitleFlag.EXEMPT);
     }
 
     public void setExempt(boolean exempt){
-        this.exempt = exempt;
+        setFlag(TitleFlag.EXEMPT, exempt);
     }
 
     public boolean isGovernmentOwned(){
-        return governmentOwned;
+        return hasFlag(TitleFlag.GOVERNMENT_OWNED);
     }
 
     public void setGovernmentOwned(boolean governmentOwned){
-        this.governmentOwned = governmentOwned;
+        setFlag(TitleFlag.GOVERNMENT_OWNED, governmentOwned);
     }
 
     public boolean isLemonLaw(){
-        return lemonLaw;
+        return hasFlag(TitleFlag.LEMON_LAW);
     }
 
     public void setLemonLaw(boolean lemonLaw){
-        this.lemonLaw = lemonLaw;
+        setFlag(TitleFlag.LEMON_LAW, lemonLaw);
     }
 
     public boolean isFloodDamage(){
-        return floodDamage;
+        return hasFlag(TitleFlag.FLOOD_DAMAGE);
     }
 
     public void setFloodDamage(boolean floodDamage){
-        this.floodDamage = floodDamage;
+        setFlag(TitleFlag.FLOOD_DAMAGE, floodDamage);
     }
 
     public boolean isInspectionWaived(){
-        return inspectionWaived;
+        return hasFlag(TitleFlag.INSPECTION_WAIVED);
     }
 
     public void setInspectionWaived(boolean inspectionWaived){
-        this.inspectionWaived = inspectionWaived;
+        setFlag(TitleFlag.INSPECTION_WAIVED, inspectionWaived);
     }
 
     public boolean isJunk(){
-        return junk;
+        return hasFlag(TitleFlag.JUNK);
     }
 
     public void setJunk(boolean junk){
-        this.junk = junk;
+        setFlag(TitleFlag.JUNK, junk);
     }
 
     public boolean isReconditioned(){
-        return reconditioned;
+        return hasFlag(TitleFlag.RECONDITIONED);
     }
 
     public void setReconditioned(boolean reconditioned){
-        this.reconditioned = reconditioned;
+        setFlag(TitleFlag.RECONDITIONED, reconditioned);
     }
 
     public boolean isReconstructed(){
-        return reconstructed;
+        return hasFlag(TitleFlag.RECONSTRUCTED);
     }
 
     public void setReconstructed(boolean reconstructed){
-        this.reconstructed = reconstructed;
+        setFlag(TitleFlag.RECONSTRUCTED, reconstructed);
     }
 
     public boolean isTitleRevoked(){
-        return titleRevoked;
+        return hasFlag(TitleFlag.TITLE_REVOKED);
     }
 
     public void setTitleRevoked(boolean titleRevoked){
-        this.titleRevoked = titleRevoked;
+        setFlag(TitleFlag.TITLE_REVOKED, titleRevoked);
     }
 
     public boolean isSurrenderedTitle(){
-        return surrenderedTitle;
+        return hasFlag(TitleFlag.SURRENDERED_TITLE);
     }
 
     public void setSurrenderedTitle(boolean surrenderedTitle){
-        this.surrenderedTitle = surrenderedTitle;
+        setFlag(TitleFlag.SURRENDERED_TITLE, surrenderedTitle);
     }
 
     public String getSurrenderedTitleDate(){
-        return surrenderedTitleDate;
+        return MVRDate.format(surrenderedTitleDate);
     }
 
     public void setSurrenderedTitleDate(String surrenderedTitleDate){
-        if (surrenderedTitleDate != null && !DATE_PATTERN.matcher(surrenderedTitleDate).matches()){
+        if (surrenderedTitleDate != null && !FieldValidator.isDate(surrenderedTitleDate)){
             throw new IllegalArgumentException(
-                    "surrenderedTitleDate [" + surrenderedTitleDate + "] does not match pattern YYYYMMDD");
+                    "surrenderedTitleDate [" + surrenderedTitleDate + "] is not a valid YYYYMMDD date");
+        }
+        this.surrenderedTitleDate = MVRDate.pack(surrenderedTitleDate);
+        hash = 0;
+    }
+
+    /**
+     * @return the surrenderedTitleDate as a packed YYYYMMDD int, or MVRDate.NONE
+     */
+    @JsonIgnore
+    public int getSurrenderedTitleDateAsInt(){
+        return surrenderedTitleDate;
+    }
+
+    @JsonIgnore
+    public void setSurrenderedTitleDateAsInt(int surrenderedTitleDate){
+        if (!MVRDate.isValid(surrenderedTitleDate)){
+            throw new IllegalArgumentException(
+                    "surrenderedTitleDate [" + surrenderedTitleDate + "] is not a packed YYYYMMDD date");
         }
         this.surrenderedTitleDate = surrenderedTitleDate;
+        hash = 0;
     }
 
     public boolean isSafetySuspension(){
-        return safetySuspension;
+        return hasFlag(TitleFlag.SAFETY_SUSPENSION);
     }
 
     public void setSafetySuspension(boolean safetySuspension){
-        this.safetySuspension = safetySuspension;
+        setFlag(TitleFlag.SAFETY_SUSPENSION, safetySuspension);
     }
 
     public boolean isPlateSeized(){
-        return plateSeized;
+        return hasFlag(TitleFlag.PLATE_SEIZED);
     }
 
     public void setPlateSeized(boolean plateSeized){
-        this.plateSeized = plateSeized;
+        setFlag(TitleFlag.PLATE_SEIZED, plateSeized);
     }
 
     public boolean isStickerSeized(){
-        return stickerSeized;
+        return hasFlag(TitleFlag.STICKER_SEIZED);
     }
 
     public void setStickerSeized(boolean stickerSeized){
-        this.stickerSeized = stickerSeized;
+        setFlag(TitleFlag.STICKER_SEIZED, stickerSeized);
     }
 
     public boolean isHeavyUseTax(){
-        return heavyUseTax;
+        return hasFlag(TitleFlag.HEAVY_USE_TAX);
     }
 
     public void setHeavyUseTax(boolean heavyUseTax){
-        this.heavyUseTax = heavyUseTax;
+        setFlag(TitleFlag.HEAVY_USE_TAX, heavyUseTax);
+    }
+
+    public boolean hasFlag(@NotNull TitleFlag flag){
+        return (flags & flag.mask()) != 0;
+    }
+
+    public void setFlag(@NotNull TitleFlag flag, boolean value){
+        if (value){
+            flags |= flag.mask();
+        }
+        else{
+            flags &= ~flag.mask();
+        }
+        hash = 0;
+    }
+
+    /**
+     * @return a copy of the TitleFlags that are set
+     */
+    @JsonIgnore
+    @NotNull
+    public EnumSet<TitleFlag> getFlags(){
+        return TitleFlag.fromMask(flags);
+    }
+
+    /**
+     * Replace all TitleFlags
+     * @param flags the TitleFlags to set; all others are cleared
+     */
+    @JsonIgnore
+    public void setFlags(@NotNull Collection<TitleFlag> flags){
+        this.flags = TitleFlag.mask(flags);
+        hash = 0;
+    }
+
+    /**
+     * @return the TitleFlags as a bit mask of TitleFlag.mask() bits
+     */
+    @JsonIgnore
+    public int getFlagMask(){
+        return flags;
+    }
+
+    @JsonIgnore
+    public void setFlagMask(int flags){
+        if ((flags & ~ALL_FLAGS) != 0){
+            throw new IllegalArgumentException("flags [" + Integer.toBinaryString(flags) + "] has undefined TitleFlag bits");
+        }
+        this.flags = flags;
+        hash = 0;
+    }
+
+    /**
+     * @param mask TitleFlag.mask() bits
+     * @return true if any of the flags in the mask are set
+     */
+    public boolean hasAny(int mask){
+        return (flags & mask) != 0;
+    }
+
+    public boolean hasAny(@NotNull Set<TitleFlag> flags){
+        return hasAny(TitleFlag.mask(flags));
+    }
+
+    /**
+     * @param mask TitleFlag.mask() bits
+     * @return true if all of the flags in the mask are set
+     */
+    public boolean hasAll(int mask){
+        return (flags & mask) == mask;
+    }
+
+    public boolean hasAll(@NotNull Set<TitleFlag> flags){
+        return hasAll(TitleFlag.mask(flags));
+    }
+
+    /**
+     * @return true if any of the TitleFlag.BRANDS are set
+     */
+    @JsonIgnore
+    public boolean isBranded(){
+        return (flags & TitleFlag.BRAND_MASK) != 0;
     }
 
 
@@ -515,6 +672,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setRawRenewalName(String rawRenewalName){
         this.rawRenewalName = rawRenewalName;
+        hash = 0;
     }
 
     public Name getRenewalName(){
@@ -562,6 +720,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public void setAdditionalLienHolders(boolean additionalLienHolders){
         this.additionalLienHolders = additionalLienHolders;
+        hash = 0;
     }
 
     public Vehicle getVehicle(){
@@ -588,9 +747,20 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
     }
 
     public Map<String, String> getAttributes(){
+        if (attributes == null){
+            attributes = new AttributeMap();
+        }
         return attributes;
     }
 
+    /**
+     * @return the attributes, without allocating a map if there are none. Must not be modified.
+     */
+    @NotNull
+    Map<String, String> attributes(){
+        return attributes == null ? Collections.emptyMap() : attributes;
+    }
+
     public void setAttributes(@NotNull Map<String, String> attributes){
         Objects.requireNonNull(attributes);
         this.attributes = attributes;
@@ -599,7 +769,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     public String setAttribute(@NotNull String key, String value){
         Objects.requireNonNull(key);
-        return attributes.put(key, value);
+        return getAttributes().put(StringPools.canonicalize(PooledField.ATTRIBUTE_KEY, key), value);
     }
 
 
@@ -613,7 +783,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
 
     @Override
     public int compareTo(@NotNull MVRTransaction other){
-        return transactionDate.compareTo(other.transactionDate);
+        return Integer.compare(transactionDate, other.transactionDate);
     }
 
     @Override
@@ -630,49 +800,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         if (registrationInvalid != that.registrationInvalid){
             return false;
         }
-        if (stolen != that.stolen){
-            return false;
-        }
-        if (exempt != that.exempt){
-            return false;
-        }
-        if (governmentOwned != that.governmentOwned){
-            return false;
-        }
-        if (lemonLaw != that.lemonLaw){
-            return false;
-        }
-        if (floodDamage != that.floodDamage){
-            return false;
-        }
-        if (inspectionWaived != that.inspectionWaived){
-            return false;
-        }
-        if (junk != that.junk){
-            return false;
-        }
-        if (reconditioned != that.reconditioned){
-            return false;
-        }
-        if (reconstructed != that.reconstructed){
-            return false;
-        }
-        if (titleRevoked != that.titleRevoked){
-            return false;
-        }
-        if (surrenderedTitle != that.surrenderedTitle){
-            return false;
-        }
-        if (safetySuspension != that.safetySuspension){
-            return false;
-        }
-        if (plateSeized != that.plateSeized){
-            return false;
-        }
-        if (stickerSeized != that.stickerSeized){
-            return false;
-        }
-        if (heavyUseTax != that.heavyUseTax){
+        if (flags != that.flags){
             return false;
         }
         if (additionalLienHolders != that.additionalLienHolders){
@@ -687,7 +815,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         if (!source.equals(that.source)){
             return false;
         }
-        if (!transactionDate.equals(that.transactionDate)){
+        if (transactionDate != that.transactionDate){
             return false;
         }
         if (type != that.type){
@@ -696,7 +824,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         if (transactionStatus != that.transactionStatus){
             return false;
         }
-        if (titleIssueDate != null ? !titleIssueDate.equals(that.titleIssueDate) : that.titleIssueDate != null){
+        if (titleIssueDate != that.titleIssueDate){
             return false;
         }
         if (bondedTitleType != that.bondedTitleType){
@@ -711,7 +839,7 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         if (registrationCounty != null ? !registrationCounty.equals(that.registrationCounty) : that.registrationCounty != null){
             return false;
         }
-        if (registrationEffectiveDate != null ? !registrationEffectiveDate.equals(that.registrationEffectiveDate) : that.registrationEffectiveDate != null){
+        if (registrationEffectiveDate != that.registrationEffectiveDate){
             return false;
         }
         if (registrationExpMonth != null ? !registrationExpMonth.equals(that.registrationExpMonth) : that.registrationExpMonth != null){
@@ -732,10 +860,10 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         if (salePrice != null ? !salePrice.equals(that.salePrice) : that.salePrice != null){
             return false;
         }
-        if (saleDate != null ? !saleDate.equals(that.saleDate) : that.saleDate != null){
+        if (saleDate != that.saleDate){
             return false;
         }
-        if (surrenderedTitleDate != null ? !surrenderedTitleDate.equals(that.surrenderedTitleDate) : that.surrenderedTitleDate != null){
+        if (surrenderedTitleDate != that.surrenderedTitleDate){
             return false;
         }
         if (!owners.equals(that.owners)){
@@ -756,59 +884,65 @@ public class MVRTransaction implements Comparable<MVRTransaction>{
         if (!lienHolders.equals(that.lienHolders)){
             return false;
         }
-        if (attributes != null ? !attributes.equals(that.attributes) : that.attributes != null){
+        if (!attributes().equals(that.attributes())){
             return false;
         }
 
         return true;
     }
 
+    /**
+     * The hash of the mutable parts (Vehicle, owners, lienHolders, attributes, names and addresses) is computed on
+     * every call, since they can be modified through their getters. The hash of the remaining fields is cached.
+     */
     @Override
     public int hashCode(){
-        int result = id.hashCode();
-        result = 31 * result + state.hashCode();
-        result = 31 * result + source.hashCode();
-        result = 31 * result + transactionDate.hashCode();
-        result = 31 * result + type.hashCode();
-        result = 31 * result + transactionStatus.hashCode();
-        result = 31 * result + (titleIssueDate != null ? titleIssueDate.hashCode() : 0);
-        result = 31 * result + (bondedTitleType != null ? bondedTitleType.hashCode() : 0);
-        result = 31 * result + (plate != null ? plate.hashCode() : 0);
-        result = 31 * result + (registrationClassCode != null ? registrationClassCode.hashCode() : 0);
-        result = 31 * result + (registrationCounty != null ? registrationCounty.hashCode() : 0);
-        result = 31 * result + (registrationEffectiveDate != null ? registrationEffectiveDate.hashCode() : 0);
-        result = 31 * result + (registrationExpMonth != null ? registrationExpMonth.hashCode() : 0);
-        result = 31 * result + (registrationExpYear != null ? registrationExpYear.hashCode() : 0);
-        result = 31 * result + (registrationInvalid ? 1 : 0);
+        int result = scalarHash();
         result = 31 * result + (vehicle != null ? vehicle.hashCode() : 0);
         result = 31 * result + (rawVehicleLocation != null ? rawVehicleLocation.hashCode() : 0);
         result = 31 * result + (vehicleLocation != null ? vehicleLocation.hashCode() : 0);
-        result = 31 * result + (salePrice != null ? salePrice.hashCode() : 0);
-        result = 31 * result + (saleDate != null ? saleDate.hashCode() : 0);
-        result = 31 * result + (stolen ? 1 : 0);
-        result = 31 * result + (exempt ? 1 : 0);
-        result = 31 * result + (governmentOwned ? 1 : 0);
-        result = 31 * result + (lemonLaw ? 1 : 0);
-        result = 31 * result + (floodDamage ? 1 : 0);
-        result = 31 * result + (inspectionWaived ? 1 : 0);
-        result = 31 * result + (junk ? 1 : 0);
-        result = 31 * result + (reconditioned ? 1 : 0);
-        result = 31 * result + (reconstructed ? 1 : 0);
-        result = 31 * result + (titleRevoked ? 1 : 0);
-        result = 31 * result + (surrenderedTitle ? 1 : 0);
-        result = 31 * result + (surrenderedTitleDate != null ? surrenderedTitleDate.hashCode() : 0);
-        result = 31 * result + (safetySuspension ? 1 : 0);
-        result = 31 * result + (plateSeized ? 1 : 0);
-        result = 31 * result + (stickerSeized ? 1 : 0);
-        result = 31 * result + (heavyUseTax ? 1 : 0);
         result = 31 * result + owners.hashCode();
-        result = 31 * result + (rawRenewalName != null ? rawRenewalName.hashCode() : 0);
         result = 31 * result + (renewalName != null ? renewalName.hashCode() : 0);
         result = 31 * result + (renewalRawAddress != null ? renewalRawAddress.hashCode() : 0);
         result = 31 * result + (renewalAddress != null ? renewalAddress.hashCode() : 0);
         result = 31 * result + lienHolders.hashCode();
-        result = 31 * result + (additionalLienHolders ? 1 : 0);
-        result = 31 * result + (attributes != null ? attributes.hashCode() : 0);
+        result = 31 * result + attributes().hashCode();
+        return result;
+    }
+
+    private int scalarHash(){
+        int result = hash;
+        if (result == 0){
+            result = id.hashCode();
+            result = 31 * result + state.hashCode();
+            result = 31 * result + source.hashCode();
+            result = 31 * result + transactionDate;
+            result = 31 * result + type.hashCode();
+            result = 31 * result + transactionStatus.hashCode();
+            result = 31 * result + titleIssueDate;
+            result = 31 * result + (bondedTitleType != null ? bondedTitleType.hashCode() : 0);
+            result = 31 * result + (plate != null ? plate.hashCode() : 0);
+            result = 31 * result + (registrationClassCode != null ? registrationClassCode.hashCode() : 0);
+            result = 31 * result + (registrationCounty != null ? registrationCounty.hashCode() : 0);
+            result = 31 * result + registrationEffectiveDate;
+            result = 31 * result + (registrationExpMonth != null ? registrationExpMonth.hashCode() : 0);
+            result = 31 * result + (registrationExpYear != null ? registrationExpYear.hashCode() : 0);
+            result = 31 * result + (registrationInvalid ? 1 : 0);
+            result = 31 * result + (salePrice != null ? salePrice.hashCode() : 0);
+            result = 31 * result + saleDate;
+            result = 31 * result + flags;
+            result = 31 * result + surrenderedTitleDate;
+            result = 31 * result + (rawRenewalName != null ? rawRenewalName.hashCode() : 0);
+            result = 31 * result + (additionalLienHolders ? 1 : 0);
+            hash = result;
+        }
         return result;
     }
+
+    /**
+     * @return a stable 64-bit hash of the content of this transaction, see MVRFingerprint
+     */
+    public long fingerprint(){
+        return MVRFingerprint.of(this);
+    }
 }
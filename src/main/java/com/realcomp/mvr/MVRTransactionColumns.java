@@ -0,0 +1,426 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Column oriented store of the scalar fields of many MVRTransactions, for analytic scans.
+ * <p>
+ * Dates and TitleFlags are held in int arrays, enums as ordinals, and the low-cardinality
+ * Strings as ids into a per-column dictionary. The where*() scans run over a single primitive
+ * array and return the matching rows as a BitSet; combine them with BitSet.and()/or().
+ * <p>
+ * Owners, lien holders, addresses, names and attributes are not stored; a materialized
+ * MVRTransaction has only the fields listed in DateColumn and StringColumn, the id, type,
+ * transactionStatus, bondedTitleType, flags, and a Vehicle with vin, make, model, modelYear and vehicleClass.
+ * <p>
+ * Not thread-safe. Scans may run concurrently once all rows have been added.
+ */
+public class MVRTransactionColumns{
+
+    public enum DateColumn{
+        TRANSACTION_DATE,
+        TITLE_ISSUE_DATE,
+        REGISTRATION_EFFECTIVE_DATE,
+        SALE_DATE,
+        SURRENDERED_TITLE_DATE
+    }
+
+    public enum StringColumn{
+        STATE,
+        SOURCE,
+        REGISTRATION_COUNTY,
+        REGISTRATION_CLASS_CODE,
+        MAKE,
+        MODEL,
+        MODEL_YEAR
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final byte NULL_ORDINAL = -1;
+
+    private static final DocumentType[] TYPES = DocumentType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    private static final BondedTitleType[] BONDED_TITLE_TYPES = BondedTitleType.values();
+    private static final VehicleClass[] VEHICLE_CLASSES = VehicleClass.values();
+
+    private int size;
+
+    private String[] ids;
+    private String[] vins;
+    private final int[][] dates = new int[DateColumn.values().length][];
+    private final int[][] strings = new int[StringColumn.values().length][];
+    private final StringDictionary[] dictionaries = new StringDictionary[StringColumn.values().length];
+    private int[] flags;
+    private byte[] types;
+    private byte[] statuses;
+    private byte[] bondedTitleTypes;
+    private byte[] vehicleClasses;
+    private final BitSet hasVehicle = new BitSet();
+
+    public MVRTransactionColumns(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MVRTransactionColumns(int initialCapacity){
+        if (initialCapacity < 0){
+            throw new IllegalArgumentException("initialCapacity [" + initialCapacity + "] is negative");
+        }
+        ids = new String[initialCapacity];
+        vins = new String[initialCapacity];
+        for (int i = 0; i < dates.length; i++){
+            dates[i] = new int[initialCapacity];
+        }
+        for (int i = 0; i < strings.length; i++){
+            strings[i] = new int[initialCapacity];
+            dictionaries[i] = new StringDictionary();
+        }
+        flags = new int[initialCapacity];
+        types = new byte[initialCapacity];
+        statuses = new byte[initialCapacity];
+        bondedTitleTypes = new byte[initialCapacity];
+        vehicleClasses = new byte[initialCapacity];
+    }
+
+    /**
+     * @param tx
+     * @return the row of the added transaction
+     */
+    public int add(@NotNull MVRTransaction tx){
+        Objects.requireNonNull(tx);
+        if (size == ids.length){
+            grow();
+        }
+        int row = size;
+        ids[row] = tx.getId();
+        dates[DateColumn.TRANSACTION_DATE.ordinal()][row] = tx.getTransactionDateAsInt();
+        dates[DateColumn.TITLE_ISSUE_DATE.ordinal()][row] = tx.getTitleIssueDateAsInt();
+        dates[DateColumn.REGISTRATION_EFFECTIVE_DATE.ordinal()][row] = tx.getRegistrationEffectiveDateAsInt();
+        dates[DateColumn.SALE_DATE.ordinal()][row] = tx.getSaleDateAsInt();
+        dates[DateColumn.SURRENDERED_TITLE_DATE.ordinal()][row] = tx.getSurrenderedTitleDateAsInt();
+        encode(StringColumn.STATE, row, tx.getState());
+        encode(StringColumn.SOURCE, row, tx.getSource());
+        encode(StringColumn.REGISTRATION_COUNTY, row, tx.getRegistrationCounty());
+        encode(StringColumn.REGISTRATION_CLASS_CODE, row, tx.getRegistrationClassCode());
+        flags[row] = tx.getFlagMask();
+        types[row] = ordinal(tx.getType());
+        statuses[row] = ordinal(tx.getTransactionStatus());
+        bondedTitleTypes[row] = ordinal(tx.getBondedTitleType());
+
+        Vehicle vehicle = tx.getVehicle();
+        if (vehicle != null){
+            hasVehicle.set(row);
+            vins[row] = vehicle.getVin();
+            encode(StringColumn.MAKE, row, vehicle.getMake());
+            encode(StringColumn.MODEL, row, vehicle.getModel());
+            encode(StringColumn.MODEL_YEAR, row, vehicle.getModelYear());
+            vehicleClasses[row] = ordinal(vehicle.getVehicleClass());
+        }
+        else{
+            vins[row] = null;
+            encode(StringColumn.MAKE, row, null);
+            encode(StringColumn.MODEL, row, null);
+            encode(StringColumn.MODEL_YEAR, row, null);
+            vehicleClasses[row] = NULL_ORDINAL;
+        }
+        size++;
+        return row;
+    }
+
+    public void addAll(@NotNull Collection<MVRTransaction> transactions){
+        Objects.requireNonNull(transactions);
+        for (MVRTransaction tx: transactions){
+            add(tx);
+        }
+    }
+
+    /**
+     * Adds the history of the document.
+     * @param document
+     */
+    public void add(@NotNull MVRDocument document){
+        Objects.requireNonNull(document);
+        for (MVRTransaction tx: document.historyList()){
+            add(tx);
+        }
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @param column
+     * @return the number of distinct non-null values in the column
+     */
+    public int cardinality(@NotNull StringColumn column){
+        return dictionaries[column.ordinal()].size();
+    }
+
+    public String getId(int row){
+        checkRow(row);
+        return ids[row];
+    }
+
+    public String getVin(int row){
+        checkRow(row);
+        return vins[row];
+    }
+
+    /**
+     * @param column
+     * @param row
+     * @return the packed date, or MVRDate.NONE
+     */
+    public int getDate(@NotNull DateColumn column, int row){
+        checkRow(row);
+        return dates[column.ordinal()][row];
+    }
+
+    public String getString(@NotNull StringColumn column, int row){
+        checkRow(row);
+        return dictionaries[column.ordinal()].decode(strings[column.ordinal()][row]);
+    }
+
+    public int getFlagMask(int row){
+        checkRow(row);
+        return flags[row];
+    }
+
+    public DocumentType getType(int row){
+        checkRow(row);
+        return decode(TYPES, types[row]);
+    }
+
+    public TransactionStatus getTransactionStatus(int row){
+        checkRow(row);
+        return decode(STATUSES, statuses[row]);
+    }
+
+    public BondedTitleType getBondedTitleType(int row){
+        checkRow(row);
+        return decode(BONDED_TITLE_TYPES, bondedTitleTypes[row]);
+    }
+
+    public VehicleClass getVehicleClass(int row){
+        checkRow(row);
+        return decode(VEHICLE_CLASSES, vehicleClasses[row]);
+    }
+
+    /**
+     * @param column
+     * @param from packed date, inclusive
+     * @param to packed date, inclusive
+     * @return the rows with a date in [from, to]. Rows without the date (MVRDate.NONE) never match a range starting at or after UNKNOWN.
+     */
+    @NotNull
+    public BitSet whereDateBetween(@NotNull DateColumn column, int from, int to){
+        int[] values = dates[column.ordinal()];
+        long[] words = words();
+        for (int i = 0; i < size; i++){
+            int value = values[i];
+            if (value >= from && value <= to){
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @param column
+     * @param value
+     * @return the rows where the column equals value; null matches the rows without a value
+     */
+    @NotNull
+    public BitSet whereEquals(@NotNull StringColumn column, String value){
+        int id = dictionaries[column.ordinal()].lookup(value);
+        if (value != null && id == StringDictionary.NULL){
+            return new BitSet();
+        }
+        return whereEquals(strings[column.ordinal()], id);
+    }
+
+    /**
+     * @param column
+     * @param values
+     * @return the rows where the column equals any of the values
+     */
+    @NotNull
+    public BitSet whereIn(@NotNull StringColumn column, @NotNull Collection<String> values){
+        Objects.requireNonNull(values);
+        StringDictionary dictionary = dictionaries[column.ordinal()];
+        boolean[] match = new boolean[dictionary.size() + 1];
+        for (String value: values){
+            int id = dictionary.lookup(value);
+            if (value == null || id != StringDictionary.NULL){
+                match[id + 1] = true;
+            }
+        }
+        int[] encoded = strings[column.ordinal()];
+        long[] words = words();
+        for (int i = 0; i < size; i++){
+            if (match[encoded[i] + 1]){
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @param mask TitleFlag.mask() bits
+     * @return the rows with any of the flags in the mask set
+     */
+    @NotNull
+    public BitSet whereAnyFlag(int mask){
+        long[] words = words();
+        for (int i = 0; i < size; i++){
+            if ((flags[i] & mask) != 0){
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @param mask TitleFlag.mask() bits
+     * @return the rows with all of the flags in the mask set
+     */
+    @NotNull
+    public BitSet whereAllFlags(int mask){
+        long[] words = words();
+        for (int i = 0; i < size; i++){
+            if ((flags[i] & mask) == mask){
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    @NotNull
+    public BitSet whereType(@NotNull DocumentType type){
+        return whereEquals(types, type.ordinal());
+    }
+
+    @NotNull
+    public BitSet whereTransactionStatus(@NotNull TransactionStatus transactionStatus){
+        return whereEquals(statuses, transactionStatus.ordinal());
+    }
+
+    @NotNull
+    public BitSet whereVehicleClass(@NotNull VehicleClass vehicleClass){
+        return whereEquals(vehicleClasses, vehicleClass.ordinal());
+    }
+
+    /**
+     * @param row
+     * @return a new MVRTransaction with the stored fields of the row
+     */
+    @NotNull
+    public MVRTransaction materialize(int row){
+        checkRow(row);
+        MVRTransaction tx = new MVRTransaction();
+        tx.setId(ids[row]);
+        tx.setState(getString(StringColumn.STATE, row));
+        tx.setSource(getString(StringColumn.SOURCE, row));
+        tx.setTransactionDateAsInt(dates[DateColumn.TRANSACTION_DATE.ordinal()][row]);
+        tx.setTitleIssueDateAsInt(dates[DateColumn.TITLE_ISSUE_DATE.ordinal()][row]);
+        tx.setRegistrationEffectiveDateAsInt(dates[DateColumn.REGISTRATION_EFFECTIVE_DATE.ordinal()][row]);
+        tx.setSaleDateAsInt(dates[DateColumn.SALE_DATE.ordinal()][row]);
+        tx.setSurrenderedTitleDateAsInt(dates[DateColumn.SURRENDERED_TITLE_DATE.ordinal()][row]);
+        tx.setRegistrationCounty(getString(StringColumn.REGISTRATION_COUNTY, row));
+        tx.setRegistrationClassCode(getString(StringColumn.REGISTRATION_CLASS_CODE, row));
+        tx.setFlagMask(flags[row]);
+        tx.setType(decode(TYPES, types[row]));
+        tx.setTransactionStatus(decode(STATUSES, statuses[row]));
+        tx.setBondedTitleType(decode(BONDED_TITLE_TYPES, bondedTitleTypes[row]));
+        if (hasVehicle.get(row)){
+            Vehicle vehicle = new Vehicle();
+            vehicle.setVin(vins[row]);
+            vehicle.setMake(getString(StringColumn.MAKE, row));
+            vehicle.setModel(getString(StringColumn.MODEL, row));
+            vehicle.setModelYear(getString(StringColumn.MODEL_YEAR, row));
+            vehicle.setVehicleClass(decode(VEHICLE_CLASSES, vehicleClasses[row]));
+            tx.setVehicle(vehicle);
+        }
+        return tx;
+    }
+
+    /**
+     * @param rows
+     * @return the materialized rows, in row order
+     */
+    @NotNull
+    public List<MVRTransaction> materialize(@NotNull BitSet rows){
+        Objects.requireNonNull(rows);
+        List<MVRTransaction> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)){
+            result.add(materialize(row));
+        }
+        return result;
+    }
+
+    private void encode(StringColumn column, int row, String value){
+        strings[column.ordinal()][row] = dictionaries[column.ordinal()].encode(value);
+    }
+
+    private BitSet whereEquals(int[] values, int value){
+        long[] words = words();
+        for (int i = 0; i < size; i++){
+            if (values[i] == value){
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private BitSet whereEquals(byte[] values, int value){
+        long[] words = words();
+        for (int i = 0; i < size; i++){
+            if (values[i] == value){
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private long[] words(){
+        return new long[(size + 63) >>> 6];
+    }
+
+    private void checkRow(int row){
+        if (row < 0 || row >= size){
+            throw new IndexOutOfBoundsException("row [" + row + "] is not in [0, " + size + ")");
+        }
+    }
+
+    private void grow(){
+        int capacity = Math.max(DEFAULT_CAPACITY, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        vins = Arrays.copyOf(vins, capacity);
+        for (int i = 0; i < dates.length; i++){
+            dates[i] = Arrays.copyOf(dates[i], capacity);
+        }
+        for (int i = 0; i < strings.length; i++){
+            strings[i] = Arrays.copyOf(strings[i], capacity);
+        }
+        flags = Arrays.copyOf(flags, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        bondedTitleTypes = Arrays.copyOf(bondedTitleTypes, capacity);
+        vehicleClasses = Arrays.copyOf(vehicleClasses, capacity);
+    }
+
+    private static byte ordinal(Enum<?> value){
+        return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+    }
+
+    private static <E> E decode(E[] values, byte ordinal){
+        return ordinal == NULL_ORDINAL ? null : values[ordinal];
+    }
+}
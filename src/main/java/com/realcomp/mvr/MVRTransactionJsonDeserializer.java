@@ -0,0 +1,183 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.realcomp.address.Address;
+import com.realcomp.address.RawAddress;
+import com.realcomp.names.Name;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class MVRTransactionJsonDeserializer extends StdDeserializer<MVRTransaction>{
+
+    private final VehicleJsonDeserializer vehicleDeserializer = new VehicleJsonDeserializer();
+    private final OwnerJsonDeserializer ownerDeserializer = new OwnerJsonDeserializer();
+    private final LienHolderJsonDeserializer lienHolderDeserializer = new LienHolderJsonDeserializer();
+
+    MVRTransactionJsonDeserializer(){
+        super(MVRTransaction.class);
+    }
+
+    @Override
+    public MVRTransaction deserialize(JsonParser p, DeserializationContext ctxt) throws IOException{
+        MVRTransaction tx = new MVRTransaction();
+        try{
+            for (String field = firstFieldName(p, MVRTransaction.class); field != null; field = p.nextFieldName()){
+                p.nextToken();
+                switch (field){
+                    case "id":
+                        tx.setId(readString(p));
+                        break;
+                    case "state":
+                        tx.setState(readString(p));
+                        break;
+                    case "source":
+                        tx.setSource(readString(p));
+                        break;
+                    case "transactionDate":
+                        tx.setTransactionDateAsInt(readDate(p));
+                        break;
+                    case "type":
+                        tx.setType(readEnum(p, DocumentType.class));
+                        break;
+                    case "transactionStatus":
+                        tx.setTransactionStatus(readEnum(p, TransactionStatus.class));
+                        break;
+                    case "titleIssueDate":
+                        tx.setTitleIssueDateAsInt(readDate(p));
+                        break;
+                    case "bondedTitleType":
+                        tx.setBondedTitleType(readEnum(p, BondedTitleType.class));
+                        break;
+                    case "plate":
+                        tx.setPlate(readString(p));
+                        break;
+                    case "registrationClassCode":
+                        tx.setRegistrationClassCode(readString(p));
+                        break;
+                    case "registrationCounty":
+                        tx.setRegistrationCounty(readString(p));
+                        break;
+                    case "registrationEffectiveDate":
+                        tx.setRegistrationEffectiveDateAsInt(readDate(p));
+                        break;
+                    case "registrationExpMonth":
+                        tx.setRegistrationExpMonth(readString(p));
+                        break;
+                    case "registrationExpYear":
+                        tx.setRegistrationExpYear(readString(p));
+                        break;
+                    case "registrationInvalid":
+                        tx.setRegistrationInvalid(readBoolean(p));
+                        break;
+                    case "vehicle":
+                        tx.setVehicle(p.getCurrentToken() == JsonToken.VALUE_NULL ? null : vehicleDeserializer.deserialize(p, ctxt));
+                        break;
+                    case "rawVehicleLocation":
+                        tx.setRawVehicleLocation(readObject(p, ctxt, RawAddress.class));
+                        break;
+                    case "vehicleLocation":
+                        tx.setVehicleLocation(readObject(p, ctxt, Address.class));
+                        break;
+                    case "salePrice":
+                        tx.setSalePrice(readString(p));
+                        break;
+                    case "saleDate":
+                        tx.setSaleDateAsInt(readDate(p));
+                        break;
+                    case "stolen":
+                        tx.setStolen(readBoolean(p));
+                        break;
+                    case "exempt":
+                        tx.setExempt(readBoolean(p));
+                        break;
+                    case "governmentOwned":
+                        tx.setGovernmentOwned(readBoolean(p));
+                        break;
+                    case "lemonLaw":
+                        tx.setLemonLaw(readBoolean(p));
+                        break;
+                    case "floodDamage":
+                        tx.setFloodDamage(readBoolean(p));
+                        break;
+                    case "inspectionWaived":
+                        tx.setInspectionWaived(readBoolean(p));
+                        break;
+                    case "junk":
+                        tx.setJunk(readBoolean(p));
+                        break;
+                    case "reconditioned":
+                        tx.setReconditioned(readBoolean(p));
+                        break;
+                    case "reconstructed":
+                        tx.setReconstructed(readBoolean(p));
+                        break;
+                    case "titleRevoked":
+                        tx.setTitleRevoked(readBoolean(p));
+                        break;
+                    case "surrenderedTitle":
+                        tx.setSurrenderedTitle(readBoolean(p));
+                        break;
+                    case "surrenderedTitleDate":
+                        tx.setSurrenderedTitleDateAsInt(readDate(p));
+                        break;
+                    case "safetySuspension":
+                        tx.setSafetySuspension(readBoolean(p));
+                        break;
+                    case "plateSeized":
+                        tx.setPlateSeized(readBoolean(p));
+                        break;
+                    case "stickerSeized":
+                        tx.setStickerSeized(readBoolean(p));
+                        break;
+                    case "heavyUseTax":
+                        tx.setHeavyUseTax(readBoolean(p));
+                        break;
+                    case "owners":
+                        if (startArray(p)){
+                            while (p.nextToken() != JsonToken.END_ARRAY){
+                                tx.addOwner(ownerDeserializer.deserialize(p, ctxt));
+                            }
+                        }
+                        break;
+                    case "rawRenewalName":
+                        tx.setRawRenewalName(readString(p));
+                        break;
+                    case "renewalName":
+                        tx.setRenewalName(readObject(p, ctxt, Name.class));
+                        break;
+                    case "renewalRawAddress":
+                        tx.setRenewalRawAddress(readObject(p, ctxt, RawAddress.class));
+                        break;
+                    case "renewalAddress":
+                        tx.setRenewalAddress(readObject(p, ctxt, Address.class));
+                        break;
+                    case "lienHolders":
+                        if (startArray(p)){
+                            while (p.nextToken() != JsonToken.END_ARRAY){
+                                tx.addLienHolder(lienHolderDeserializer.deserialize(p, ctxt));
+                            }
+                        }
+                        break;
+                    case "additionalLienHolders":
+                        tx.setAdditionalLienHolders(readBoolean(p));
+                        break;
+                    case "attributes":
+                        readAttributes(p, tx.getAttributes());
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, tx, field);
+                }
+            }
+        }
+        catch (IllegalArgumentException | NullPointerException ex){
+            throw JsonMappingException.from(p, ex.getMessage(), ex);
+        }
+        return tx;
+    }
+}
@@ -0,0 +1,96 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+/**
+ * Writes the same fields as default bean serialization, skipping null, false, empty and default values.
+ */
+class MVRTransactionJsonSerializer extends StdSerializer<MVRTransaction>{
+
+    private final VehicleJsonSerializer vehicleSerializer = new VehicleJsonSerializer();
+    private final OwnerJsonSerializer ownerSerializer = new OwnerJsonSerializer();
+    private final LienHolderJsonSerializer lienHolderSerializer = new LienHolderJsonSerializer();
+
+    MVRTransactionJsonSerializer(){
+        super(MVRTransaction.class);
+    }
+
+    @Override
+    public void serialize(MVRTransaction tx, JsonGenerator gen, SerializerProvider provider) throws IOException{
+        char[] dates = new char[8];
+        gen.writeStartObject();
+        writeString(gen, "id", tx.getId());
+        writeString(gen, "state", tx.getState());
+        writeString(gen, "source", tx.getSource());
+        writeDate(gen, "transactionDate", tx.getTransactionDateAsInt(), dates);
+        gen.writeStringField("type", tx.getType().name());
+        gen.writeStringField("transactionStatus", tx.getTransactionStatus().name());
+        writeDate(gen, "titleIssueDate", tx.getTitleIssueDateAsInt(), dates);
+        BondedTitleType bondedTitleType = tx.getBondedTitleType();
+        if (bondedTitleType == null){
+            //not the NONE default
+            gen.writeNullField("bondedTitleType");
+        }
+        else if (bondedTitleType != BondedTitleType.NONE){
+            writeEnum(gen, "bondedTitleType", bondedTitleType);
+        }
+        writeString(gen, "plate", tx.getPlate());
+        writeString(gen, "registrationClassCode", tx.getRegistrationClassCode());
+        writeString(gen, "registrationCounty", tx.getRegistrationCounty());
+        writeDate(gen, "registrationEffectiveDate", tx.getRegistrationEffectiveDateAsInt(), dates);
+        writeString(gen, "registrationExpMonth", tx.getRegistrationExpMonth());
+        writeString(gen, "registrationExpYear", tx.getRegistrationExpYear());
+        writeBoolean(gen, "registrationInvalid", tx.isRegistrationInvalid());
+        if (tx.getVehicle() != null){
+            gen.writeFieldName("vehicle");
+            vehicleSerializer.serialize(tx.getVehicle(), gen, provider);
+        }
+        writeObject(gen, provider, "rawVehicleLocation", tx.getRawVehicleLocation());
+        writeObject(gen, provider, "vehicleLocation", tx.getVehicleLocation());
+        writeString(gen, "salePrice", tx.getSalePrice());
+        writeDate(gen, "saleDate", tx.getSaleDateAsInt(), dates);
+        writeBoolean(gen, "stolen", tx.isStolen());
+        writeBoolean(gen, "exempt", tx.isExempt());
+        writeBoolean(gen, "governmentOwned", tx.isGovernmentOwned());
+        writeBoolean(gen, "lemonLaw", tx.isLemonLaw());
+        writeBoolean(gen, "floodDamage", tx.isFloodDamage());
+        writeBoolean(gen, "inspectionWaived", tx.isInspectionWaived());
+        writeBoolean(gen, "junk", tx.isJunk());
+        writeBoolean(gen, "reconditioned", tx.isReconditioned());
+        writeBoolean(gen, "reconstructed", tx.isReconstructed());
+        writeBoolean(gen, "titleRevoked", tx.isTitleRevoked());
+        writeBoolean(gen, "surrenderedTitle", tx.isSurrenderedTitle());
+        writeDate(gen, "surrenderedTitleDate", tx.getSurrenderedTitleDateAsInt(), dates);
+        writeBoolean(gen, "safetySuspension", tx.isSafetySuspension());
+        writeBoolean(gen, "plateSeized", tx.isPlateSeized());
+        writeBoolean(gen, "stickerSeized", tx.isStickerSeized());
+        writeBoolean(gen, "heavyUseTax", tx.isHeavyUseTax());
+        if (!tx.getOwners().isEmpty()){
+            gen.writeArrayFieldStart("owners");
+            for (Owner owner: tx.getOwners()){
+                ownerSerializer.serialize(owner, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        writeString(gen, "rawRenewalName", tx.getRawRenewalName());
+        writeObject(gen, provider, "renewalName", tx.getRenewalName());
+        writeObject(gen, provider, "renewalRawAddress", tx.getRenewalRawAddress());
+        writeObject(gen, provider, "renewalAddress", tx.getRenewalAddress());
+        if (!tx.getLienHolders().isEmpty()){
+            gen.writeArrayFieldStart("lienHolders");
+            for (LienHolder lienHolder: tx.getLienHolders()){
+                lienHolderSerializer.serialize(lienHolder, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        writeBoolean(gen, "additionalLienHolders", tx.isAdditionalLienHolders());
+        writeAttributes(gen, tx.attributes());
+        gen.writeEndObject();
+    }
+}
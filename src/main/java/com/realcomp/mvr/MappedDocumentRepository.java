@@ -0,0 +1,421 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only access by GUID to the MVRDocuments of a directory of MVRB document files.
+ * <p>
+ * Each segment file ("*.mvrb", written with MVRBinaryCodec.documentWriter()) must be smaller than 2GB.
+ * buildIndex() scans the segments once and writes a GUID index ("mvr.idx") sorted by the UTF-8 bytes of
+ * the GUID. open() memory maps the index and the segments without reading them, so startup cost does not
+ * depend on the size of the archive; pages are loaded by the OS as lookups and scans touch them.
+ * <p>
+ * Index layout: the magic "MVRI", a version byte and 3 reserved bytes; the segment count followed by the
+ * UTF-8 name and size of each segment; the entry count and the length of the GUID blob; one 16 byte
+ * entry per document (GUID offset and length in the blob, segment number, record offset in the segment);
+ * and the blob of GUID bytes.
+ * <p>
+ * Lookups and scans are thread-safe. Mapped buffers are released when they are garbage collected, not on close().
+ */
+public class MappedDocumentRepository implements Closeable{
+
+    public static final String INDEX_FILE = "mvr.idx";
+    public static final String SEGMENT_SUFFIX = ".mvrb";
+
+    static final byte[] INDEX_MAGIC = {'M', 'V', 'R', 'I'};
+    static final int INDEX_VERSION = 1;
+    private static final int ENTRY_LENGTH = 16;
+
+    private final Path directory;
+    private final List<String> segmentNames;
+    private final ByteBuffer[] segments;
+    private final ByteBuffer entries;
+    private final ByteBuffer guids;
+    private final int size;
+
+    private MappedDocumentRepository(Path directory, List<String> segmentNames, ByteBuffer[] segments,
+                                     ByteBuffer entries, ByteBuffer guids, int size){
+        this.directory = directory;
+        this.segmentNames = segmentNames;
+        this.segments = segments;
+        this.entries = entries;
+        this.guids = guids;
+        this.size = size;
+    }
+
+    /**
+     * Maps the index and segments of a directory prepared with buildIndex().
+     *
+     * @param directory
+     * @return the repository
+     * @throws IOException if the index is missing or malformed, or a segment is missing or has changed size
+     */
+    public static MappedDocumentRepository open(@NotNull Path directory) throws IOException{
+        Objects.requireNonNull(directory);
+        ByteBuffer index = map(directory.resolve(INDEX_FILE));
+        checkIndexHeader(index);
+        index.position(INDEX_MAGIC.length + 4);
+
+        int segmentCount = index.getInt();
+        List<String> names = new ArrayList<>(segmentCount);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++){
+            byte[] name = new byte[index.getInt()];
+            index.get(name);
+            long expectedSize = index.getLong();
+            names.add(new String(name, StandardCharsets.UTF_8));
+            Path segment = directory.resolve(names.get(i));
+            if (Files.size(segment) != expectedSize){
+                throw new IOException("segment [" + segment + "] has changed since " + INDEX_FILE + " was built");
+            }
+            segments[i] = map(segment);
+            byte[] header = new byte[MVRBinaryCodec.HEADER_LENGTH];
+            segments[i].duplicate().get(header);
+            MVRBinaryCodec.checkHeader(header, MVRBinaryCodec.DOCUMENT);
+        }
+
+        int size = index.getInt();
+        int blobLength = index.getInt();
+        if ((long) size * ENTRY_LENGTH + blobLength != index.remaining()){
+            throw new IOException(INDEX_FILE + " in [" + directory + "] is truncated");
+        }
+        ByteBuffer entries = slice(index, index.position(), size * ENTRY_LENGTH);
+        ByteBuffer guids = slice(index, index.position() + size * ENTRY_LENGTH, blobLength);
+        return new MappedDocumentRepository(
+                directory, Collections.unmodifiableList(names), segments, entries, guids, size);
+    }
+
+    /**
+     * Scans the "*.mvrb" segments of the directory, in name order, and writes their GUID index.
+     * If a GUID appears more than once, the last record (by segment name, then offset) is indexed.
+     * The GUIDs are sorted in memory.
+     *
+     * @param directory
+     * @return the number of indexed documents
+     * @throws IOException
+     */
+    public static int buildIndex(@NotNull Path directory) throws IOException{
+        Objects.requireNonNull(directory);
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)){
+            for (Path file: files){
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+
+        List<IndexEntry> found = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++){
+            ByteBuffer segment = map(segments.get(i));
+            byte[] header = new byte[MVRBinaryCodec.HEADER_LENGTH];
+            segment.get(header);
+            MVRBinaryCodec.checkHeader(header, MVRBinaryCodec.DOCUMENT);
+            while (segment.hasRemaining()){
+                int offset = segment.position();
+                try{
+                    int length = MVRBinaryCodec.readVarint(segment);
+                    int start = segment.position();
+                    if (length > segment.remaining()){
+                        throw new BufferUnderflowException();
+                    }
+                    byte[] guid = MVRBinaryCodec.readGuid(segment).getBytes(StandardCharsets.UTF_8);
+                    found.add(new IndexEntry(guid, i, offset));
+                    segment.position(start + length);
+                }
+                catch (BufferUnderflowException | IllegalArgumentException ex){
+                    throw new IOException("segment [" + segments.get(i) + "] is malformed at offset " + offset, ex);
+                }
+            }
+        }
+        Collections.sort(found);
+
+        List<IndexEntry> unique = new ArrayList<>(found.size());
+        for (IndexEntry entry: found){
+            int last = unique.size() - 1;
+            if (last >= 0 && compare(unique.get(last).guid, entry.guid) == 0){
+                unique.set(last, entry);
+            }
+            else{
+                unique.add(entry);
+            }
+        }
+        writeIndex(directory, segments, unique);
+        return unique.size();
+    }
+
+    private static void writeIndex(Path directory, List<Path> segments, List<IndexEntry> entries)
+            throws IOException{
+        long blobLength = 0;
+        for (IndexEntry entry: entries){
+            blobLength += entry.guid.length;
+        }
+        if (blobLength + (long) entries.size() * ENTRY_LENGTH > Integer.MAX_VALUE){
+            throw new IOException("GUID index of [" + directory + "] exceeds 2GB");
+        }
+
+        Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))){
+            out.write(INDEX_MAGIC);
+            out.write(INDEX_VERSION);
+            out.write(new byte[3]);
+            out.writeInt(segments.size());
+            for (Path segment: segments){
+                byte[] name = segment.getFileName().toString().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeLong(Files.size(segment));
+            }
+            out.writeInt(entries.size());
+            out.writeInt((int) blobLength);
+            int guidOffset = 0;
+            for (IndexEntry entry: entries){
+                out.writeInt(guidOffset);
+                out.writeInt(entry.guid.length);
+                out.writeInt(entry.segment);
+                out.writeInt(entry.offset);
+                guidOffset += entry.guid.length;
+            }
+            for (IndexEntry entry: entries){
+                out.write(entry.guid);
+            }
+        }
+        Files.move(tmp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @NotNull
+    public Path getDirectory(){
+        return directory;
+    }
+
+    /**
+     * @return the names of the segment files, in segment number order
+     */
+    @NotNull
+    public List<String> getSegmentNames(){
+        return segmentNames;
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size(){
+        return size;
+    }
+
+    public boolean contains(@NotNull String guid){
+        return find(guid) >= 0;
+    }
+
+    /**
+     * @param guid
+     * @return the decoded MVRDocument with the guid, if it is in the repository
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    @NotNull
+    public Optional<MVRDocument> get(@NotNull String guid){
+        Optional<ByteBuffer> record = getRecord(guid);
+        return record.isPresent()
+                ? Optional.of(MVRBinaryCodec.decodeDocument(record.get()))
+                : Optional.empty();
+    }
+
+    /**
+     * @param guid
+     * @return a read-only view of the encoded MVRDocument record with the guid, without its length prefix
+     */
+    @NotNull
+    public Optional<ByteBuffer> getRecord(@NotNull String guid){
+        int entry = find(guid);
+        if (entry < 0){
+            return Optional.empty();
+        }
+        int position = entry * ENTRY_LENGTH;
+        return Optional.of(record(entries.getInt(position + 8), entries.getInt(position + 12)));
+    }
+
+    /**
+     * Passes a read-only view of every record, segment by segment in file order, to the consumer.
+     * The views share the mapped segments; nothing is copied or decoded.
+     * Records that were superseded by a later record with the same GUID are included.
+     *
+     * @param consumer receives each record without its length prefix
+     */
+    public void forEachRecord(@NotNull Consumer<ByteBuffer> consumer){
+        Objects.requireNonNull(consumer);
+        for (ByteBuffer segment: segments){
+            ByteBuffer in = segment.duplicate();
+            in.position(MVRBinaryCodec.HEADER_LENGTH);
+            while (in.hasRemaining()){
+                int length = MVRBinaryCodec.readVarint(in);
+                int start = in.position();
+                consumer.accept(slice(in, start, length));
+                in.position(start + length);
+            }
+        }
+    }
+
+    /**
+     * @return the decoded MVRDocuments of all records, in file order
+     */
+    @NotNull
+    public Stream<MVRDocument> stream(){
+        return Arrays.stream(segments).flatMap(segment -> {
+            ByteBuffer in = segment.duplicate();
+            in.position(MVRBinaryCodec.HEADER_LENGTH);
+            Iterator<MVRDocument> iterator = new Iterator<MVRDocument>(){
+                @Override
+                public boolean hasNext(){
+                    return in.hasRemaining();
+                }
+
+                @Override
+                public MVRDocument next(){
+                    if (!in.hasRemaining()){
+                        throw new NoSuchElementException();
+                    }
+                    int length = MVRBinaryCodec.readVarint(in);
+                    int start = in.position();
+                    MVRDocument doc = MVRBinaryCodec.decodeDocument(slice(in, start, length));
+                    in.position(start + length);
+                    return doc;
+                }
+            };
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        });
+    }
+
+    /**
+     * Drops the references to the mapped segments; further lookups and scans fail with a NullPointerException.
+     */
+    @Override
+    public void close(){
+        Arrays.fill(segments, null);
+    }
+
+    private int find(String guid){
+        Objects.requireNonNull(guid);
+        byte[] key = guid.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high){
+            int mid = (low + high) >>> 1;
+            int cmp = compareEntry(mid, key);
+            if (cmp < 0){
+                low = mid + 1;
+            }
+            else if (cmp > 0){
+                high = mid - 1;
+            }
+            else{
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareEntry(int entry, byte[] key){
+        int position = entry * ENTRY_LENGTH;
+        int offset = entries.getInt(position);
+        int length = entries.getInt(position + 4);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++){
+            int cmp = (guids.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0){
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private ByteBuffer record(int segment, int offset){
+        ByteBuffer in = segments[segment].duplicate();
+        in.position(offset);
+        int length = MVRBinaryCodec.readVarint(in);
+        return slice(in, in.position(), length);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length){
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(position + length);
+        slice.position(position);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    static MappedByteBuffer map(Path path) throws IOException{
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE){
+                throw new IOException("[" + path + "] is larger than 2GB");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static void checkIndexHeader(ByteBuffer index) throws IOException{
+        if (index.remaining() < INDEX_MAGIC.length + 4){
+            throw new IOException(INDEX_FILE + " is truncated");
+        }
+        for (int i = 0; i < INDEX_MAGIC.length; i++){
+            if (index.get(i) != INDEX_MAGIC[i]){
+                throw new IOException(INDEX_FILE + " is not a MVRI index");
+            }
+        }
+        int version = index.get(INDEX_MAGIC.length) & 0xFF;
+        if (version != INDEX_VERSION){
+            throw new IOException("unsupported MVRI version [" + version + "]");
+        }
+    }
+
+    private static int compare(byte[] a, byte[] b){
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++){
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0){
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static final class IndexEntry implements Comparable<IndexEntry>{
+        private final byte[] guid;
+        private final int segment;
+        private final int offset;
+
+        private IndexEntry(byte[] guid, int segment, int offset){
+            this.guid = guid;
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        /**
+         * By GUID, then by position so that the last record of a GUID sorts last.
+         */
+        @Override
+        public int compareTo(@NotNull IndexEntry other){
+            int cmp = compare(guid, other.guid);
+            if (cmp == 0){
+                cmp = Integer.compare(segment, other.segment);
+            }
+            return cmp == 0 ? Integer.compare(offset, other.offset) : cmp;
+        }
+    }
+}
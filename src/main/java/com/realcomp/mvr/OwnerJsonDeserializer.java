@@ -0,0 +1,59 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.realcomp.address.Address;
+import com.realcomp.address.RawAddress;
+import com.realcomp.names.Name;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class OwnerJsonDeserializer extends StdDeserializer<Owner>{
+
+    OwnerJsonDeserializer(){
+        super(Owner.class);
+    }
+
+    @Override
+    public Owner deserialize(JsonParser p, DeserializationContext ctxt) throws IOException{
+        Owner owner = new Owner();
+        try{
+            for (String field = firstFieldName(p, Owner.class); field != null; field = p.nextFieldName()){
+                p.nextToken();
+                switch (field){
+                    case "id":
+                        owner.setId(readString(p));
+                        break;
+                    case "rawName":
+                        owner.setRawName(readString(p));
+                        break;
+                    case "name":
+                        owner.setName(readObject(p, ctxt, Name.class));
+                        break;
+                    case "rawAddress":
+                        owner.setRawAddress(readObject(p, ctxt, RawAddress.class));
+                        break;
+                    case "address":
+                        owner.setAddress(readObject(p, ctxt, Address.class));
+                        break;
+                    case "ownerEvidenceType":
+                        owner.setOwnerEvidenceType(readEnum(p, OwnerEvidenceType.class));
+                        break;
+                    case "country":
+                        owner.setCountry(readString(p));
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, owner, field);
+                }
+            }
+        }
+        catch (IllegalArgumentException | NullPointerException ex){
+            throw JsonMappingException.from(p, ex.getMessage(), ex);
+        }
+        return owner;
+    }
+}
@@ -0,0 +1,29 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class OwnerJsonSerializer extends StdSerializer<Owner>{
+
+    OwnerJsonSerializer(){
+        super(Owner.class);
+    }
+
+    @Override
+    public void serialize(Owner owner, JsonGenerator gen, SerializerProvider provider) throws IOException{
+        gen.writeStartObject();
+        writeString(gen, "id", owner.getId());
+        writeString(gen, "rawName", owner.getRawName());
+        writeObject(gen, provider, "name", owner.getName());
+        writeObject(gen, provider, "rawAddress", owner.getRawAddress());
+        writeObject(gen, provider, "address", owner.getAddress());
+        writeEnum(gen, "ownerEvidenceType", owner.getOwnerEvidenceType());
+        writeString(gen, "country", owner.getCountry());
+        gen.writeEndObject();
+    }
+}
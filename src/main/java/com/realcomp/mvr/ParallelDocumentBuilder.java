@@ -0,0 +1,196 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds MVRDocuments from an in-memory collection of MVRTransactions on a ForkJoinPool.
+ * <p>
+ * The GUID of every transaction is generated in parallel. The transactions are then partitioned into stripes by
+ * GUID hash with a counting sort, which keeps the input order within a stripe. Each stripe is grouped by GUID in
+ * its own HashMap, and each group is sorted once and assembled into a MVRDocument, with one fork/join task per
+ * stripe. No locks or shared maps are involved.
+ * <p>
+ * The result is the same as MVRDocumentAssembler produces for the same input: documents in GUID order, each
+ * history in transactionDate order with equal dates in input order. It does not depend on the parallelism.
+ */
+public class ParallelDocumentBuilder{
+
+    private static final int GUID_BATCH = 4096;
+    private static final int MAX_STRIPES = 1 << 16;
+
+    @NotNull
+    private final ForkJoinPool pool;
+    private final int stripes;
+
+    public ParallelDocumentBuilder(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelDocumentBuilder(@NotNull ForkJoinPool pool){
+        this(pool, pool.getParallelism() * 4);
+    }
+
+    /**
+     * @param pool
+     * @param stripes the number of partitions; rounded up to a power of 2
+     */
+    public ParallelDocumentBuilder(@NotNull ForkJoinPool pool, int stripes){
+        Objects.requireNonNull(pool);
+        if (stripes < 1){
+            throw new IllegalArgumentException("stripes [" + stripes + "] is less than 1");
+        }
+        if (stripes > MAX_STRIPES){
+            throw new IllegalArgumentException("stripes [" + stripes + "] is more than " + MAX_STRIPES);
+        }
+        this.pool = pool;
+        int size = 1;
+        while (size < stripes){
+            size <<= 1;
+        }
+        this.stripes = size;
+    }
+
+    public int getStripes(){
+        return stripes;
+    }
+
+    /**
+     * @param transactions
+     * @return one MVRDocument per MVRDocumentGUID.generate(source, id), in GUID order
+     */
+    @NotNull
+    public List<MVRDocument> build(@NotNull Collection<MVRTransaction> transactions){
+        Objects.requireNonNull(transactions);
+        MVRTransaction[] input = transactions.toArray(new MVRTransaction[0]);
+        String[] guids = new String[input.length];
+        int[] hashes = new int[input.length];
+        pool.invoke(new GuidTask(input, guids, hashes, 0, input.length));
+
+        int mask = stripes - 1;
+        int[] starts = new int[stripes + 1];
+        for (int hash: hashes){
+            starts[(hash & mask) + 1]++;
+        }
+        for (int i = 0; i < stripes; i++){
+            starts[i + 1] += starts[i];
+        }
+        int[] order = new int[input.length];
+        int[] next = Arrays.copyOf(starts, stripes);
+        for (int i = 0; i < hashes.length; i++){
+            order[next[hashes[i] & mask]++] = i;
+        }
+
+        List<MVRDocument>[] built = newArray(stripes);
+        List<StripeTask> tasks = new ArrayList<>(stripes);
+        for (int stripe = 0; stripe < stripes; stripe++){
+            tasks.add(new StripeTask(input, guids, order, starts[stripe], starts[stripe + 1], built, stripe));
+        }
+        pool.invoke(new RecursiveAction(){
+            @Override
+            protected void compute(){
+                invokeAll(tasks);
+            }
+        });
+
+        int count = 0;
+        for (List<MVRDocument> documents: built){
+            count += documents.size();
+        }
+        MVRDocument[] result = new MVRDocument[count];
+        int position = 0;
+        for (List<MVRDocument> documents: built){
+            for (MVRDocument document: documents){
+                result[position++] = document;
+            }
+        }
+        Arrays.parallelSort(result, Comparator.comparing(MVRDocument::getGuid));
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Spreads the high bits of the String hash into the low bits used to pick a stripe.
+     */
+    private static int spread(int hash){
+        return hash ^ (hash >>> 16);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<MVRDocument>[] newArray(int length){
+        return new List[length];
+    }
+
+    private static final class GuidTask extends RecursiveAction{
+
+        private final MVRTransaction[] input;
+        private final String[] guids;
+        private final int[] hashes;
+        private final int from;
+        private final int to;
+
+        private GuidTask(MVRTransaction[] input, String[] guids, int[] hashes, int from, int to){
+            this.input = input;
+            this.guids = guids;
+            this.hashes = hashes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if (to - from > GUID_BATCH){
+                int mid = (from + to) >>> 1;
+                invokeAll(new GuidTask(input, guids, hashes, from, mid),
+                        new GuidTask(input, guids, hashes, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++){
+                MVRTransaction tx = Objects.requireNonNull(input[i]);
+                guids[i] = MVRDocumentGUID.generate(tx.getSource(), tx.getId());
+                hashes[i] = spread(guids[i].hashCode());
+            }
+        }
+    }
+
+    private static final class StripeTask extends RecursiveAction{
+
+        private final MVRTransaction[] input;
+        private final String[] guids;
+        private final int[] order;
+        private final int from;
+        private final int to;
+        private final List<MVRDocument>[] built;
+        private final int stripe;
+
+        private StripeTask(MVRTransaction[] input, String[] guids, int[] order, int from, int to,
+                           List<MVRDocument>[] built, int stripe){
+            this.input = input;
+            this.guids = guids;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.built = built;
+            this.stripe = stripe;
+        }
+
+        @Override
+        protected void compute(){
+            Map<String, List<MVRTransaction>> groups = new HashMap<>();
+            for (int i = from; i < to; i++){
+                int row = order[i];
+                groups.computeIfAbsent(guids[row], guid -> new ArrayList<>()).add(input[row]);
+            }
+            List<MVRDocument> documents = new ArrayList<>(groups.size());
+            for (Map.Entry<String, List<MVRTransaction>> group: groups.entrySet()){
+                MVRDocument document = MVRDocumentAssembler.assemble(group.getValue());
+                //the GUID generated for the group, so sorting the documents does not generate it again
+                document.setGuid(group.getKey());
+                documents.add(document);
+            }
+            built[stripe] = documents;
+        }
+    }
+}
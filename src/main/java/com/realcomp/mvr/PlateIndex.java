@@ -0,0 +1,266 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * In-memory index from (state, plate) to the MVRDocuments whose transactions carried the plate, ordered by
+ * transactionDate. Because plates move between vehicles, "who held plate X on date D" is answered by
+ * holderAsOf(), a binary search over the postings of the plate.
+ * <p>
+ * The postings of a plate are two parallel int arrays, packed transactionDates and GUID ids, kept sorted as
+ * transactions are added. Transactions usually arrive in date order, so an add is normally an append.
+ * States and plates are matched ignoring case and surrounding whitespace.
+ * <p>
+ * Not thread-safe.
+ */
+public class PlateIndex{
+
+    private final Map<String, Map<String, Postings>> states = new HashMap<>();
+    private final StringDictionary guids = new StringDictionary();
+    private int size;
+
+    /**
+     * Indexes the plate of every MVRTransaction in the history of the document.
+     * @param document
+     */
+    public void add(@NotNull MVRDocument document){
+        Objects.requireNonNull(document);
+        String guid = document.getGuid();
+        for (MVRTransaction tx: document.historyList()){
+            add(tx, guid);
+        }
+    }
+
+    /**
+     * @param tx the transaction to index; ignored if it has no plate
+     * @param guid the GUID of the MVRDocument the transaction belongs to
+     */
+    public void add(@NotNull MVRTransaction tx, @NotNull String guid){
+        Objects.requireNonNull(tx);
+        add(tx.getState(), tx.getPlate(), tx.getTransactionDateAsInt(), guid);
+    }
+
+    /**
+     * @param state
+     * @param plate ignored if null or blank
+     * @param transactionDate packed YYYYMMDD date
+     * @param guid
+     */
+    public void add(@NotNull String state, String plate, int transactionDate, @NotNull String guid){
+        Objects.requireNonNull(state);
+        Objects.requireNonNull(guid);
+        String key = normalize(plate);
+        if (key.isEmpty()){
+            return;
+        }
+        if (!MVRDate.isValid(transactionDate) || transactionDate == MVRDate.NONE){
+            throw new IllegalArgumentException("transactionDate [" + transactionDate + "] is not a packed YYYYMMDD date");
+        }
+        Postings postings = states.computeIfAbsent(normalize(state), s -> new HashMap<>())
+                .computeIfAbsent(key, p -> new Postings());
+        if (postings.add(transactionDate, guids.encode(guid))){
+            size++;
+        }
+    }
+
+    /**
+     * @param state
+     * @param plate
+     * @return the postings of the plate, ordered by transactionDate
+     */
+    @NotNull
+    public List<PlatePosting> get(@NotNull String state, @NotNull String plate){
+        Postings postings = postings(state, plate);
+        if (postings == null){
+            return Collections.emptyList();
+        }
+        List<PlatePosting> result = new ArrayList<>(postings.size);
+        for (int i = 0; i < postings.size; i++){
+            result.add(new PlatePosting(guids.decode(postings.guidIds[i]), postings.dates[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @param state
+     * @param plate
+     * @param date YYYYMMDD
+     * @return the GUID of the document with the latest transaction carrying the plate on or before the date
+     */
+    @NotNull
+    public Optional<String> holderAsOf(@NotNull String state, @NotNull String plate, @NotNull String date){
+        return holderAsOf(state, plate, MVRDate.pack(Objects.requireNonNull(date)));
+    }
+
+    /**
+     * @param state
+     * @param plate
+     * @param date packed YYYYMMDD date
+     * @return the GUID of the document with the latest transaction carrying the plate on or before the date.
+     * If several documents carry the plate on that transactionDate, the GUID that was new to the index last wins.
+     */
+    @NotNull
+    public Optional<String> holderAsOf(@NotNull String state, @NotNull String plate, int date){
+        Postings postings = postings(state, plate);
+        if (postings == null){
+            return Optional.empty();
+        }
+        int index = postings.upperBound(date) - 1;
+        return index < 0 ? Optional.empty() : Optional.of(guids.decode(postings.guidIds[index]));
+    }
+
+    /**
+     * @return the number of distinct (state, plate, transactionDate, GUID) postings
+     */
+    public int size(){
+        return size;
+    }
+
+    private Postings postings(String state, String plate){
+        Objects.requireNonNull(state);
+        Objects.requireNonNull(plate);
+        Map<String, Postings> plates = states.get(normalize(state));
+        return plates == null ? null : plates.get(normalize(plate));
+    }
+
+    private static String normalize(String value){
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * A document that carried a plate on a transactionDate.
+     */
+    public static final class PlatePosting{
+
+        @NotNull
+        private final String guid;
+        private final int transactionDate;
+
+        PlatePosting(@NotNull String guid, int transactionDate){
+            this.guid = guid;
+            this.transactionDate = transactionDate;
+        }
+
+        @NotNull
+        public String getGuid(){
+            return guid;
+        }
+
+        @NotNull
+        public String getTransactionDate(){
+            return MVRDate.format(transactionDate);
+        }
+
+        public int getTransactionDateAsInt(){
+            return transactionDate;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (this == o){
+                return true;
+            }
+            if (!(o instanceof PlatePosting)){
+                return false;
+            }
+
+            PlatePosting that = (PlatePosting) o;
+
+            if (transactionDate != that.transactionDate){
+                return false;
+            }
+            return guid.equals(that.guid);
+        }
+
+        @Override
+        public int hashCode(){
+            int result = guid.hashCode();
+            result = 31 * result + transactionDate;
+            return result;
+        }
+
+        @Override
+        public String toString(){
+            return "PlatePosting{" +
+                    "guid='" + guid + '\'' +
+                    ", transactionDate=" + transactionDate +
+                    '}';
+        }
+    }
+
+    /**
+     * The postings of one plate, sorted by (date, guid id).
+     */
+    private static final class Postings{
+
+        private int[] dates = new int[2];
+        private int[] guidIds = new int[2];
+        private int size;
+
+        /**
+         * @return false if the posting was already present
+         */
+        private boolean add(int date, int guidId){
+            int index = size;
+            if (size > 0 && compare(size - 1, date, guidId) >= 0){
+                index = insertionPoint(date, guidId);
+                if (index < size && compare(index, date, guidId) == 0){
+                    return false;
+                }
+            }
+            if (size == dates.length){
+                dates = Arrays.copyOf(dates, size * 2);
+                guidIds = Arrays.copyOf(guidIds, size * 2);
+            }
+            System.arraycopy(dates, index, dates, index + 1, size - index);
+            System.arraycopy(guidIds, index, guidIds, index + 1, size - index);
+            dates[index] = date;
+            guidIds[index] = guidId;
+            size++;
+            return true;
+        }
+
+        /**
+         * @return the index of the first posting not less than (date, guidId)
+         */
+        private int insertionPoint(int date, int guidId){
+            int from = 0;
+            int to = size;
+            while (from < to){
+                int mid = (from + to) >>> 1;
+                if (compare(mid, date, guidId) < 0){
+                    from = mid + 1;
+                }
+                else{
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        /**
+         * @return the index of the first posting with a date after the date
+         */
+        private int upperBound(int date){
+            int from = 0;
+            int to = size;
+            while (from < to){
+                int mid = (from + to) >>> 1;
+                if (dates[mid] <= date){
+                    from = mid + 1;
+                }
+                else{
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        private int compare(int index, int date, int guidId){
+            int cmp = Integer.compare(dates[index], date);
+            return cmp == 0 ? Integer.compare(guidIds[index], guidId) : cmp;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.realcomp.mvr;
+
+/**
+ * The low-cardinality String fields of the model that are canonicalized through the StringPool.
+ */
+public enum PooledField{
+
+    STATE,
+    SOURCE,
+    REGISTRATION_COUNTY,
+    REGISTRATION_CLASS_CODE,
+    MAKE,
+    MODEL,
+    BODY_TYPE_CODE,
+    VEHICLE_CLASS_CODE,
+    ATTRIBUTE_KEY
+}
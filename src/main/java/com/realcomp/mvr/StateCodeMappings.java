@@ -0,0 +1,215 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The CodeTables that translate the raw codes of one state to the MVR enums.
+ * <p>
+ * Mappings are declared in a properties file, one per state, with one line per code:
+ * <pre>
+ * # {EnumName}.{raw code}={CONSTANT}
+ * Color.BLK=BLACK
+ * Color.BK=BLACK
+ * FuelType.G=GASOLINE
+ * VehicleClass.PASS=PASSENGER
+ * </pre>
+ * The enum is one of Color, FuelType, DocumentType, TransactionStatus, OwnerEvidenceType, BondedTitleType,
+ * TrailerType and VehicleClass. Properties escaping applies, so a code containing a space or '=' is written with
+ * a backslash. Each enum is compiled into a CodeTable when the file is loaded; an enum without mappings gets an
+ * empty table.
+ */
+public final class StateCodeMappings{
+
+    public static final String FILE_SUFFIX = ".properties";
+
+    private static final List<Class<? extends Enum<?>>> TYPES = Collections.unmodifiableList(Arrays.asList(
+            Color.class,
+            FuelType.class,
+            DocumentType.class,
+            TransactionStatus.class,
+            OwnerEvidenceType.class,
+            BondedTitleType.class,
+            TrailerType.class,
+            VehicleClass.class));
+
+    @NotNull
+    private final String state;
+    private final Map<Class<?>, CodeTable<?>> tables;
+
+    private StateCodeMappings(@NotNull String state, Map<Class<?>, CodeTable<?>> tables){
+        this.state = state;
+        this.tables = tables;
+    }
+
+    /**
+     * @param state
+     * @param reader mappings in properties format
+     * @return the compiled mappings
+     * @throws IOException
+     * @throws IllegalArgumentException if a line names an unknown enum or constant, or repeats a code
+     */
+    @NotNull
+    public static StateCodeMappings load(@NotNull String state, @NotNull Reader reader) throws IOException{
+        Objects.requireNonNull(state);
+        Objects.requireNonNull(reader);
+        Properties properties = new Properties();
+        properties.load(reader);
+        return compile(state, properties);
+    }
+
+    /**
+     * @param state
+     * @param file mappings in properties format, UTF-8
+     * @return the compiled mappings
+     * @throws IOException
+     * @throws IllegalArgumentException if a line names an unknown enum or constant, or repeats a code
+     */
+    @NotNull
+    public static StateCodeMappings load(@NotNull String state, @NotNull Path file) throws IOException{
+        Objects.requireNonNull(file);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)){
+            return load(state, reader);
+        }
+    }
+
+    /**
+     * Loads every {STATE}.properties file in a directory.
+     * @param dir
+     * @return the compiled mappings by state
+     * @throws IOException
+     */
+    @NotNull
+    public static Map<String, StateCodeMappings> loadAll(@NotNull Path dir) throws IOException{
+        Objects.requireNonNull(dir);
+        Map<String, StateCodeMappings> mappings = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + FILE_SUFFIX)){
+            for (Path file: files){
+                String name = file.getFileName().toString();
+                String state = name.substring(0, name.length() - FILE_SUFFIX.length()).toUpperCase(Locale.ROOT);
+                mappings.put(state, load(state, file));
+            }
+        }
+        return mappings;
+    }
+
+    private static StateCodeMappings compile(String state, Properties properties){
+        Map<Class<?>, Map<String, Enum<?>>> byType = new HashMap<>();
+        for (Class<? extends Enum<?>> type: TYPES){
+            byType.put(type, new HashMap<>());
+        }
+        for (String key: properties.stringPropertyNames()){
+            int separator = key.indexOf('.');
+            Class<? extends Enum<?>> type = separator < 0 ? null : type(key.substring(0, separator));
+            if (type == null){
+                throw new IllegalArgumentException(
+                        "[" + key + "] in the mappings for state [" + state + "] does not start with a supported enum name");
+            }
+            String value = properties.getProperty(key).trim();
+            Enum<?> constant = constant(type, value);
+            if (constant == null){
+                throw new IllegalArgumentException(
+                        "[" + value + "] for [" + key + "] in the mappings for state [" + state + "] is not a " + type.getSimpleName());
+            }
+            byType.get(type).put(key.substring(separator + 1), constant);
+        }
+        Map<Class<?>, CodeTable<?>> tables = new HashMap<>();
+        for (Class<? extends Enum<?>> type: TYPES){
+            tables.put(type, table(type, byType.get(type)));
+        }
+        return new StateCodeMappings(state, tables);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static CodeTable<?> table(Class<? extends Enum<?>> type, Map<String, Enum<?>> mappings){
+        return new CodeTable(type, mappings);
+    }
+
+    private static Class<? extends Enum<?>> type(String name){
+        for (Class<? extends Enum<?>> type: TYPES){
+            if (type.getSimpleName().equals(name)){
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static Enum<?> constant(Class<? extends Enum<?>> type, String name){
+        for (Enum<?> constant: type.getEnumConstants()){
+            if (constant.name().equals(name)){
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    public String getState(){
+        return state;
+    }
+
+    /**
+     * @param type one of the supported enums
+     * @return the CodeTable for the enum
+     * @throws IllegalArgumentException if the enum is not supported
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> CodeTable<E> table(@NotNull Class<E> type){
+        CodeTable<E> table = (CodeTable<E>) tables.get(Objects.requireNonNull(type));
+        if (table == null){
+            throw new IllegalArgumentException("type [" + type.getSimpleName() + "] is not supported");
+        }
+        return table;
+    }
+
+    /**
+     * @param type one of the supported enums
+     * @param code the raw code
+     * @return the constant the code maps to; null if the code is null, blank or not mapped
+     */
+    public <E extends Enum<E>> E map(@NotNull Class<E> type, CharSequence code){
+        return table(type).lookup(code);
+    }
+
+    /**
+     * @return the total number of unmapped code lookups, over all enums
+     */
+    public long getUnmapped(){
+        long unmapped = 0;
+        for (CodeTable<?> table: tables.values()){
+            unmapped += table.getUnmapped();
+        }
+        return unmapped;
+    }
+
+    /**
+     * @return the unmapped codes of each enum that had any, see CodeTable.getUnmappedCodes()
+     */
+    @NotNull
+    public Map<String, Map<String, Long>> getUnmappedCodes(){
+        Map<String, Map<String, Long>> unmapped = new TreeMap<>();
+        for (CodeTable<?> table: tables.values()){
+            Map<String, Long> codes = table.getUnmappedCodes();
+            if (!codes.isEmpty()){
+                unmapped.put(table.getType().getSimpleName(), codes);
+            }
+        }
+        return unmapped;
+    }
+
+    @Override
+    public String toString(){
+        return "StateCodeMappings{" +
+                "state='" + state + '\'' +
+                ", unmapped=" + getUnmapped() +
+                '}';
+    }
+}
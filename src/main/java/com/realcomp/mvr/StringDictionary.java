@@ -0,0 +1,55 @@
+package com.realcomp.mvr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense int ids to distinct Strings for the dictionary-encoded columns of MVRTransactionColumns.
+ * The id of null is NULL. Not thread-safe.
+ */
+final class StringDictionary{
+
+    static final int NULL = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @param value
+     * @return the id of value, adding it to the dictionary if necessary
+     */
+    int encode(String value){
+        if (value == null){
+            return NULL;
+        }
+        Integer id = ids.get(value);
+        if (id == null){
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * @param value
+     * @return the id of value, or NULL if value is null or not in the dictionary
+     */
+    int lookup(String value){
+        if (value == null){
+            return NULL;
+        }
+        Integer id = ids.get(value);
+        return id == null ? NULL : id;
+    }
+
+    String decode(int id){
+        return id == NULL ? null : values.get(id);
+    }
+
+    int size(){
+        return values.size();
+    }
+}
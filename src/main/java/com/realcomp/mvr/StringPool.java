@@ -0,0 +1,24 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Canonicalizes the repeated values of the PooledFields so that equal values share one String instance.
+ * Implementations must be thread-safe.
+ *
+ * @see StringPools
+ */
+public interface StringPool{
+
+    /**
+     * A StringPool that returns every value as is.
+     */
+    StringPool NONE = (field, value) -> value;
+
+    /**
+     * @param field the field the value belongs to
+     * @param value
+     * @return a String equal to value, or null if value is null
+     */
+    String canonicalize(@NotNull PooledField field, String value);
+}
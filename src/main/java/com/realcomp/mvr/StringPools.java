@@ -0,0 +1,40 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Holds the StringPool used by the setters of the model and the MVRModule deserializers.
+ * The default pool is StringPool.NONE. Install a BoundedStringPool before an ingest to
+ * share the repeated values of the PooledFields.
+ */
+public final class StringPools{
+
+    private static volatile StringPool pool = StringPool.NONE;
+
+    private StringPools(){
+    }
+
+    @NotNull
+    public static StringPool get(){
+        return pool;
+    }
+
+    public static void set(@NotNull StringPool pool){
+        Objects.requireNonNull(pool);
+        StringPools.pool = pool;
+    }
+
+    /**
+     * @param field
+     * @param value
+     * @return the canonical instance of value from the installed pool, or null if value is null
+     */
+    public static String canonicalize(@NotNull PooledField field, String value){
+        if (value == null){
+            return null;
+        }
+        return pool.canonicalize(field, value);
+    }
+}
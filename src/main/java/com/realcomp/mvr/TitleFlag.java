@@ -0,0 +1,106 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The title brands and status flags of a MVRTransaction. Each flag is one bit of MVRTransaction.getFlagMask().
+ * Constants may only be appended; the bit of a flag is its ordinal and is persisted by MVRBinaryCodec.
+ */
+public enum TitleFlag{
+
+    STOLEN,
+    EXEMPT,
+    GOVERNMENT_OWNED,
+    LEMON_LAW,
+
+    /**
+     * Indicates that a salvage title or other title was
+     * previously issued for a motor vehicle which has been
+     * declared a total loss due to flood damage.
+     */
+    FLOOD_DAMAGE,
+
+    INSPECTION_WAIVED,
+    JUNK,
+
+    /**
+     * Indicates that a salvage title or other title has
+     * previously been issued on a vehicle that has, at
+     * some time, been a vehicle with a history of a
+     * previously issued salvaged title.
+     */
+    RECONDITIONED,
+
+    /**
+     * Indicates that some type of physical modification was made to the vehicle.
+     * Example: 	Vehicle was changed from one type of vehicle to another.
+     * Example: 	Vehicle has had a new frame installed and the identification number of the frame acts as the VIN.
+     * Example: 	Vehicle with a VEHMODLYR prior to 1956 has had a motor change.
+     * Example: 	Vehicle was assembled from three component parts (motor, frame and body).
+     */
+    RECONSTRUCTED,
+
+    TITLE_REVOKED,
+    SURRENDERED_TITLE,
+    SAFETY_SUSPENSION,
+    PLATE_SEIZED,
+    STICKER_SEIZED,
+    HEAVY_USE_TAX;
+
+    /**
+     * The flags that brand a title: flood damage, junk, reconditioned, reconstructed and lemon law.
+     */
+    public static final Set<TitleFlag> BRANDS =
+            Collections.unmodifiableSet(EnumSet.of(FLOOD_DAMAGE, JUNK, RECONDITIONED, RECONSTRUCTED, LEMON_LAW));
+
+    /**
+     * Mask of all the BRANDS.
+     */
+    public static final int BRAND_MASK = mask(BRANDS);
+
+    private final int mask = 1 << ordinal();
+
+    /**
+     * @return the bit of this flag in a flag mask
+     */
+    public int mask(){
+        return mask;
+    }
+
+    public boolean isBrand(){
+        return (BRAND_MASK & mask) != 0;
+    }
+
+    /**
+     * @param flags
+     * @return the flag mask with the bits of all the flags set
+     */
+    public static int mask(@NotNull Collection<TitleFlag> flags){
+        Objects.requireNonNull(flags);
+        int mask = 0;
+        for (TitleFlag flag: flags){
+            mask |= flag.mask;
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask
+     * @return the flags set in the mask
+     */
+    public static EnumSet<TitleFlag> fromMask(int mask){
+        EnumSet<TitleFlag> flags = EnumSet.noneOf(TitleFlag.class);
+        for (TitleFlag flag: values()){
+            if ((mask & flag.mask) != 0){
+                flags.add(flag);
+            }
+        }
+        return flags;
+    }
+}
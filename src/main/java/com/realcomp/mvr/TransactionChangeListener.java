@@ -0,0 +1,35 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the changed fields found by TransactionDiff.
+ */
+@FunctionalInterface
+public interface TransactionChangeListener{
+
+    /**
+     * @param previous the earlier transaction
+     * @param current the later transaction
+     * @param field the field that differs
+     * @param oldValue the value of the field in previous
+     * @param newValue the value of the field in current
+     */
+    void onChange(@NotNull MVRTransaction previous, @NotNull MVRTransaction current,
+                  @NotNull TransactionField field, Object oldValue, Object newValue);
+
+    /**
+     * Called by TransactionDiff for every change. Passes the change on without the index by default.
+     *
+     * @param previous the earlier transaction
+     * @param current the later transaction
+     * @param field the field that differs
+     * @param index of the Owner or LienHolder the field belongs to, or FieldChange.NO_INDEX
+     * @param oldValue the value of the field in previous
+     * @param newValue the value of the field in current
+     */
+    default void onChange(@NotNull MVRTransaction previous, @NotNull MVRTransaction current,
+                          @NotNull TransactionField field, int index, Object oldValue, Object newValue){
+        onChange(previous, current, field, oldValue, newValue);
+    }
+}
@@ -0,0 +1,357 @@
+package com.realcomp.mvr;
+
+import com.realcomp.address.Address;
+import com.realcomp.address.RawAddress;
+import com.realcomp.names.Name;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Field level comparison of two MVRTransactions.
+ * <p>
+ * Fields are compared in TransactionField order with the same equality MVRTransaction.equals() uses. The Vehicle
+ * is compared field by field, and so are the Owners and LienHolders at the same index in both lists, with the
+ * index of the Owner or LienHolder reported along with the field. Only a Vehicle, Owner or LienHolder that was
+ * added or removed is reported as a whole, as VEHICLE, OWNERS or LIEN_HOLDERS. Dates and the TitleFlag mask are
+ * compared as ints and only converted to a String or EnumSet for a field that changed, so nothing is allocated
+ * for unchanged fields.
+ * <p>
+ * Values that can be modified (Vehicles, Owners, LienHolders, names, addresses and attributes) are reported as
+ * copies, with maps unmodifiable, so a listener may keep them after either transaction changes.
+ */
+public final class TransactionDiff{
+
+    private TransactionDiff(){
+    }
+
+    /**
+     * @param previous
+     * @param current
+     * @return the changed fields, in TransactionField order
+     */
+    @NotNull
+    public static List<FieldChange> diff(@NotNull MVRTransaction previous, @NotNull MVRTransaction current){
+        List<FieldChange> changes = new ArrayList<>();
+        diff(previous, current, new TransactionChangeListener(){
+            @Override
+            public void onChange(@NotNull MVRTransaction p, @NotNull MVRTransaction c, @NotNull TransactionField field,
+                                 Object oldValue, Object newValue){
+                onChange(p, c, field, FieldChange.NO_INDEX, oldValue, newValue);
+            }
+
+            @Override
+            public void onChange(@NotNull MVRTransaction p, @NotNull MVRTransaction c, @NotNull TransactionField field,
+                                 int index, Object oldValue, Object newValue){
+                changes.add(new FieldChange(field, index, oldValue, newValue));
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * @param previous
+     * @param current
+     * @return the changed fields
+     */
+    @NotNull
+    public static EnumSet<TransactionField> changedFields(@NotNull MVRTransaction previous, @NotNull MVRTransaction current){
+        EnumSet<TransactionField> fields = EnumSet.noneOf(TransactionField.class);
+        diff(previous, current, (p, c, field, oldValue, newValue) -> fields.add(field));
+        return fields;
+    }
+
+    /**
+     * Reports every changed field between each pair of consecutive transactions in the history of the document.
+     *
+     * @param document
+     * @param listener
+     * @return the number of changes reported
+     */
+    public static int diffHistory(@NotNull MVRDocument document, @NotNull TransactionChangeListener listener){
+        Objects.requireNonNull(document);
+        Objects.requireNonNull(listener);
+        List<MVRTransaction> history = document.historyList();
+        int changes = 0;
+        for (int i = 1; i < history.size(); i++){
+            changes += diff(history.get(i - 1), history.get(i), listener);
+        }
+        return changes;
+    }
+
+    /**
+     * Reports every changed field, in TransactionField order, to the listener.
+     *
+     * @param previous
+     * @param current
+     * @param listener
+     * @return the number of changes reported
+     */
+    public static int diff(@NotNull MVRTransaction previous, @NotNull MVRTransaction current,
+                           @NotNull TransactionChangeListener listener){
+        Objects.requireNonNull(previous);
+        Objects.requireNonNull(current);
+        Objects.requireNonNull(listener);
+        if (previous == current){
+            return 0;
+        }
+        Diff diff = new Diff(previous, current, listener);
+        diff.compare(TransactionField.ID, previous.getId(), current.getId());
+        diff.compare(TransactionField.STATE, previous.getState(), current.getState());
+        diff.compare(TransactionField.SOURCE, previous.getSource(), current.getSource());
+        diff.compareDate(TransactionField.TRANSACTION_DATE,
+                previous.getTransactionDateAsInt(), current.getTransactionDateAsInt());
+        diff.compare(TransactionField.TYPE, previous.getType(), current.getType());
+        diff.compare(TransactionField.TRANSACTION_STATUS, previous.getTransactionStatus(), current.getTransactionStatus());
+        diff.compareDate(TransactionField.TITLE_ISSUE_DATE,
+                previous.getTitleIssueDateAsInt(), current.getTitleIssueDateAsInt());
+        diff.compare(TransactionField.BONDED_TITLE_TYPE, previous.getBondedTitleType(), current.getBondedTitleType());
+        diff.compare(TransactionField.PLATE, previous.getPlate(), current.getPlate());
+        diff.compare(TransactionField.REGISTRATION_CLASS_CODE,
+                previous.getRegistrationClassCode(), current.getRegistrationClassCode());
+        diff.compare(TransactionField.REGISTRATION_COUNTY,
+                previous.getRegistrationCounty(), current.getRegistrationCounty());
+        diff.compareDate(TransactionField.REGISTRATION_EFFECTIVE_DATE,
+                previous.getRegistrationEffectiveDateAsInt(), current.getRegistrationEffectiveDateAsInt());
+        diff.compare(TransactionField.REGISTRATION_EXP_MONTH,
+                previous.getRegistrationExpMonth(), current.getRegistrationExpMonth());
+        diff.compare(TransactionField.REGISTRATION_EXP_YEAR,
+                previous.getRegistrationExpYear(), current.getRegistrationExpYear());
+        diff.compare(TransactionField.REGISTRATION_INVALID,
+                previous.isRegistrationInvalid(), current.isRegistrationInvalid());
+        diffVehicle(diff, previous.getVehicle(), current.getVehicle());
+        if (!Objects.equals(previous.getRawVehicleLocation(), current.getRawVehicleLocation())){
+            diff.changed(TransactionField.RAW_VEHICLE_LOCATION,
+                    copy(previous.getRawVehicleLocation()), copy(current.getRawVehicleLocation()));
+        }
+        if (!Objects.equals(previous.getVehicleLocation(), current.getVehicleLocation())){
+            diff.changed(TransactionField.VEHICLE_LOCATION,
+                    copy(previous.getVehicleLocation()), copy(current.getVehicleLocation()));
+        }
+        diff.compare(TransactionField.SALE_PRICE, previous.getSalePrice(), current.getSalePrice());
+        diff.compareDate(TransactionField.SALE_DATE, previous.getSaleDateAsInt(), current.getSaleDateAsInt());
+        if (previous.getFlagMask() != current.getFlagMask()){
+            diff.changed(TransactionField.FLAGS, previous.getFlags(), current.getFlags());
+        }
+        diff.compareDate(TransactionField.SURRENDERED_TITLE_DATE,
+                previous.getSurrenderedTitleDateAsInt(), current.getSurrenderedTitleDateAsInt());
+        diffOwners(diff, previous.getOwners(), current.getOwners());
+        diff.compare(TransactionField.RAW_RENEWAL_NAME, previous.getRawRenewalName(), current.getRawRenewalName());
+        if (!Objects.equals(previous.getRenewalName(), current.getRenewalName())){
+            diff.changed(TransactionField.RENEWAL_NAME, copy(previous.getRenewalName()), copy(current.getRenewalName()));
+        }
+        if (!Objects.equals(previous.getRenewalRawAddress(), current.getRenewalRawAddress())){
+            diff.changed(TransactionField.RENEWAL_RAW_ADDRESS,
+                    copy(previous.getRenewalRawAddress()), copy(current.getRenewalRawAddress()));
+        }
+        if (!Objects.equals(previous.getRenewalAddress(), current.getRenewalAddress())){
+            diff.changed(TransactionField.RENEWAL_ADDRESS,
+                    copy(previous.getRenewalAddress()), copy(current.getRenewalAddress()));
+        }
+        diffLienHolders(diff, previous.getLienHolders(), current.getLienHolders());
+        diff.compare(TransactionField.ADDITIONAL_LIEN_HOLDERS,
+                previous.isAdditionalLienHolders(), current.isAdditionalLienHolders());
+        if (!previous.attributes().equals(current.attributes())){
+            diff.changed(TransactionField.ATTRIBUTES, copy(previous.attributes()), copy(current.attributes()));
+        }
+        return diff.changes;
+    }
+
+    private static void diffVehicle(Diff diff, Vehicle previous, Vehicle current){
+        if (previous == null || current == null){
+            if (previous != current){
+                diff.changed(TransactionField.VEHICLE, copy(previous), copy(current));
+            }
+            return;
+        }
+        int index = FieldChange.NO_INDEX;
+        diff.compare(TransactionField.VEHICLE_VIN, index, previous.getVin(), current.getVin());
+        diff.compare(TransactionField.VEHICLE_BODY_TYPE_CODE, index, previous.getBodyTypeCode(), current.getBodyTypeCode());
+        diff.compare(TransactionField.VEHICLE_CLASS, index, previous.getVehicleClass(), current.getVehicleClass());
+        diff.compare(TransactionField.VEHICLE_CLASS_CODE,
+                index, previous.getVehicleClassCode(), current.getVehicleClassCode());
+        diff.compare(TransactionField.VEHICLE_MAKE, index, previous.getMake(), current.getMake());
+        diff.compare(TransactionField.VEHICLE_MODEL, index, previous.getModel(), current.getModel());
+        diff.compare(TransactionField.VEHICLE_MODEL_YEAR, index, previous.getModelYear(), current.getModelYear());
+        diff.compare(TransactionField.VEHICLE_PRIMARY_COLOR, index, previous.getPrimaryColor(), current.getPrimaryColor());
+        diff.compare(TransactionField.VEHICLE_SECONDARY_COLOR,
+                index, previous.getSecondaryColor(), current.getSecondaryColor());
+        if (Float.compare(previous.getTonage(), current.getTonage()) != 0){
+            diff.changed(TransactionField.VEHICLE_TONAGE, index, previous.getTonage(), current.getTonage());
+        }
+        diff.compare(TransactionField.VEHICLE_BODY_VIN, index, previous.getBodyVin(), current.getBodyVin());
+        diff.compare(TransactionField.VEHICLE_LENGTH, index, previous.getLength(), current.getLength());
+        diff.compare(TransactionField.VEHICLE_EMPTY_WEIGHT, index, previous.getEmptyWeight(), current.getEmptyWeight());
+        diff.compare(TransactionField.VEHICLE_GROSS_WEIGHT, index, previous.getGrossWeight(), current.getGrossWeight());
+        diff.compare(TransactionField.VEHICLE_FUEL_TYPE, index, previous.getFuelType(), current.getFuelType());
+        diff.compare(TransactionField.VEHICLE_FIXED_EQUIPMENT,
+                index, previous.isFixedEquipment(), current.isFixedEquipment());
+        diff.compare(TransactionField.VEHICLE_TRAILER_TYPE, index, previous.getTrailerType(), current.getTrailerType());
+        diff.compare(TransactionField.VEHICLE_ODOMETER_BRAND,
+                index, previous.getOdometerBrand(), current.getOdometerBrand());
+        diff.compare(TransactionField.VEHICLE_ODOMETER_READING,
+                index, previous.getOdometerReading(), current.getOdometerReading());
+        if (!previous.attributes().equals(current.attributes())){
+            diff.changed(TransactionField.VEHICLE_ATTRIBUTES,
+                    index, copy(previous.attributes()), copy(current.attributes()));
+        }
+    }
+
+    /**
+     * Owners at the same index are compared field by field; the Owners past the end of the shorter list were
+     * added or removed.
+     */
+    private static void diffOwners(Diff diff, List<Owner> previous, List<Owner> current){
+        int common = Math.min(previous.size(), current.size());
+        for (int i = 0; i < common; i++){
+            Owner p = previous.get(i);
+            Owner c = current.get(i);
+            if (p.equals(c)){
+                continue;
+            }
+            diff.compare(TransactionField.OWNER_ID, i, p.getId(), c.getId());
+            diff.compare(TransactionField.OWNER_RAW_NAME, i, p.getRawName(), c.getRawName());
+            if (!Objects.equals(p.getName(), c.getName())){
+                diff.changed(TransactionField.OWNER_NAME, i, copy(p.getName()), copy(c.getName()));
+            }
+            if (!Objects.equals(p.getRawAddress(), c.getRawAddress())){
+                diff.changed(TransactionField.OWNER_RAW_ADDRESS, i, copy(p.getRawAddress()), copy(c.getRawAddress()));
+            }
+            if (!Objects.equals(p.getAddress(), c.getAddress())){
+                diff.changed(TransactionField.OWNER_ADDRESS, i, copy(p.getAddress()), copy(c.getAddress()));
+            }
+            diff.compare(TransactionField.OWNER_EVIDENCE_TYPE, i, p.getOwnerEvidenceType(), c.getOwnerEvidenceType());
+            diff.compare(TransactionField.OWNER_COUNTRY, i, p.getCountry(), c.getCountry());
+        }
+        for (int i = common; i < previous.size(); i++){
+            diff.changed(TransactionField.OWNERS, i, new Owner(previous.get(i)), null);
+        }
+        for (int i = common; i < current.size(); i++){
+            diff.changed(TransactionField.OWNERS, i, null, new Owner(current.get(i)));
+        }
+    }
+
+    /**
+     * LienHolders at the same index are compared field by field; the LienHolders past the end of the shorter list
+     * were added or removed.
+     */
+    private static void diffLienHolders(Diff diff, List<LienHolder> previous, List<LienHolder> current){
+        int common = Math.min(previous.size(), current.size());
+        for (int i = 0; i < common; i++){
+            LienHolder p = previous.get(i);
+            LienHolder c = current.get(i);
+            if (p.equals(c)){
+                continue;
+            }
+            diff.compare(TransactionField.LIEN_HOLDER_ID, i, p.getId(), c.getId());
+            diff.compare(TransactionField.LIEN_HOLDER_RAW_NAME, i, p.getRawName(), c.getRawName());
+            if (!Objects.equals(p.getName(), c.getName())){
+                diff.changed(TransactionField.LIEN_HOLDER_NAME, i, copy(p.getName()), copy(c.getName()));
+            }
+            if (!Objects.equals(p.getRawAddress(), c.getRawAddress())){
+                diff.changed(TransactionField.LIEN_HOLDER_RAW_ADDRESS,
+                        i, copy(p.getRawAddress()), copy(c.getRawAddress()));
+            }
+            if (!Objects.equals(p.getAddress(), c.getAddress())){
+                diff.changed(TransactionField.LIEN_HOLDER_ADDRESS, i, copy(p.getAddress()), copy(c.getAddress()));
+            }
+            diff.compareDate(TransactionField.LIEN_HOLDER_LIEN_DATE, i, p.getLienDateAsInt(), c.getLienDateAsInt());
+            diff.compare(TransactionField.LIEN_HOLDER_LIEN_COUNTRY, i, p.getLienCountry(), c.getLienCountry());
+        }
+        for (int i = common; i < previous.size(); i++){
+            diff.changed(TransactionField.LIEN_HOLDERS, i, new LienHolder(previous.get(i)), null);
+        }
+        for (int i = common; i < current.size(); i++){
+            diff.changed(TransactionField.LIEN_HOLDERS, i, null, new LienHolder(current.get(i)));
+        }
+    }
+
+    private static Vehicle copy(Vehicle vehicle){
+        return vehicle == null ? null : new Vehicle(vehicle);
+    }
+
+    private static Name copy(Name name){
+        return name == null ? null : new Name(name);
+    }
+
+    private static RawAddress copy(RawAddress address){
+        return address == null ? null : new RawAddress(address);
+    }
+
+    private static Address copy(Address address){
+        return address == null ? null : new Address(address);
+    }
+
+    private static Map<String, String> copy(Map<String, String> attributes){
+        return Collections.unmodifiableMap(new HashMap<>(attributes));
+    }
+
+    /**
+     * @param previous TitleFlag mask
+     * @param current TitleFlag mask
+     * @return the TitleFlags that were set or cleared
+     */
+    @NotNull
+    public static EnumSet<TitleFlag> changedFlags(int previous, int current){
+        return TitleFlag.fromMask(previous ^ current);
+    }
+
+    private static final class Diff{
+
+        private final MVRTransaction previous;
+        private final MVRTransaction current;
+        private final TransactionChangeListener listener;
+        private int changes;
+
+        private Diff(MVRTransaction previous, MVRTransaction current, TransactionChangeListener listener){
+            this.previous = previous;
+            this.current = current;
+            this.listener = listener;
+        }
+
+        private void compare(TransactionField field, Object oldValue, Object newValue){
+            compare(field, FieldChange.NO_INDEX, oldValue, newValue);
+        }
+
+        private void compare(TransactionField field, int index, Object oldValue, Object newValue){
+            if (!Objects.equals(oldValue, newValue)){
+                changed(field, index, oldValue, newValue);
+            }
+        }
+
+        private void compare(TransactionField field, boolean oldValue, boolean newValue){
+            compare(field, FieldChange.NO_INDEX, oldValue, newValue);
+        }
+
+        private void compare(TransactionField field, int index, boolean oldValue, boolean newValue){
+            if (oldValue != newValue){
+                changed(field, index, oldValue, newValue);
+            }
+        }
+
+        private void compare(TransactionField field, int index, int oldValue, int newValue){
+            if (oldValue != newValue){
+                changed(field, index, oldValue, newValue);
+            }
+        }
+
+        private void compareDate(TransactionField field, int oldValue, int newValue){
+            compareDate(field, FieldChange.NO_INDEX, oldValue, newValue);
+        }
+
+        private void compareDate(TransactionField field, int index, int oldValue, int newValue){
+            if (oldValue != newValue){
+                changed(field, index, MVRDate.format(oldValue), MVRDate.format(newValue));
+            }
+        }
+
+        private void changed(TransactionField field, Object oldValue, Object newValue){
+            changed(field, FieldChange.NO_INDEX, oldValue, newValue);
+        }
+
+        private void changed(TransactionField field, int index, Object oldValue, Object newValue){
+            changes++;
+            listener.onChange(previous, current, field, index, oldValue, newValue);
+        }
+    }
+}
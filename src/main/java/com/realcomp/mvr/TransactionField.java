@@ -0,0 +1,76 @@
+package com.realcomp.mvr;
+
+/**
+ * The fields of a MVRTransaction, as reported by TransactionDiff.
+ * Dates are reported as YYYYMMDD Strings and FLAGS as an EnumSet of TitleFlag.
+ * <p>
+ * The VEHICLE_, OWNER_ and LIEN_HOLDER_ fields are the fields of the Vehicle and of each Owner and LienHolder.
+ * VEHICLE, OWNERS and LIEN_HOLDERS are only reported for a Vehicle, Owner or LienHolder that was added or removed.
+ */
+public enum TransactionField{
+
+    ID,
+    STATE,
+    SOURCE,
+    TRANSACTION_DATE,
+    TYPE,
+    TRANSACTION_STATUS,
+    TITLE_ISSUE_DATE,
+    BONDED_TITLE_TYPE,
+    PLATE,
+    REGISTRATION_CLASS_CODE,
+    REGISTRATION_COUNTY,
+    REGISTRATION_EFFECTIVE_DATE,
+    REGISTRATION_EXP_MONTH,
+    REGISTRATION_EXP_YEAR,
+    REGISTRATION_INVALID,
+    VEHICLE,
+    VEHICLE_VIN,
+    VEHICLE_BODY_TYPE_CODE,
+    VEHICLE_CLASS,
+    VEHICLE_CLASS_CODE,
+    VEHICLE_MAKE,
+    VEHICLE_MODEL,
+    VEHICLE_MODEL_YEAR,
+    VEHICLE_PRIMARY_COLOR,
+    VEHICLE_SECONDARY_COLOR,
+    VEHICLE_TONAGE,
+    VEHICLE_BODY_VIN,
+    VEHICLE_LENGTH,
+    VEHICLE_EMPTY_WEIGHT,
+    VEHICLE_GROSS_WEIGHT,
+    VEHICLE_FUEL_TYPE,
+    VEHICLE_FIXED_EQUIPMENT,
+    VEHICLE_TRAILER_TYPE,
+    VEHICLE_ODOMETER_BRAND,
+    VEHICLE_ODOMETER_READING,
+    VEHICLE_ATTRIBUTES,
+    RAW_VEHICLE_LOCATION,
+    VEHICLE_LOCATION,
+    SALE_PRICE,
+    SALE_DATE,
+    FLAGS,
+    SURRENDERED_TITLE_DATE,
+    OWNERS,
+    OWNER_ID,
+    OWNER_RAW_NAME,
+    OWNER_NAME,
+    OWNER_RAW_ADDRESS,
+    OWNER_ADDRESS,
+    OWNER_EVIDENCE_TYPE,
+    OWNER_COUNTRY,
+    RAW_RENEWAL_NAME,
+    RENEWAL_NAME,
+    RENEWAL_RAW_ADDRESS,
+    RENEWAL_ADDRESS,
+    LIEN_HOLDERS,
+    LIEN_HOLDER_ID,
+    LIEN_HOLDER_RAW_NAME,
+    LIEN_HOLDER_NAME,
+    LIEN_HOLDER_RAW_ADDRESS,
+    LIEN_HOLDER_ADDRESS,
+    LIEN_HOLDER_LIEN_DATE,
+    LIEN_HOLDER_LIEN_COUNTRY,
+    ADDITIONAL_LIEN_HOLDERS,
+    ATTRIBUTES
+}
@@ -2,18 +2,15 @@ package com.realcomp.mvr;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Pattern;
 
 /**
  * All the physical characteristics of a Vehicle or Trailer
  */
 public class Vehicle{
 
-    private static final Pattern YEAR_PATTERN = Pattern.compile("^[0-9]{4}$"); //YYYY
-
     private String vin;
     private String bodyTypeCode;
     private VehicleClass vehicleClass;
@@ -41,7 +38,6 @@ public class Vehicle{
     private Map<String, String> attributes;
 
     public Vehicle(){
-        attributes = new HashMap<>();
     }
 
     public Vehicle(Vehicle copy){
@@ -64,8 +60,7 @@ public class Vehicle{
         trailerType = copy.trailerType;
         odometerBrand = copy.odometerBrand;
         odometerReading = copy.odometerReading;
-        attributes = new HashMap<>();
-        attributes.putAll(copy.getAttributes());
+        attributes = AttributeMap.copyOf(copy.attributes);
     }
 
     public String getVin(){
@@ -81,7 +76,7 @@ public class Vehicle{
     }
 
     public void setBodyTypeCode(String bodyTypeCode){
-        this.bodyTypeCode = bodyTypeCode;
+        this.bodyTypeCode = StringPools.canonicalize(PooledField.BODY_TYPE_CODE, bodyTypeCode);
     }
 
     public String getVehicleClassCode(){
@@ -89,7 +84,7 @@ public class Vehicle{
     }
 
     public void setVehicleClassCode(String vehicleClassCode){
-        this.vehicleClassCode = vehicleClassCode;
+        this.vehicleClassCode = StringPools.canonicalize(PooledField.VEHICLE_CLASS_CODE, vehicleClassCode);
     }
 
     public String getMake(){
@@ -97,7 +92,7 @@ public class Vehicle{
     }
 
     public void setMake(String make){
-        this.make = make;
+        this.make = StringPools.canonicalize(PooledField.MAKE, make);
     }
 
     public String getModel(){
@@ -105,7 +100,7 @@ public class Vehicle{
     }
 
     public void setModel(String model){
-        this.model = model;
+        this.model = StringPools.canonicalize(PooledField.MODEL, model);
     }
 
     public String getModelYear(){
@@ -113,7 +108,7 @@ public class Vehicle{
     }
 
     public void setModelYear(String modelYear){
-        if (modelYear != null && !YEAR_PATTERN.matcher(modelYear).matches()){
+        if (modelYear != null && !FieldValidator.isYear(modelYear)){
             throw new IllegalArgumentException(
                     "modelYear [" + modelYear + "] does not match pattern YYYY");
         }
@@ -228,9 +223,20 @@ public class Vehicle{
     }
 
     public Map<String, String> getAttributes(){
+        if (attributes == null){
+            attributes = new AttributeMap();
+        }
         return attributes;
     }
 
+    /**
+     * @return the attributes, without allocating a map if there are none. Must not be modified.
+     */
+    @NotNull
+    Map<String, String> attributes(){
+        return attributes == null ? Collections.emptyMap() : attributes;
+    }
+
     public void setAttributes(@NotNull Map<String, String> attributes){
         Objects.requireNonNull(attributes);
         this.attributes = attributes;
@@ -239,7 +245,7 @@ public class Vehicle{
 
     public String setAttribute(@NotNull String key, String value){
         Objects.requireNonNull(key);
-        return attributes.put(key, value);
+        return getAttributes().put(StringPools.canonicalize(PooledField.ATTRIBUTE_KEY, key), value);
     }
 
     @Override
@@ -310,7 +316,7 @@ public class Vehicle{
         if (odometerReading != null ? !odometerReading.equals(vehicle.odometerReading) : vehicle.odometerReading != null){
             return false;
         }
-        return attributes != null ? attributes.equals(vehicle.attributes) : vehicle.attributes == null;
+        return attributes().equals(vehicle.attributes());
 
     }
 
@@ -335,7 +341,7 @@ public class Vehicle{
         result = 31 * result + (trailerType != null ? trailerType.hashCode() : 0);
         result = 31 * result + (odometerBrand != null ? odometerBrand.hashCode() : 0);
         result = 31 * result + (odometerReading != null ? odometerReading.hashCode() : 0);
-        result = 31 * result + (attributes != null ? attributes.hashCode() : 0);
+        result = 31 * result + attributes().hashCode();
         return result;
     }
 }
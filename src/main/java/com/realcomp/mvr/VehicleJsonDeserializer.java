@@ -0,0 +1,95 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class VehicleJsonDeserializer extends StdDeserializer<Vehicle>{
+
+    VehicleJsonDeserializer(){
+        super(Vehicle.class);
+    }
+
+    @Override
+    public Vehicle deserialize(JsonParser p, DeserializationContext ctxt) throws IOException{
+        Vehicle vehicle = new Vehicle();
+        try{
+            for (String field = firstFieldName(p, Vehicle.class); field != null; field = p.nextFieldName()){
+                p.nextToken();
+                switch (field){
+                    case "vin":
+                        vehicle.setVin(readString(p));
+                        break;
+                    case "bodyTypeCode":
+                        vehicle.setBodyTypeCode(readString(p));
+                        break;
+                    case "vehicleClass":
+                        vehicle.setVehicleClass(readEnum(p, VehicleClass.class));
+                        break;
+                    case "vehicleClassCode":
+                        vehicle.setVehicleClassCode(readString(p));
+                        break;
+                    case "make":
+                        vehicle.setMake(readString(p));
+                        break;
+                    case "model":
+                        vehicle.setModel(readString(p));
+                        break;
+                    case "modelYear":
+                        vehicle.setModelYear(readString(p));
+                        break;
+                    case "primaryColor":
+                        vehicle.setPrimaryColor(readEnum(p, Color.class));
+                        break;
+                    case "secondaryColor":
+                        vehicle.setSecondaryColor(readEnum(p, Color.class));
+                        break;
+                    case "tonage":
+                        vehicle.setTonage(readFloat(p));
+                        break;
+                    case "bodyVin":
+                        vehicle.setBodyVin(readString(p));
+                        break;
+                    case "length":
+                        vehicle.setLength(readInt(p));
+                        break;
+                    case "emptyWeight":
+                        vehicle.setEmptyWeight(readInt(p));
+                        break;
+                    case "grossWeight":
+                        vehicle.setGrossWeight(readInt(p));
+                        break;
+                    case "fuelType":
+                        vehicle.setFuelType(readEnum(p, FuelType.class));
+                        break;
+                    case "fixedEquipment":
+                        vehicle.setFixedEquipment(readBoolean(p));
+                        break;
+                    case "trailerType":
+                        vehicle.setTrailerType(readEnum(p, TrailerType.class));
+                        break;
+                    case "odometerBrand":
+                        vehicle.setOdometerBrand(readString(p));
+                        break;
+                    case "odometerReading":
+                        vehicle.setOdometerReading(readString(p));
+                        break;
+                    case "attributes":
+                        readAttributes(p, vehicle.getAttributes());
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, vehicle, field);
+                }
+            }
+        }
+        catch (IllegalArgumentException | NullPointerException ex){
+            throw JsonMappingException.from(p, ex.getMessage(), ex);
+        }
+        return vehicle;
+    }
+}
@@ -0,0 +1,42 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.realcomp.mvr.MVRJsonSupport.*;
+
+class VehicleJsonSerializer extends StdSerializer<Vehicle>{
+
+    VehicleJsonSerializer(){
+        super(Vehicle.class);
+    }
+
+    @Override
+    public void serialize(Vehicle vehicle, JsonGenerator gen, SerializerProvider provider) throws IOException{
+        gen.writeStartObject();
+        writeString(gen, "vin", vehicle.getVin());
+        writeString(gen, "bodyTypeCode", vehicle.getBodyTypeCode());
+        writeEnum(gen, "vehicleClass", vehicle.getVehicleClass());
+        writeString(gen, "vehicleClassCode", vehicle.getVehicleClassCode());
+        writeString(gen, "make", vehicle.getMake());
+        writeString(gen, "model", vehicle.getModel());
+        writeString(gen, "modelYear", vehicle.getModelYear());
+        writeEnum(gen, "primaryColor", vehicle.getPrimaryColor());
+        writeEnum(gen, "secondaryColor", vehicle.getSecondaryColor());
+        writeFloat(gen, "tonage", vehicle.getTonage());
+        writeString(gen, "bodyVin", vehicle.getBodyVin());
+        writeInt(gen, "length", vehicle.getLength());
+        writeInt(gen, "emptyWeight", vehicle.getEmptyWeight());
+        writeInt(gen, "grossWeight", vehicle.getGrossWeight());
+        writeEnum(gen, "fuelType", vehicle.getFuelType());
+        writeBoolean(gen, "fixedEquipment", vehicle.isFixedEquipment());
+        writeEnum(gen, "trailerType", vehicle.getTrailerType());
+        writeString(gen, "odometerBrand", vehicle.getOdometerBrand());
+        writeString(gen, "odometerReading", vehicle.getOdometerReading());
+        writeAttributes(gen, vehicle.attributes());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,353 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Validates and decodes 17 character VINs (ISO 3779, 49 CFR 565).
+ * <p>
+ * Validation checks the length, the VIN alphabet (0-9 and A-Z without I, O and Q) and the check digit in
+ * position 9. Decoding extracts the model year from position 10 and the region of manufacture from position 1.
+ * Lower case letters are accepted; surrounding whitespace is not. Every method works on a CharSequence or on
+ * 17 ASCII bytes in a byte[] with table lookups, without allocating; only wmi(), vds() and vis() create Strings.
+ */
+public final class VinDecoder{
+
+    public static final int VIN_LENGTH = 17;
+
+    /**
+     * Position of the check digit, from 0.
+     */
+    public static final int CHECK_DIGIT_INDEX = 8;
+
+    /**
+     * Position of the model year code, from 0.
+     */
+    public static final int MODEL_YEAR_INDEX = 9;
+
+    public static final int WMI_END = 3;
+    public static final int VDS_END = 9;
+
+    public static final int UNKNOWN_YEAR = -1;
+
+    private static final int FIRST_YEAR = 1980;
+    private static final int CYCLE = 30;
+    private static final String YEAR_CODES = "ABCDEFGHJKLMNPRSTVWXY123456789";
+    private static final String TRANSLITERATION = "A1B2C3D4E5F6G7H8J1K2L3M4N5P7R9S2T3U4V5W6X7Y8Z9";
+    private static final int[] WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 0, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    /**
+     * The check digit value of each character of the VIN alphabet, or -1.
+     */
+    private static final byte[] VALUES = new byte[128];
+
+    /**
+     * The offset from FIRST_YEAR of each model year code, or -1.
+     */
+    private static final byte[] YEARS = new byte[128];
+
+    private static final VinRegion[] REGIONS = new VinRegion[128];
+
+    static{
+        Arrays.fill(VALUES, (byte) -1);
+        Arrays.fill(YEARS, (byte) -1);
+        Arrays.fill(REGIONS, VinRegion.UNKNOWN);
+        for (char c = '0'; c <= '9'; c++){
+            VALUES[c] = (byte) (c - '0');
+        }
+        for (int i = 0; i < TRANSLITERATION.length(); i += 2){
+            char c = TRANSLITERATION.charAt(i);
+            byte value = (byte) (TRANSLITERATION.charAt(i + 1) - '0');
+            VALUES[c] = value;
+            VALUES[Character.toLowerCase(c)] = value;
+        }
+        for (int i = 0; i < YEAR_CODES.length(); i++){
+            char c = YEAR_CODES.charAt(i);
+            YEARS[c] = (byte) i;
+            YEARS[Character.toLowerCase(c)] = (byte) i;
+        }
+        region("ABCDEFGH", VinRegion.AFRICA);
+        region("JKLMNPR", VinRegion.ASIA);
+        region("STUVWXYZ", VinRegion.EUROPE);
+        region("12345", VinRegion.NORTH_AMERICA);
+        region("67", VinRegion.OCEANIA);
+        region("89", VinRegion.SOUTH_AMERICA);
+    }
+
+    private VinDecoder(){
+    }
+
+    private static void region(String codes, VinRegion region){
+        for (int i = 0; i < codes.length(); i++){
+            char c = codes.charAt(i);
+            REGIONS[c] = region;
+            REGIONS[Character.toLowerCase(c)] = region;
+        }
+    }
+
+    /**
+     * @param vin
+     * @return true if vin is 17 characters of the VIN alphabet with a correct check digit
+     */
+    public static boolean isValid(CharSequence vin){
+        return validate(vin) == VinValidity.VALID;
+    }
+
+    /**
+     * @param vin
+     * @return the first problem found with the VIN, or VALID
+     */
+    @NotNull
+    public static VinValidity validate(CharSequence vin){
+        if (vin == null || vin.length() != VIN_LENGTH){
+            return VinValidity.INVALID_LENGTH;
+        }
+        int sum = 0;
+        for (int i = 0; i < VIN_LENGTH; i++){
+            int value = value(vin.charAt(i));
+            if (value < 0){
+                return VinValidity.INVALID_CHARACTER;
+            }
+            sum += value * WEIGHTS[i];
+        }
+        return checkDigit(sum) == upperCase(vin.charAt(CHECK_DIGIT_INDEX))
+                ? VinValidity.VALID
+                : VinValidity.INVALID_CHECK_DIGIT;
+    }
+
+    /**
+     * @param data
+     * @param offset the position of the 17 ASCII bytes of the VIN
+     * @return the first problem found with the VIN, or VALID
+     */
+    @NotNull
+    public static VinValidity validate(@NotNull byte[] data, int offset){
+        Objects.requireNonNull(data);
+        if (offset < 0 || offset > data.length - VIN_LENGTH){
+            return VinValidity.INVALID_LENGTH;
+        }
+        int sum = 0;
+        for (int i = 0; i < VIN_LENGTH; i++){
+            int value = value((char) (data[offset + i] & 0xff));
+            if (value < 0){
+                return VinValidity.INVALID_CHARACTER;
+            }
+            sum += value * WEIGHTS[i];
+        }
+        return checkDigit(sum) == upperCase((char) (data[offset + CHECK_DIGIT_INDEX] & 0xff))
+                ? VinValidity.VALID
+                : VinValidity.INVALID_CHECK_DIGIT;
+    }
+
+    /**
+     * Validates a batch of VINs.
+     * @param vins
+     * @param results receives the result for each VIN; at least as long as vins
+     * @return the number of VALID VINs
+     */
+    public static int validate(@NotNull CharSequence[] vins, @NotNull VinValidity[] results){
+        Objects.requireNonNull(vins);
+        Objects.requireNonNull(results);
+        if (results.length < vins.length){
+            throw new IllegalArgumentException("results length [" + results.length + "] is less than " + vins.length);
+        }
+        int valid = 0;
+        for (int i = 0; i < vins.length; i++){
+            results[i] = validate(vins[i]);
+            if (results[i] == VinValidity.VALID){
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Validates a batch of VINs held at a fixed stride in a byte[], as in a fixed-width record file.
+     * @param data
+     * @param offset the position of the first VIN
+     * @param stride the distance between the starts of consecutive VINs
+     * @param count the number of VINs
+     * @param results receives the result for each VIN; at least count long
+     * @return the number of VALID VINs
+     */
+    public static int validate(@NotNull byte[] data, int offset, int stride, int count, @NotNull VinValidity[] results){
+        Objects.requireNonNull(data);
+        Objects.requireNonNull(results);
+        if (count < 0 || results.length < count){
+            throw new IllegalArgumentException("count [" + count + "] is negative or more than " + results.length);
+        }
+        if (stride < VIN_LENGTH){
+            throw new IllegalArgumentException("stride [" + stride + "] is less than " + VIN_LENGTH);
+        }
+        int valid = 0;
+        for (int i = 0; i < count; i++){
+            results[i] = validate(data, offset + i * stride);
+            if (results[i] == VinValidity.VALID){
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @param vin 17 characters of the VIN alphabet; the check digit itself is ignored
+     * @return the check digit the VIN should have, '0'-'9' or 'X'
+     * @throws IllegalArgumentException if vin is not 17 characters of the VIN alphabet
+     */
+    public static char checkDigit(@NotNull CharSequence vin){
+        Objects.requireNonNull(vin);
+        if (vin.length() != VIN_LENGTH){
+            throw new IllegalArgumentException("vin [" + vin + "] is not " + VIN_LENGTH + " characters");
+        }
+        int sum = 0;
+        for (int i = 0; i < VIN_LENGTH; i++){
+            int value = value(vin.charAt(i));
+            if (value < 0){
+                throw new IllegalArgumentException("vin [" + vin + "] has an invalid character at position " + (i + 1));
+            }
+            sum += value * WEIGHTS[i];
+        }
+        return checkDigit(sum);
+    }
+
+    /**
+     * Decodes the model year without a hint. The code in position 10 repeats every 30 years; for passenger cars,
+     * MPVs and light trucks a numeric position 7 means 1980-2009 and an alphabetic one 2010-2039.
+     * @param vin
+     * @return the model year, or UNKNOWN_YEAR if vin is not 17 characters or position 10 is not a model year code
+     */
+    public static int modelYear(CharSequence vin){
+        return modelYear(vin, UNKNOWN_YEAR);
+    }
+
+    /**
+     * @param vin
+     * @param hint an approximate model year, such as Vehicle.getModelYear() or the registration year; the year
+     * in the 30 year cycle nearest to it is returned. UNKNOWN_YEAR to decode without a hint.
+     * @return the model year, or UNKNOWN_YEAR if vin is not 17 characters or position 10 is not a model year code
+     */
+    public static int modelYear(CharSequence vin, int hint){
+        if (vin == null || vin.length() != VIN_LENGTH){
+            return UNKNOWN_YEAR;
+        }
+        return modelYear(vin.charAt(MODEL_YEAR_INDEX), vin.charAt(6), hint);
+    }
+
+    /**
+     * @param data
+     * @param offset the position of the 17 ASCII bytes of the VIN
+     * @param hint an approximate model year, or UNKNOWN_YEAR
+     * @return the model year, or UNKNOWN_YEAR if position 10 is not a model year code
+     */
+    public static int modelYear(@NotNull byte[] data, int offset, int hint){
+        Objects.requireNonNull(data);
+        if (offset < 0 || offset > data.length - VIN_LENGTH){
+            return UNKNOWN_YEAR;
+        }
+        return modelYear((char) (data[offset + MODEL_YEAR_INDEX] & 0xff), (char) (data[offset + 6] & 0xff), hint);
+    }
+
+    /**
+     * @param vehicle
+     * @return the model year decoded from the VIN, disambiguated with Vehicle.getModelYear() if it is a 4 digit year;
+     * or UNKNOWN_YEAR
+     */
+    public static int modelYear(@NotNull Vehicle vehicle){
+        Objects.requireNonNull(vehicle);
+        String modelYear = vehicle.getModelYear();
+        int hint = modelYear != null && FieldValidator.isYear(modelYear) ? Integer.parseInt(modelYear) : UNKNOWN_YEAR;
+        return modelYear(vehicle.getVin(), hint);
+    }
+
+    private static int modelYear(char code, char position7, int hint){
+        int offset = code < 128 ? YEARS[code] : -1;
+        if (offset < 0){
+            return UNKNOWN_YEAR;
+        }
+        int year = FIRST_YEAR + offset;
+        if (hint == UNKNOWN_YEAR){
+            return value(position7) < 0 || (position7 >= '0' && position7 <= '9') ? year : year + CYCLE;
+        }
+        int nearest = year + Math.floorDiv(hint - year + CYCLE / 2, CYCLE) * CYCLE;
+        return nearest < FIRST_YEAR ? year : nearest;
+    }
+
+    /**
+     * @param vin
+     * @return the region of manufacture, or UNKNOWN
+     */
+    @NotNull
+    public static VinRegion region(CharSequence vin){
+        if (vin == null || vin.length() == 0){
+            return VinRegion.UNKNOWN;
+        }
+        char c = vin.charAt(0);
+        return c < 128 ? REGIONS[c] : VinRegion.UNKNOWN;
+    }
+
+    /**
+     * @param data
+     * @param offset the position of the VIN
+     * @return the region of manufacture, or UNKNOWN
+     */
+    @NotNull
+    public static VinRegion region(@NotNull byte[] data, int offset){
+        Objects.requireNonNull(data);
+        if (offset < 0 || offset >= data.length){
+            return VinRegion.UNKNOWN;
+        }
+        int c = data[offset] & 0xff;
+        return c < 128 ? REGIONS[c] : VinRegion.UNKNOWN;
+    }
+
+    /**
+     * @param vin a 17 character VIN
+     * @return the World Manufacturer Identifier, positions 1-3
+     */
+    @NotNull
+    public static String wmi(@NotNull CharSequence vin){
+        return section(vin, 0, WMI_END);
+    }
+
+    /**
+     * @param vin a 17 character VIN
+     * @return the Vehicle Descriptor Section, positions 4-9 including the check digit
+     */
+    @NotNull
+    public static String vds(@NotNull CharSequence vin){
+        return section(vin, WMI_END, VDS_END);
+    }
+
+    /**
+     * @param vin a 17 character VIN
+     * @return the Vehicle Identifier Section, positions 10-17
+     */
+    @NotNull
+    public static String vis(@NotNull CharSequence vin){
+        return section(vin, VDS_END, VIN_LENGTH);
+    }
+
+    private static String section(CharSequence vin, int from, int to){
+        Objects.requireNonNull(vin);
+        if (vin.length() != VIN_LENGTH){
+            throw new IllegalArgumentException("vin [" + vin + "] is not " + VIN_LENGTH + " characters");
+        }
+        return vin.subSequence(from, to).toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static int value(char c){
+        return c < 128 ? VALUES[c] : -1;
+    }
+
+    private static char upperCase(char c){
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private static char checkDigit(int sum){
+        int check = sum % 11;
+        return check == 10 ? 'X' : (char) ('0' + check);
+    }
+}
@@ -0,0 +1,362 @@
+package com.realcomp.mvr;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * In-memory index from VIN to the GUIDs of the MVRDocuments that reference it, through either
+ * Vehicle.getVin() or Vehicle.getBodyVin().
+ * <p>
+ * A standard 17 character VIN is drawn from 33 symbols (0-9 and A-Z without I, O and Q) and is stored as two
+ * base-33 longs: the WMI and VDS (characters 1-8) and the VIS (characters 9-17). Each posting is those
+ * two longs plus an int GUID id, held in parallel primitive arrays that are sorted lazily on the first query
+ * after an add. Because the symbols are numbered in ASCII order, the sort order is VIN order, and a WMI (3) or
+ * WMI+VDS (8) prefix query is a range of the arrays found by binary search.
+ * VINs that are not standard (pre-1981 VINs, invalid characters) are kept in a TreeMap.
+ * Lookups ignore case and surrounding whitespace.
+ * <p>
+ * Not thread-safe.
+ */
+public class VinIndex{
+
+    public static final int VIN_LENGTH = 17;
+    public static final int WMI_LENGTH = 3;
+    public static final int WMI_VDS_LENGTH = 8;
+
+    static final String ALPHABET = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ";
+    private static final int RADIX = ALPHABET.length();
+    private static final int[] DIGITS = new int[128];
+    private static final long[] POWERS = new long[VIN_LENGTH - WMI_VDS_LENGTH + 1];
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    static{
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < RADIX; i++){
+            char c = ALPHABET.charAt(i);
+            DIGITS[c] = i;
+        }
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++){
+            POWERS[i] = POWERS[i - 1] * RADIX;
+        }
+    }
+
+    private long[] high;
+    private long[] low;
+    private int[] guidIds;
+    private int size;
+    private boolean sorted = true;
+
+    private final List<String> guids = new ArrayList<>();
+    private final Map<String, Integer> guidIdsByGuid = new HashMap<>();
+    private final NavigableMap<String, Set<String>> nonStandard = new TreeMap<>();
+
+    public VinIndex(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    public VinIndex(int initialCapacity){
+        if (initialCapacity < 0){
+            throw new IllegalArgumentException("initialCapacity [" + initialCapacity + "] is negative");
+        }
+        high = new long[initialCapacity];
+        low = new long[initialCapacity];
+        guidIds = new int[initialCapacity];
+    }
+
+    /**
+     * Indexes the vin and bodyVin of every MVRTransaction in the history of the document.
+     * @param document
+     */
+    public void add(@NotNull MVRDocument document){
+        Objects.requireNonNull(document);
+        String guid = document.getGuid();
+        for (MVRTransaction tx: document.historyList()){
+            Vehicle vehicle = tx.getVehicle();
+            if (vehicle != null){
+                add(vehicle.getVin(), guid);
+                add(vehicle.getBodyVin(), guid);
+            }
+        }
+    }
+
+    /**
+     * @param vin the VIN to index; ignored if null or blank
+     * @param guid the GUID of the MVRDocument that references the VIN
+     */
+    public void add(String vin, @NotNull String guid){
+        Objects.requireNonNull(guid);
+        String normalized = normalize(vin);
+        if (normalized.isEmpty()){
+            return;
+        }
+        if (!isStandard(normalized)){
+            nonStandard.computeIfAbsent(normalized, key -> new LinkedHashSet<>()).add(guid);
+            return;
+        }
+        if (size == high.length){
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            guidIds = Arrays.copyOf(guidIds, capacity);
+        }
+        high[size] = encode(normalized, 0, WMI_VDS_LENGTH);
+        low[size] = encode(normalized, WMI_VDS_LENGTH, VIN_LENGTH);
+        guidIds[size] = guidId(guid);
+        size++;
+        sorted = false;
+    }
+
+    /**
+     * @param vin
+     * @return the GUIDs of the documents that reference the VIN, in GUID order
+     */
+    @NotNull
+    public SortedSet<String> get(String vin){
+        String normalized = normalize(vin);
+        if (normalized.length() != VIN_LENGTH){
+            return lookupNonStandard(normalized, false);
+        }
+        return findByPrefix(normalized);
+    }
+
+    /**
+     * @param wmi the World Manufacturer Identifier, the first 3 characters of a VIN
+     * @return the GUIDs of the documents that reference a VIN starting with the WMI, in GUID order
+     */
+    @NotNull
+    public SortedSet<String> findByWmi(@NotNull String wmi){
+        String normalized = normalize(wmi);
+        if (normalized.length() != WMI_LENGTH){
+            throw new IllegalArgumentException("wmi [" + wmi + "] is not " + WMI_LENGTH + " characters");
+        }
+        return findByPrefix(normalized);
+    }
+
+    /**
+     * @param wmiVds the World Manufacturer Identifier and Vehicle Descriptor Section, the first 8 characters of a VIN
+     * @return the GUIDs of the documents that reference a VIN starting with wmiVds, in GUID order
+     */
+    @NotNull
+    public SortedSet<String> findByWmiVds(@NotNull String wmiVds){
+        String normalized = normalize(wmiVds);
+        if (normalized.length() != WMI_VDS_LENGTH){
+            throw new IllegalArgumentException("wmiVds [" + wmiVds + "] is not " + WMI_VDS_LENGTH + " characters");
+        }
+        return findByPrefix(normalized);
+    }
+
+    /**
+     * @param prefix 1 to 17 characters
+     * @return the GUIDs of the documents that reference a VIN starting with the prefix, in GUID order
+     */
+    @NotNull
+    public SortedSet<String> findByPrefix(@NotNull String prefix){
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || normalized.length() > VIN_LENGTH){
+            throw new IllegalArgumentException("prefix [" + prefix + "] is not 1 to " + VIN_LENGTH + " characters");
+        }
+        SortedSet<String> result = lookupNonStandard(normalized, normalized.length() < VIN_LENGTH);
+        if (!isStandardPrefix(normalized)){
+            return result;
+        }
+        sort();
+        int from;
+        int to;
+        int length = normalized.length();
+        if (length <= WMI_VDS_LENGTH){
+            long scale = POWERS[WMI_VDS_LENGTH - length];
+            long value = encode(normalized, 0, length);
+            from = lowerBound(value * scale, 0);
+            to = lowerBound((value + 1) * scale, 0);
+        }
+        else{
+            long scale = POWERS[VIN_LENGTH - length];
+            long hi = encode(normalized, 0, WMI_VDS_LENGTH);
+            long value = encode(normalized, WMI_VDS_LENGTH, length);
+            from = lowerBound(hi, value * scale);
+            to = lowerBound(hi, (value + 1) * scale);
+        }
+        for (int i = from; i < to; i++){
+            result.add(guids.get(guidIds[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of distinct (VIN, GUID) postings
+     */
+    public int size(){
+        sort();
+        int count = size;
+        for (Set<String> postings: nonStandard.values()){
+            count += postings.size();
+        }
+        return count;
+    }
+
+    /**
+     * @param vin
+     * @return true if vin is 17 characters of the VIN alphabet
+     */
+    public static boolean isStandard(String vin){
+        return vin != null && vin.length() == VIN_LENGTH && isStandardPrefix(vin);
+    }
+
+    private static boolean isStandardPrefix(String value){
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if (c >= 128 || DIGITS[c] < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String vin){
+        return vin == null ? "" : vin.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static long encode(String vin, int from, int to){
+        long value = 0;
+        for (int i = from; i < to; i++){
+            value = value * RADIX + DIGITS[vin.charAt(i)];
+        }
+        return value;
+    }
+
+    private int guidId(String guid){
+        Integer id = guidIdsByGuid.get(guid);
+        if (id == null){
+            id = guids.size();
+            guids.add(guid);
+            guidIdsByGuid.put(guid, id);
+        }
+        return id;
+    }
+
+    private SortedSet<String> lookupNonStandard(String prefix, boolean isPrefix){
+        SortedSet<String> result = new TreeSet<>();
+        if (!isPrefix){
+            Set<String> postings = nonStandard.get(prefix);
+            if (postings != null){
+                result.addAll(postings);
+            }
+            return result;
+        }
+        for (Set<String> postings: nonStandard.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()){
+            result.addAll(postings);
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the first posting with a key not less than (hi, lo)
+     */
+    private int lowerBound(long hi, long lo){
+        int from = 0;
+        int to = size;
+        while (from < to){
+            int mid = (from + to) >>> 1;
+            if (high[mid] < hi || (high[mid] == hi && low[mid] < lo)){
+                from = mid + 1;
+            }
+            else{
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Sorts the postings by (high, low, guid id) and removes the duplicates.
+     */
+    private void sort(){
+        if (sorted){
+            return;
+        }
+        quickSort(0, size - 1);
+        int unique = 0;
+        for (int i = 0; i < size; i++){
+            if (unique == 0 || compare(unique - 1, i) != 0){
+                high[unique] = high[i];
+                low[unique] = low[i];
+                guidIds[unique] = guidIds[i];
+                unique++;
+            }
+        }
+        size = unique;
+        sorted = true;
+    }
+
+    private void quickSort(int from, int to){
+        while (to - from > 16){
+            int mid = (from + to) >>> 1;
+            if (compare(mid, from) < 0){
+                swap(mid, from);
+            }
+            if (compare(to, from) < 0){
+                swap(to, from);
+            }
+            if (compare(to, mid) < 0){
+                swap(to, mid);
+            }
+            long pivotHigh = high[mid];
+            long pivotLow = low[mid];
+            int pivotGuid = guidIds[mid];
+            int i = from;
+            int j = to;
+            while (i <= j){
+                while (compare(i, pivotHigh, pivotLow, pivotGuid) < 0){
+                    i++;
+                }
+                while (compare(j, pivotHigh, pivotLow, pivotGuid) > 0){
+                    j--;
+                }
+                if (i <= j){
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (j - from < to - i){
+                quickSort(from, j);
+                from = i;
+            }
+            else{
+                quickSort(i, to);
+                to = j;
+            }
+        }
+        for (int i = from + 1; i <= to; i++){
+            for (int j = i; j > from && compare(j, j - 1) < 0; j--){
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private int compare(int a, int b){
+        return compare(a, high[b], low[b], guidIds[b]);
+    }
+
+    private int compare(int a, long hi, long lo, int guidId){
+        int cmp = Long.compare(high[a], hi);
+        if (cmp == 0){
+            cmp = Long.compare(low[a], lo);
+        }
+        return cmp == 0 ? Integer.compare(guidIds[a], guidId) : cmp;
+    }
+
+    private void swap(int a, int b){
+        long h = high[a];
+        high[a] = high[b];
+        high[b] = h;
+        long l = low[a];
+        low[a] = low[b];
+        low[b] = l;
+        int g = guidIds[a];
+        guidIds[a] = guidIds[b];
+        guidIds[b] = g;
+    }
+}
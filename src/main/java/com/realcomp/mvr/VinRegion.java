@@ -0,0 +1,15 @@
+package com.realcomp.mvr;
+
+/**
+ * The region of manufacture, from the first character of the WMI (ISO 3780).
+ */
+public enum VinRegion{
+
+    AFRICA,
+    ASIA,
+    EUROPE,
+    NORTH_AMERICA,
+    OCEANIA,
+    SOUTH_AMERICA,
+    UNKNOWN
+}
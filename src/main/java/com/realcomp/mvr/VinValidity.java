@@ -0,0 +1,25 @@
+package com.realcomp.mvr;
+
+/**
+ * The result of VinDecoder.validate().
+ */
+public enum VinValidity{
+
+    VALID,
+
+    /**
+     * Not 17 characters.
+     */
+    INVALID_LENGTH,
+
+    /**
+     * A character outside 0-9 and A-Z, or one of I, O and Q.
+     */
+    INVALID_CHARACTER,
+
+    /**
+     * Well formed, but the check digit in position 9 does not match.
+     * The check digit is mandatory in North America, but not elsewhere.
+     */
+    INVALID_CHECK_DIGIT
+}
@@ -0,0 +1,97 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AttributeMapTest{
+
+    @Test
+    public void testCompact(){
+        AttributeMap map = new AttributeMap();
+        assertTrue(map.isEmpty());
+        assertEquals(null, map.put("office", "227"));
+        assertEquals("227", map.put("office", "228"));
+        map.put("county", "LUBBOCK");
+        assertEquals(2, map.size());
+        assertEquals("228", map.get(new String("office")));
+        assertTrue(map.containsKey("county"));
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("office", "228");
+        expected.put("county", "LUBBOCK");
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        assertEquals("228", map.remove("office"));
+        assertEquals(null, map.remove("office"));
+        assertEquals(1, map.size());
+        assertEquals("LUBBOCK", map.get("county"));
+    }
+
+    @Test
+    public void testGrow(){
+        AttributeMap map = new AttributeMap();
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < AttributeMap.COMPACT_SIZE * 2; i++){
+            map.put("key" + i, Integer.toString(i));
+            expected.put("key" + i, Integer.toString(i));
+            assertEquals(expected, map);
+        }
+        assertEquals("3", map.get("key3"));
+    }
+
+    @Test
+    public void testCopyOnWrite(){
+        for (int size: new int[]{1, AttributeMap.COMPACT_SIZE + 1}){
+            AttributeMap original = new AttributeMap();
+            for (int i = 0; i < size; i++){
+                original.put("key" + i, "value");
+            }
+            Map<String, String> expected = new HashMap<>(original);
+
+            AttributeMap copy = AttributeMap.copyOf(original);
+            assertEquals(original, copy);
+            copy.put("key0", "changed");
+            copy.put("new", "value");
+            assertEquals(expected, original);
+            assertEquals("changed", copy.get("key0"));
+
+            AttributeMap second = AttributeMap.copyOf(original);
+            Iterator<Map.Entry<String, String>> iterator = second.entrySet().iterator();
+            iterator.next().setValue("set");
+            iterator.remove();
+            assertEquals(expected, original);
+            assertEquals(size - 1, second.size());
+
+            //the original may be modified after a copy without the copy seeing it
+            AttributeMap third = AttributeMap.copyOf(original);
+            original.put("key0", "original");
+            original.remove("key" + (size - 1));
+            assertEquals(expected, third);
+        }
+        assertEquals(null, AttributeMap.copyOf(new HashMap<>()));
+    }
+
+    @Test
+    public void testTransactionAttributes(){
+        MVRTransaction tx = new MVRTransaction();
+        MVRTransaction empty = new MVRTransaction();
+        assertTrue(tx.getAttributes().isEmpty());
+        assertEquals(empty, tx);
+        assertEquals(empty.hashCode(), tx.hashCode());
+        assertEquals(empty.fingerprint(), tx.fingerprint());
+
+        tx.setAttribute("seq", "1");
+        MVRTransaction copy = new MVRTransaction(tx);
+        copy.setAttribute("seq", "2");
+        assertEquals("1", tx.getAttributes().get("seq"));
+        assertEquals("2", copy.getAttributes().get("seq"));
+    }
+}
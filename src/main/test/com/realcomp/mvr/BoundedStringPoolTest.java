@@ -0,0 +1,59 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BoundedStringPoolTest{
+
+    @Test
+    public void testCanonicalize(){
+        BoundedStringPool pool = new BoundedStringPool();
+        String ford = new String("FORD");
+        assertSame(ford, pool.canonicalize(PooledField.MAKE, ford));
+        assertSame(ford, pool.canonicalize(PooledField.MAKE, new String("FORD")));
+        assertEquals(1, pool.size(PooledField.MAKE));
+        assertEquals(1, pool.getHits(PooledField.MAKE));
+        assertEquals(1, pool.getMisses(PooledField.MAKE));
+        assertEquals(0.5d, pool.getHitRate(PooledField.MAKE), 0d);
+        assertEquals(0, pool.size(PooledField.MODEL));
+
+        pool.clear();
+        assertEquals(0, pool.size(PooledField.MAKE));
+        assertEquals(0, pool.getHits(PooledField.MAKE));
+    }
+
+    @Test
+    public void testBounded(){
+        BoundedStringPool pool = new BoundedStringPool(2);
+        pool.canonicalize(PooledField.MODEL, "F150");
+        pool.canonicalize(PooledField.MODEL, "F250");
+        String f350 = new String("F350");
+        assertSame(f350, pool.canonicalize(PooledField.MODEL, f350));
+        assertNotSame(f350, pool.canonicalize(PooledField.MODEL, new String("F350")));
+        assertEquals(2, pool.size(PooledField.MODEL));
+        assertEquals(2, pool.getRejected(PooledField.MODEL));
+    }
+
+    @Test
+    public void testDeserialize() throws Exception{
+        BoundedStringPool pool = new BoundedStringPool();
+        StringPools.set(pool);
+        try{
+            byte[] json = MVRJson.getObjectMapper().writeValueAsBytes(TestFixtures.document("1234", 3));
+            MVRDocument doc = MVRJson.getObjectMapper().readValue(json, MVRDocument.class);
+            List<MVRTransaction> history = doc.getHistory();
+            assertSame(doc.getState(), history.get(0).getState());
+            assertSame(history.get(0).getSource(), history.get(2).getSource());
+            assertSame(history.get(0).getVehicle().getMake(), history.get(1).getVehicle().getMake());
+            assertEquals(1, pool.size(PooledField.STATE));
+        }
+        finally{
+            StringPools.set(StringPool.NONE);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FieldValidatorTest{
+
+
+    @Test
+    public void testIsDate() throws Exception{
+
+        assertTrue(FieldValidator.isDate("20170101"));
+        assertTrue(FieldValidator.isDate("00000000"));
+        assertTrue(FieldValidator.isDate("20000229"));
+        assertTrue(FieldValidator.isDate("20160229"));
+        assertFalse(FieldValidator.isDate("19000229"));
+        assertFalse(FieldValidator.isDate("20170229"));
+        assertFalse(FieldValidator.isDate("20170431"));
+        assertFalse(FieldValidator.isDate("20171301"));
+        assertFalse(FieldValidator.isDate("20170100"));
+        assertFalse(FieldValidator.isDate("2017010"));
+        assertFalse(FieldValidator.isDate("2017O101"));
+        assertFalse(FieldValidator.isDate(null));
+    }
+
+    @Test
+    public void testIsMonth() throws Exception{
+
+        assertTrue(FieldValidator.isMonth("01"));
+        assertTrue(FieldValidator.isMonth("12"));
+        assertFalse(FieldValidator.isMonth("00"));
+        assertFalse(FieldValidator.isMonth("13"));
+        assertFalse(FieldValidator.isMonth("1"));
+    }
+
+    @Test
+    public void testIsYear() throws Exception{
+
+        assertTrue(FieldValidator.isYear("1999"));
+        assertFalse(FieldValidator.isYear("99"));
+        assertFalse(FieldValidator.isYear("199X"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FixedWidthParserTest{
+
+    private static final String RECORDS =
+            "TX00000001080420171M8GDM9AXKP042788FORDBLKY 3500SMITH JONES \r\n" +
+            "TX0000000213452017                 FORDZZZN12x45DOE         \r\n";
+
+    private static FixedWidthLayout layout(){
+        Map<String, Color> colors = new HashMap<>();
+        colors.put("BLK", Color.BLACK);
+        colors.put("WHI", Color.WHITE);
+        return new FixedWidthLayout(60, Arrays.asList(
+                new FixedWidthField(FixedWidthTarget.ID, 0, 10),
+                new FixedWidthField(FixedWidthTarget.TRANSACTION_DATE, 10, 8, FixedWidthConverter.MMDDYYYY),
+                new FixedWidthField(FixedWidthTarget.VIN, 18, 17),
+                new FixedWidthField(FixedWidthTarget.MAKE, 35, 4),
+                new FixedWidthField(FixedWidthTarget.PRIMARY_COLOR, 39, 3, new CodeTable<>(Color.class, colors)),
+                FixedWidthField.flag(TitleFlag.STOLEN, 42, 1),
+                new FixedWidthField(FixedWidthTarget.EMPTY_WEIGHT, 43, 5),
+                new FixedWidthField(FixedWidthTarget.OWNER_RAW_NAME, 48, 6),
+                new FixedWidthField(FixedWidthTarget.OWNER_RAW_NAME, 54, 6).inGroup(1)));
+    }
+
+    @Test
+    public void testParse(){
+        FixedWidthLayout layout = layout();
+        FixedWidthParser parser = new FixedWidthParser(layout);
+        List<MVRTransaction> parsed = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(RECORDS.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(2L, parser.parse(buffer, parsed::add));
+        assertEquals(0, buffer.position());
+
+        MVRTransaction first = parsed.get(0);
+        assertEquals("TX00000001", first.getId());
+        assertEquals("20170804", first.getTransactionDate());
+        assertEquals("1M8GDM9AXKP042788", first.getVehicle().getVin());
+        assertEquals(Color.BLACK, first.getVehicle().getPrimaryColor());
+        assertEquals(3500, first.getVehicle().getEmptyWeight());
+        assertTrue(first.isStolen());
+        assertEquals(2, first.getOwners().size());
+        assertEquals("JONES", first.getOwners().get(1).getRawName());
+
+        MVRTransaction second = parsed.get(1);
+        assertEquals(MVRDate.UNKNOWN, second.getTransactionDateAsInt());
+        assertEquals(null, second.getVehicle().getVin());
+        assertEquals(null, second.getVehicle().getPrimaryColor());
+        assertSame(first.getVehicle().getMake(), second.getVehicle().getMake());
+        assertFalse(second.isStolen());
+        assertEquals(1, second.getOwners().size());
+
+        assertEquals(2L, parser.getRecords());
+        assertEquals(2L, parser.getInvalid());
+        assertEquals(1L, parser.getInvalid(FixedWidthTarget.TRANSACTION_DATE));
+        assertEquals(1L, parser.getInvalid(FixedWidthTarget.EMPTY_WEIGHT));
+        assertEquals(1L, layout.getFields().get(4).getCodeTable().getUnmapped());
+    }
+
+    @Test
+    public void testParseFile() throws Exception{
+        Path file = Files.createTempFile("mvr-fixed-width", ".txt");
+        try{
+            Files.write(file, RECORDS.getBytes(StandardCharsets.US_ASCII));
+            List<MVRTransaction> parsed = new ArrayList<>();
+            assertEquals(2L, new FixedWidthParser(layout()).parse(file, parsed::add));
+            assertEquals("TX00000002", parsed.get(1).getId());
+        }
+        finally{
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartialRecord(){
+        ByteBuffer buffer = ByteBuffer.wrap((RECORDS + "TX00000003").getBytes(StandardCharsets.US_ASCII));
+        new FixedWidthParser(layout()).parse(buffer, tx -> { });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCodeWithoutTable(){
+        new FixedWidthField(FixedWidthTarget.PRIMARY_COLOR, 0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFieldPastEnd(){
+        new FixedWidthLayout(10, Arrays.asList(new FixedWidthField(FixedWidthTarget.VIN, 0, 17)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MVRBinaryCodecTest{
+
+
+    @Test
+    public void testRoundTrip() throws Exception{
+
+        List<MVRDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 5; i++){
+            documents.add(TestFixtures.document("100" + i, i));
+        }
+        documents.get(2).getHistory().get(0).getVehicle().setTonage(1.5f);
+        documents.get(2).getHistory().get(1).setRawRenewalName("Zoë Ångström");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MVRBinaryWriter<MVRDocument> writer = MVRBinaryCodec.documentWriter(out)){
+            writer.writeAll(documents);
+        }
+
+        byte[] json = MVRJson.getObjectMapper().writeValueAsBytes(documents);
+        assertTrue(out.size() < json.length / 2);
+
+        try (MVRBinaryReader<MVRDocument> reader = MVRBinaryCodec.documentReader(new ByteArrayInputStream(out.toByteArray()))){
+            assertEquals(documents, reader.stream().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testTransaction() throws Exception{
+
+        MVRTransaction tx = TestFixtures.document("1", 1).getHistory().get(0);
+        tx.setStolen(true);
+        tx.setAdditionalLienHolders(true);
+        tx.setBondedTitleType(null);
+        tx.setVehicle(null);
+        assertEquals(tx, MVRBinaryCodec.decodeTransaction(ByteBuffer.wrap(MVRBinaryCodec.encode(tx))));
+    }
+
+    @Test
+    public void testNoAttributes(){
+        MVRTransaction tx = TestFixtures.document("1", 1).getHistory().get(0);
+        tx.getAttributes().clear();
+        MVRTransaction decoded = MVRBinaryCodec.decodeTransaction(ByteBuffer.wrap(MVRBinaryCodec.encode(tx)));
+        assertSame(Collections.emptyMap(), decoded.attributes());
+        assertSame(Collections.emptyMap(), decoded.getVehicle().attributes());
+    }
+
+    @Test
+    public void testTitleFlagsFit(){
+        assertTrue(TitleFlag.values().length <= MVRBinaryCodec.MAX_TITLE_FLAGS);
+    }
+
+    @Test
+    public void testFlags() throws Exception{
+
+        MVRTransaction tx = new MVRTransaction();
+        tx.setRegistrationInvalid(true);
+        tx.setAdditionalLienHolders(true);
+        for (TitleFlag flag: TitleFlag.values()){
+            tx.setFlagMask(tx.getFlagMask() | flag.mask());
+            MVRTransaction decoded = MVRBinaryCodec.decodeTransaction(ByteBuffer.wrap(MVRBinaryCodec.encode(tx)));
+            assertEquals(tx.getFlagMask(), decoded.getFlagMask());
+            assertTrue(decoded.isRegistrationInvalid());
+            assertTrue(decoded.isAdditionalLienHolders());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHistoryOutOfOrder(){
+        MVRDocument doc = TestFixtures.document("1", 2);
+        //bypasses addHistory, as a corrupt or hand-built file would
+        Collections.reverse(doc.historyList());
+        MVRBinaryCodec.decodeDocument(ByteBuffer.wrap(MVRBinaryCodec.encode(doc)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongRecordType() throws Exception{
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MVRBinaryCodec.transactionWriter(out).close();
+        MVRBinaryCodec.documentReader(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
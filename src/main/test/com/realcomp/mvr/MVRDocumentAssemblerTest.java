@@ -0,0 +1,84 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MVRDocumentAssemblerTest{
+
+    @Test
+    public void testAssemble() throws IOException{
+        Path dir = Files.createTempDirectory("mvr-assembler");
+        try{
+            List<MVRTransaction> transactions = new ArrayList<>();
+            for (int i = 0; i < 40; i++){
+                transactions.addAll(TestFixtures.document(Integer.toString(i), 1 + i % 5).getHistory());
+            }
+            for (int i = 0; i < 10; i++){
+                MVRTransaction tie = new MVRTransaction(transactions.get(0));
+                tie.setPlate("TIE" + i);
+                transactions.add(tie);
+            }
+            Collections.shuffle(transactions, new Random(8675309));
+
+            Map<String, List<MVRTransaction>> groups = new TreeMap<>();
+            for (MVRTransaction tx: transactions){
+                groups.computeIfAbsent(MVRDocumentGUID.generate(tx.getSource(), tx.getId()), guid -> new ArrayList<>()).add(tx);
+            }
+            List<MVRDocument> expected = new ArrayList<>();
+            for (List<MVRTransaction> group: groups.values()){
+                Collections.sort(group);
+                expected.add(MVRDocumentAssembler.assemble(group));
+            }
+
+            MVRDocumentAssembler assembler = new MVRDocumentAssembler(dir, 7, 2);
+            assembler.addAll(transactions);
+            assertTrue(assembler.getSpilledRuns() > 2);
+            List<MVRDocument> documents;
+            try (Stream<MVRDocument> stream = assembler.stream()){
+                documents = stream.collect(Collectors.toList());
+            }
+            assertEquals(expected, documents);
+            for (int i = 0; i < documents.size(); i++){
+                assertEquals(expected.get(i).getHistory().stream().map(MVRTransaction::getPlate).collect(Collectors.toList()),
+                        documents.get(i).getHistory().stream().map(MVRTransaction::getPlate).collect(Collectors.toList()));
+            }
+            assertEquals(40, assembler.getDocumentsEmitted());
+            assertEquals(transactions.size(), assembler.getTransactionsAdded());
+            try (Stream<Path> files = Files.list(dir)){
+                assertEquals(0, files.count());
+            }
+        }
+        finally{
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testInMemory() throws IOException{
+        Path dir = Files.createTempDirectory("mvr-assembler");
+        try (MVRDocumentAssembler assembler = new MVRDocumentAssembler(dir)){
+            MVRDocument doc = TestFixtures.document("1234", 3);
+            List<MVRTransaction> history = doc.getHistory();
+            Collections.reverse(history);
+            assembler.addAll(history);
+            Iterator<MVRDocument> documents = assembler.documents();
+            MVRDocument assembled = documents.next();
+            assertEquals(doc.getGuid(), assembled.getGuid());
+            assertEquals(doc.getHistory(), assembled.getHistory());
+            assertTrue(!documents.hasNext());
+            assertEquals(0, assembler.getSpilledRuns());
+        }
+        finally{
+            Files.delete(dir);
+        }
+    }
+}
@@ -2,8 +2,16 @@ package com.realcomp.mvr;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MVRDocumentTest{
 
@@ -27,4 +35,196 @@ public class MVRDocumentTest{
         assertEquals(newer, doc.getLatest().get());
     }
 
-}
\ No newline at end of file
+    private static MVRTransaction tx(String id, String date){
+        MVRTransaction tx = new MVRTransaction();
+        tx.setId(id);
+        tx.setTransactionDate(date);
+        return tx;
+    }
+
+    @Test
+    public void addHistoryKeepsOrder() throws Exception{
+
+        MVRDocument doc = new MVRDocument();
+        MVRTransaction a = tx("a", "20100101");
+        MVRTransaction b = tx("b", "20050101");
+        MVRTransaction c = tx("c", "20100101");
+        MVRTransaction d = tx("d", "20150101");
+        doc.addHistory(a);
+        doc.addHistory(b);
+        doc.addHistory(d);
+        doc.addHistory(c);
+        assertEquals(Arrays.asList(b, a, c, d), doc.getHistory());
+    }
+
+    @Test
+    public void addHistoryBatch() throws Exception{
+
+        MVRDocument doc = new MVRDocument();
+        MVRTransaction a = tx("a", "20050101");
+        MVRTransaction b = tx("b", "20100101");
+        MVRTransaction c = tx("c", "20120101");
+        doc.addHistory(a);
+        doc.addHistory(c);
+
+        MVRTransaction d = tx("d", "20100101");
+        MVRTransaction e = tx("e", "20200101");
+        MVRTransaction f = tx("f", "20010101");
+        doc.addHistory(Arrays.asList(e, b, f, d));
+
+        List<MVRTransaction> history = doc.getHistory();
+        assertEquals(Arrays.asList(f, a, b, d, c, e), history);
+        assertEquals(e, doc.getLatest().get());
+
+        //already sorted, with an equal date kept after the one in the history
+        MVRTransaction g = tx("g", "20120101");
+        MVRTransaction h = tx("h", "20150101");
+        doc.addHistory(Arrays.asList(g, h));
+        assertEquals(Arrays.asList(f, a, b, d, c, g, h, e), doc.getHistory());
+    }
+
+    @Test
+    public void testGuid() throws Exception{
+
+        MVRDocument doc = new MVRDocument();
+        assertEquals("MVR--", doc.getGuid());
+        doc.setSource("TXDMV");
+        doc.setId("1234-5");
+        assertEquals("MVR-TXDMV-1234-5", doc.getGuid());
+
+        doc.setGuid("custom");
+        assertEquals("custom", doc.getGuid());
+        doc.setId("678");
+        assertEquals("MVR-TXDMV-678", doc.getGuid());
+
+        MVRDocumentGUID parsed = MVRDocumentGUID.parse("MVR-TXDMV-1234-5");
+        assertEquals("TXDMV", parsed.getSource());
+        assertEquals("1234-5", parsed.getId());
+        assertEquals("MVR-TXDMV-1234-5", parsed.toString());
+    }
+
+    @Test
+    public void historyAccess() throws Exception{
+
+        MVRDocument doc = new MVRDocument();
+        assertEquals(0, doc.historySize());
+        assertEquals(null, doc.getLatestOrNull());
+        List<MVRTransaction> view = doc.getHistoryView();
+        assertTrue(view.isEmpty());
+
+        MVRTransaction a = tx("a", "20100101");
+        MVRTransaction b = tx("b", "20050101");
+        doc.addHistory(a);
+        doc.addHistory(b);
+        assertEquals(2, doc.historySize());
+        assertEquals(Arrays.asList(b, a), view);
+        assertSame(view, doc.getHistoryView());
+        assertSame(b, doc.getHistory(0));
+        assertSame(a, doc.getLatestOrNull());
+        assertEquals(Arrays.asList(b, a), doc.historyStream().collect(Collectors.toList()));
+        List<MVRTransaction> visited = new ArrayList<>();
+        doc.forEachHistory(visited::add);
+        assertEquals(Arrays.asList(b, a), visited);
+
+        MVRDocument copy = new MVRDocument(doc);
+        copy.getHistoryView().get(1).setPlate("NEW123");
+        assertEquals(null, a.getPlate());
+        assertEquals("NEW123", copy.getHistory(1).getPlate());
+
+        //reads return the stored transactions and leave them in place
+        MVRTransaction first = copy.getHistory(0);
+        assertSame(first, copy.getHistoryView().get(0));
+        assertSame(first, copy.historyStream().findFirst().get());
+        assertSame(first, copy.getHistoryBetween(20000101, 20200101).get(0));
+        copy.forEachHistory(tx -> { });
+        assertSame(first, copy.getHistory(0));
+        assertSame(b, doc.getHistoryView().get(0));
+    }
+
+    @Test
+    public void pointInTime() throws Exception{
+
+        MVRDocument doc = new MVRDocument();
+        assertFalse(doc.getAsOf("20100101").isPresent());
+        assertEquals(-1, doc.floorIndex(20100101));
+        assertEquals(-1, doc.ceilingIndex(20100101));
+        assertTrue(doc.getHistoryBetween(20000101, 20200101).isEmpty());
+
+        MVRTransaction a = tx("a", "20050101");
+        MVRTransaction b = tx("b", "20100101");
+        MVRTransaction c = tx("c", "20100101");
+        MVRTransaction d = tx("d", "20150101");
+        doc.addHistory(Arrays.asList(a, b, c, d));
+
+        assertFalse(doc.getAsOf("20041231").isPresent());
+        assertSame(a, doc.getAsOf("20050101").get());
+        assertSame(c, doc.getAsOf("20120601").get());
+        assertSame(d, doc.getAsOf(20991231).get());
+
+        assertEquals(-1, doc.floorIndex(20041231));
+        assertEquals(2, doc.floorIndex(20100101));
+        assertEquals(0, doc.ceilingIndex(20000101));
+        assertEquals(1, doc.ceilingIndex(20100101));
+        assertEquals(3, doc.ceilingIndex(20100102));
+        assertEquals(-1, doc.ceilingIndex(20150102));
+
+        assertEquals(Arrays.asList(b, c), doc.getHistoryBetween("20100101", "20100101"));
+        assertEquals(Arrays.asList(a, b, c), doc.getHistoryBetween(20000101, 20141231));
+        assertEquals(Arrays.asList(d), doc.getHistoryBetween(20100102, 20991231));
+        assertTrue(doc.getHistoryBetween(20060101, 20091231).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void historyBetweenInvalidRange() throws Exception{
+        new MVRDocument().getHistoryBetween(20100101, 20000101);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void historyViewIsReadOnly() throws Exception{
+        new MVRDocument().getHistoryView().add(new MVRTransaction());
+    }
+
+    @Test
+    public void copyIsIndependent() throws Exception{
+
+        MVRDocument original = TestFixtures.document("1234", 12);
+        MVRDocument expected = TestFixtures.document("1234", 12);
+        MVRTransaction originalLatest = original.getLatest().get();
+        Vehicle originalVehicle = originalLatest.getVehicle();
+        MVRDocument copy = new MVRDocument(original);
+        assertEquals(original, copy);
+        assertSame(originalLatest, original.getLatest().get());
+        assertNotSame(originalLatest, copy.getLatest().get());
+
+        MVRTransaction latest = copy.getLatest().get();
+        latest.setPlate("NEW123");
+        latest.getVehicle().setMake("NEWMAKE");
+        latest.getOwners().get(0).setRawName("NEW OWNER");
+        latest.setAttribute("new", "value");
+        copy.addHistory(tx("1234", "20200101"));
+        assertEquals(expected, original);
+        assertEquals(13, copy.getHistory().size());
+        assertEquals("NEW123", copy.getHistory().get(11).getPlate());
+
+        originalLatest.setPlate("OLD123");
+        originalVehicle.setVin("OLDVIN");
+        assertEquals("OLD123", original.getLatest().get().getPlate());
+        assertEquals("NEW123", copy.getHistory().get(11).getPlate());
+        assertEquals(expected.getHistory().get(11).getVehicle().getVin(), copy.getHistory().get(11).getVehicle().getVin());
+    }
+
+    @Test
+    public void copyWithoutVehicle() throws Exception{
+
+        MVRDocument original = new MVRDocument();
+        original.addHistory(tx("a", "20100101"));
+        MVRDocument copy = new MVRDocument(original);
+        assertEquals(null, copy.getLatest().get().getVehicle());
+        assertEquals(original, copy);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidGuid() throws Exception{
+        MVRDocumentGUID.parse("TXDMV-1234");
+    }
+}
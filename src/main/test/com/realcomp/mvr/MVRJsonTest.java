@@ -0,0 +1,60 @@
+package com.realcomp.mvr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MVRJsonTest{
+
+    @Test
+    public void testRoundTrip() throws Exception{
+
+        List<MVRDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 5; i++){
+            documents.add(TestFixtures.document("100" + i, i));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MVRJsonWriter<MVRDocument> writer = MVRJson.documentWriter(out)){
+            writer.writeAll(documents);
+        }
+        String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(5, json.split("\n").length);
+
+        try (MVRJsonReader<MVRDocument> reader = MVRJson.documentReader(new ByteArrayInputStream(out.toByteArray()))){
+            assertEquals(documents, reader.stream().collect(Collectors.toList()));
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testModuleCompatibility() throws Exception{
+
+        ObjectMapper plain = new ObjectMapper();
+        ObjectMapper module = new ObjectMapper().registerModule(new MVRModule());
+        MVRDocument doc = TestFixtures.document("1234", 3);
+        doc.getHistory().get(1).setBondedTitleType(BondedTitleType.BONDED);
+
+        String compact = module.writeValueAsString(doc);
+        assertFalse(compact.contains("\"stolen\""));
+        assertFalse(compact.contains("null"));
+        assertTrue(compact.contains("\"floodDamage\":true"));
+        assertTrue(compact.contains("\"lienDate\":\"20010101\""));
+        assertEquals(doc, module.readValue(compact, MVRDocument.class));
+        assertEquals(doc, plain.readValue(compact, MVRDocument.class));
+
+        String verbose = plain.writeValueAsString(doc);
+        assertTrue(verbose.length() > compact.length());
+        assertEquals(doc, module.readValue(verbose, MVRDocument.class));
+    }
+}
@@ -0,0 +1,75 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MVRTransactionColumnsTest{
+
+    @Test
+    public void testScans(){
+        MVRTransactionColumns columns = new MVRTransactionColumns(1);
+        MVRDocument doc = TestFixtures.document("1234", 12);
+        MVRTransaction noVehicle = new MVRTransaction();
+        noVehicle.setId("5678");
+        noVehicle.setJunk(true);
+        columns.add(doc);
+        columns.add(noVehicle);
+        assertEquals(13, columns.size());
+
+        BitSet flood = columns.whereAnyFlag(TitleFlag.FLOOD_DAMAGE.mask());
+        assertEquals(6, flood.cardinality());
+        assertEquals(7, columns.whereAnyFlag(TitleFlag.BRAND_MASK).cardinality());
+        assertEquals(12, columns.whereEquals(MVRTransactionColumns.StringColumn.MAKE, "FORD").cardinality());
+        assertEquals(0, columns.whereEquals(MVRTransactionColumns.StringColumn.MAKE, "CHEVROLET").cardinality());
+        assertTrue(columns.whereEquals(MVRTransactionColumns.StringColumn.MAKE, null).get(12));
+        assertEquals(13, columns.whereIn(MVRTransactionColumns.StringColumn.MAKE, Arrays.asList("FORD", null)).cardinality());
+        assertEquals(1, columns.cardinality(MVRTransactionColumns.StringColumn.MAKE));
+
+        BitSet january = columns.whereDateBetween(MVRTransactionColumns.DateColumn.TRANSACTION_DATE, 20010101, 20010131);
+        assertEquals(1, january.cardinality());
+        january.and(flood);
+        assertEquals(1, january.cardinality());
+        assertEquals(13, columns.whereType(DocumentType.UNKNOWN).cardinality()
+                + columns.whereType(DocumentType.TITLE).cardinality());
+    }
+
+    @Test
+    public void testMaterialize(){
+        MVRTransactionColumns columns = new MVRTransactionColumns();
+        MVRDocument doc = TestFixtures.document("1234", 3);
+        columns.add(doc);
+        MVRTransaction noVehicle = new MVRTransaction();
+        noVehicle.setTitleIssueDate("20170804");
+        columns.add(noVehicle);
+
+        List<MVRTransaction> rows = columns.materialize(columns.whereAnyFlag(TitleFlag.FLOOD_DAMAGE.mask()));
+        assertEquals(2, rows.size());
+        MVRTransaction expected = doc.getHistory().get(0);
+        MVRTransaction actual = rows.get(0);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTransactionDate(), actual.getTransactionDate());
+        assertEquals(expected.getSaleDate(), actual.getSaleDate());
+        assertEquals(expected.getFlags(), actual.getFlags());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getVehicle().getVin(), actual.getVehicle().getVin());
+        assertEquals(expected.getVehicle().getMake(), actual.getVehicle().getMake());
+        assertEquals(expected.getVehicle().getModelYear(), actual.getVehicle().getModelYear());
+
+        MVRTransaction last = columns.materialize(3);
+        assertNull(last.getVehicle());
+        assertEquals("20170804", last.getTitleIssueDate());
+        assertNull(last.getSaleDate());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidRow(){
+        new MVRTransactionColumns().getId(0);
+    }
+}
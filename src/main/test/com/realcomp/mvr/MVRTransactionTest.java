@@ -0,0 +1,142 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MVRTransactionTest{
+
+
+    @Test
+    public void testDates() throws Exception{
+
+        MVRTransaction tx = new MVRTransaction();
+        assertEquals("00000000", tx.getTransactionDate());
+        assertNull(tx.getSaleDate());
+        assertEquals(MVRDate.NONE, tx.getSaleDateAsInt());
+
+        tx.setTransactionDate("20010804");
+        assertEquals("20010804", tx.getTransactionDate());
+        assertEquals(20010804, tx.getTransactionDateAsInt());
+
+        tx.setSaleDate("19990101");
+        assertEquals("19990101", tx.getSaleDate());
+        tx.setSaleDate(null);
+        assertNull(tx.getSaleDate());
+
+        tx.setTitleIssueDateAsInt(20100704);
+        assertEquals("20100704", tx.getTitleIssueDate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDate() throws Exception{
+        new MVRTransaction().setTransactionDate("2001084");
+    }
+
+    @Test
+    public void testCompareTo() throws Exception{
+
+        MVRTransaction older = new MVRTransaction();
+        older.setTransactionDate("20010804");
+        MVRTransaction newer = new MVRTransaction();
+        newer.setTransactionDate("20170101");
+        assertTrue(older.compareTo(newer) < 0);
+        assertTrue(newer.compareTo(older) > 0);
+        MVRTransaction same = new MVRTransaction();
+        same.setTransactionDateAsInt(20010804);
+        assertEquals(0, older.compareTo(same));
+    }
+
+    @Test
+    public void testFlags() throws Exception{
+
+        MVRTransaction tx = new MVRTransaction();
+        assertTrue(tx.getFlags().isEmpty());
+        assertFalse(tx.isBranded());
+
+        tx.setStolen(true);
+        tx.setHeavyUseTax(true);
+        assertTrue(tx.isStolen());
+        assertEquals(EnumSet.of(TitleFlag.STOLEN, TitleFlag.HEAVY_USE_TAX), tx.getFlags());
+        assertFalse(tx.isBranded());
+        assertTrue(tx.hasAny(EnumSet.of(TitleFlag.JUNK, TitleFlag.STOLEN)));
+        assertFalse(tx.hasAll(EnumSet.of(TitleFlag.JUNK, TitleFlag.STOLEN)));
+
+        tx.setFloodDamage(true);
+        assertTrue(tx.isBranded());
+        tx.setStolen(false);
+        assertFalse(tx.isStolen());
+        assertEquals(TitleFlag.FLOOD_DAMAGE.mask() | TitleFlag.HEAVY_USE_TAX.mask(), tx.getFlagMask());
+
+        MVRTransaction other = new MVRTransaction();
+        other.setFlags(EnumSet.of(TitleFlag.FLOOD_DAMAGE, TitleFlag.HEAVY_USE_TAX));
+        assertEquals(tx, other);
+        assertEquals(tx.hashCode(), other.hashCode());
+    }
+
+    @Test
+    public void testCopyIsIndependent() throws Exception{
+
+        MVRTransaction tx = TestFixtures.document("1234", 1).getHistory(0);
+        Vehicle vehicle = tx.getVehicle();
+        List<Owner> owners = tx.getOwners();
+        MVRTransaction copy = new MVRTransaction(tx);
+        String vin = copy.getVehicle().getVin();
+        int size = copy.getOwners().size();
+
+        vehicle.setVin("1FTFW1ET5DFC10312");
+        owners.add(new Owner());
+        assertEquals(vin, copy.getVehicle().getVin());
+        assertEquals(size, copy.getOwners().size());
+        assertSame(vehicle, tx.getVehicle());
+        assertNotSame(tx.getVehicle(), copy.getVehicle());
+    }
+
+    @Test
+    public void testHashCode() throws Exception{
+
+        MVRTransaction a = TestFixtures.document("1234", 1).getHistory(0);
+        MVRTransaction b = new MVRTransaction(a);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        int hash = a.hashCode();
+        a.setPlate("NEW123");
+        assertNotEquals(hash, a.hashCode());
+        a.setPlate(b.getPlate());
+        assertEquals(hash, a.hashCode());
+
+        a.setStolen(true);
+        assertNotEquals(hash, a.hashCode());
+        a.setStolen(false);
+
+        a.getOwners().get(0).setRawName("NEW OWNER");
+        assertNotEquals(hash, a.hashCode());
+    }
+
+    @Test
+    public void testFingerprint() throws Exception{
+
+        MVRDocument doc = TestFixtures.document("1234", 3);
+        MVRDocument copy = MVRJson.getObjectMapper().readValue(
+                MVRJson.getObjectMapper().writeValueAsBytes(doc), MVRDocument.class);
+        assertEquals(doc.fingerprint(), copy.fingerprint());
+        assertEquals(doc.fingerprint(), new MVRDocument(doc).fingerprint());
+
+        MVRTransaction tx = doc.getHistory(0);
+        long fingerprint = tx.fingerprint();
+        tx.setAttribute("a", "1");
+        tx.setAttribute("b", "2");
+        MVRTransaction reordered = copy.getHistory(0);
+        reordered.setAttribute("b", "2");
+        reordered.setAttribute("a", "1");
+        assertEquals(tx.fingerprint(), reordered.fingerprint());
+        assertNotEquals(fingerprint, tx.fingerprint());
+
+        reordered.getVehicle().setMake("FORE");
+        assertNotEquals(tx.fingerprint(), reordered.fingerprint());
+        assertNotEquals(doc.fingerprint(), copy.fingerprint());
+    }
+}
@@ -0,0 +1,98 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedDocumentRepositoryTest{
+
+    @Test
+    public void testGet() throws IOException{
+        Path dir = Files.createTempDirectory("mvr-repository");
+        try{
+            testGet(dir);
+        }
+        finally{
+            delete(dir);
+        }
+    }
+
+    private void testGet(Path dir) throws IOException{
+        List<MVRDocument> documents = new ArrayList<>();
+        for (int segment = 0; segment < 2; segment++){
+            try (MVRBinaryWriter<MVRDocument> writer =
+                         MVRBinaryCodec.documentWriter(dir.resolve("segment-" + segment + ".mvrb"))){
+                for (int i = 0; i < 50; i++){
+                    MVRDocument doc = TestFixtures.document(segment + "-" + (i * 7919 % 50), 1 + i % 3);
+                    writer.write(doc);
+                    documents.add(doc);
+                }
+            }
+        }
+
+        assertEquals(100, MappedDocumentRepository.buildIndex(dir));
+        try (MappedDocumentRepository repository = MappedDocumentRepository.open(dir)){
+            assertEquals(100, repository.size());
+            for (MVRDocument doc: documents){
+                assertEquals(doc, repository.get(doc.getGuid()).get());
+            }
+            assertFalse(repository.get("MVR-TXDMV-nope").isPresent());
+            assertFalse(repository.contains("MVR-TXDMV"));
+            assertFalse(repository.contains(""));
+
+            List<String> scanned = new ArrayList<>();
+            repository.forEachRecord(record -> scanned.add(MVRBinaryCodec.readGuid(record)));
+            assertEquals(documents.stream().map(MVRDocument::getGuid).collect(Collectors.toList()), scanned);
+            try (Stream<MVRDocument> stream = repository.stream()){
+                assertEquals(documents, stream.collect(Collectors.toList()));
+            }
+
+            ByteBuffer record = repository.getRecord(documents.get(3).getGuid()).get();
+            assertTrue(record.isReadOnly());
+            assertEquals(documents.get(3), MVRBinaryCodec.decodeDocument(record));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testChangedSegment() throws IOException{
+        Path dir = Files.createTempDirectory("mvr-repository");
+        try{
+            testChangedSegment(dir);
+        }
+        finally{
+            delete(dir);
+        }
+    }
+
+    private void testChangedSegment(Path dir) throws IOException{
+        Path segment = dir.resolve("segment.mvrb");
+        try (MVRBinaryWriter<MVRDocument> writer = MVRBinaryCodec.documentWriter(segment)){
+            writer.write(TestFixtures.document("1", 1));
+        }
+        MappedDocumentRepository.buildIndex(dir);
+        try (MVRBinaryWriter<MVRDocument> writer = MVRBinaryCodec.documentWriter(segment)){
+            writer.write(TestFixtures.document("1", 2));
+        }
+        MappedDocumentRepository.open(dir);
+    }
+
+    private static void delete(Path dir) throws IOException{
+        try (Stream<Path> files = Files.walk(dir)){
+            for (Path file: files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())){
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelDocumentBuilderTest{
+
+    @Test
+    public void testBuild() throws IOException{
+        List<MVRTransaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 500; i++){
+            transactions.addAll(TestFixtures.document(Integer.toString(i), 1 + i % 7).getHistory());
+        }
+        for (int i = 0; i < 5; i++){
+            MVRTransaction tie = new MVRTransaction(transactions.get(0));
+            tie.setPlate("TIE" + i);
+            transactions.add(tie);
+        }
+        Collections.shuffle(transactions, new Random(8675309));
+
+        List<MVRDocument> expected = new ArrayList<>();
+        Path dir = Files.createTempDirectory("mvr-builder");
+        try (MVRDocumentAssembler assembler = new MVRDocumentAssembler(dir)){
+            assembler.addAll(transactions);
+            assembler.documents().forEachRemaining(expected::add);
+        }
+        finally{
+            Files.delete(dir);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            for (int stripes: new int[]{1, 3, 64}){
+                List<MVRDocument> documents = new ParallelDocumentBuilder(pool, stripes).build(transactions);
+                assertEquals(expected, documents);
+                List<MVRTransaction> history = documents.get(0).getHistory();
+                assertEquals(expected.get(0).getHistory().get(0).getPlate(), history.get(0).getPlate());
+                assertEquals(expected.get(0).getHistory().get(3).getPlate(), history.get(3).getPlate());
+            }
+        }
+        finally{
+            pool.shutdown();
+        }
+        assertEquals(4, new ParallelDocumentBuilder(pool, 3).getStripes());
+        assertEquals(0, new ParallelDocumentBuilder().build(Collections.<MVRTransaction>emptyList()).size());
+    }
+}
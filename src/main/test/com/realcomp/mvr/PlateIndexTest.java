@@ -0,0 +1,50 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlateIndexTest{
+
+    @Test
+    public void testHolderAsOf(){
+        PlateIndex index = new PlateIndex();
+        index.add("TX", "ABC123", 20150601, "MVR-TXDMV-2");
+        index.add("TX", "ABC123", 20100101, "MVR-TXDMV-1");
+        index.add("TX", "abc123 ", 20180301, "MVR-TXDMV-3");
+        index.add("TX", "ABC123", 20100101, "MVR-TXDMV-1");
+        index.add("OK", "ABC123", 20120101, "MVR-OKDMV-1");
+        index.add("TX", null, 20120101, "MVR-TXDMV-4");
+        assertEquals(4, index.size());
+
+        assertEquals(Arrays.asList(
+                new PlateIndex.PlatePosting("MVR-TXDMV-1", 20100101),
+                new PlateIndex.PlatePosting("MVR-TXDMV-2", 20150601),
+                new PlateIndex.PlatePosting("MVR-TXDMV-3", 20180301)),
+                index.get("TX", "ABC123"));
+
+        assertFalse(index.holderAsOf("TX", "ABC123", "20091231").isPresent());
+        assertEquals(Optional.of("MVR-TXDMV-1"), index.holderAsOf("TX", "ABC123", "20100101"));
+        assertEquals(Optional.of("MVR-TXDMV-1"), index.holderAsOf("TX", "ABC123", "20150531"));
+        assertEquals(Optional.of("MVR-TXDMV-2"), index.holderAsOf("TX", "ABC123", 20150601));
+        assertEquals(Optional.of("MVR-TXDMV-3"), index.holderAsOf("tx", "ABC123", 20991231));
+        assertEquals(Optional.of("MVR-OKDMV-1"), index.holderAsOf("OK", "ABC123", 20991231));
+        assertFalse(index.holderAsOf("NM", "ABC123", 20991231).isPresent());
+        assertTrue(index.get("TX", "XYZ").isEmpty());
+    }
+
+    @Test
+    public void testDocument(){
+        PlateIndex index = new PlateIndex();
+        MVRDocument doc = TestFixtures.document("1234", 3);
+        index.add(doc);
+        assertEquals(3, index.size());
+        assertEquals(Optional.of(doc.getGuid()), index.holderAsOf("TX", "ABC1", "20010201"));
+        assertEquals("20010201", index.get("TX", "ABC1").get(0).getTransactionDate());
+    }
+}
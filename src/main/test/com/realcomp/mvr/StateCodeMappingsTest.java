@@ -0,0 +1,101 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StateCodeMappingsTest{
+
+    private static final String TX = "# Texas\n" +
+            "Color.BLK=BLACK\n" +
+            "Color.BK=BLACK\n" +
+            "Color.WHI=WHITE\n" +
+            "Color.LT\\ BLU=BLUE\n" +
+            "FuelType.G=GASOLINE\n" +
+            "FuelType.D=DIESEL\n" +
+            "VehicleClass.PASS=CAR\n";
+
+    @Test
+    public void testCodeTable(){
+        Map<String, Color> mappings = new HashMap<>();
+        String[] codes = {"BLK", "BK", "WHI", "WHT", "RED", "RD", "BLU", "BL", "GRN", "GR", "SIL", "SL", "TAN"};
+        for (String code: codes){
+            mappings.put(code, Color.values()[Math.abs(code.hashCode()) % Color.values().length]);
+        }
+        CodeTable<Color> table = new CodeTable<>(Color.class, mappings);
+        assertEquals(codes.length, table.size());
+        for (String code: codes){
+            assertEquals(mappings.get(code), table.lookup(code));
+            assertEquals(mappings.get(code), table.lookup(" " + code.toLowerCase() + " "));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap("XX BLK  wht".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(mappings.get("BLK"), table.lookup(buffer, 2, 5));
+        assertEquals(mappings.get("WHT"), table.lookup(buffer, 7, 4));
+        assertEquals(null, table.lookup(buffer, 0, 2));
+        assertEquals(null, table.lookup("   "));
+        assertEquals(null, table.lookup((CharSequence) null));
+        assertEquals(null, table.lookup("xx"));
+        assertEquals(2L, table.getUnmapped());
+        assertEquals(Long.valueOf(2L), table.getUnmappedCodes().get("XX"));
+        table.resetUnmapped();
+        assertEquals(0L, table.getUnmapped());
+        assertTrue(table.getUnmappedCodes().isEmpty());
+    }
+
+    @Test
+    public void testLargeCodeTable(){
+        Map<String, Color> mappings = new HashMap<>();
+        Color[] colors = Color.values();
+        for (int i = 0; i < 5000; i++){
+            mappings.put("C" + i, colors[i % colors.length]);
+        }
+        CodeTable<Color> table = new CodeTable<>(Color.class, mappings);
+        assertEquals(5000, table.size());
+        for (int i = 0; i < 5000; i++){
+            assertEquals(colors[i % colors.length], table.lookup("c" + i));
+        }
+        assertEquals(null, table.lookup("C5000"));
+        assertEquals(1L, table.getUnmapped());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateCode(){
+        Map<String, Color> mappings = new HashMap<>();
+        mappings.put("blk", Color.BLACK);
+        mappings.put("BLK ", Color.BLUE);
+        new CodeTable<>(Color.class, mappings);
+    }
+
+    @Test
+    public void testLoad() throws Exception{
+        StateCodeMappings tx = StateCodeMappings.load("TX", new StringReader(TX));
+        assertEquals("TX", tx.getState());
+        assertEquals(Color.BLACK, tx.map(Color.class, "blk"));
+        assertEquals(Color.BLACK, tx.map(Color.class, "BK"));
+        assertEquals(Color.BLUE, tx.map(Color.class, "LT BLU"));
+        assertEquals(FuelType.DIESEL, tx.map(FuelType.class, "D"));
+        assertEquals(VehicleClass.CAR, tx.map(VehicleClass.class, "PASS"));
+        assertEquals(0, tx.table(TrailerType.class).size());
+        assertEquals(null, tx.map(FuelType.class, "E"));
+        assertEquals(null, tx.map(TrailerType.class, "SEMI"));
+        assertEquals(2L, tx.getUnmapped());
+        assertEquals(Long.valueOf(1L), tx.getUnmappedCodes().get("FuelType").get("E"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownConstant() throws Exception{
+        StateCodeMappings.load("TX", new StringReader("Color.PLD=PLAID\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownEnum() throws Exception{
+        StateCodeMappings.load("TX", new StringReader("Fabric.VNL=VINYL\n"));
+    }
+}
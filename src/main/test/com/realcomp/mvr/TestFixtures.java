@@ -0,0 +1,52 @@
+package com.realcomp.mvr;
+
+/**
+ * Sample records shared by the tests.
+ */
+final class TestFixtures{
+
+    private TestFixtures(){
+    }
+
+    /**
+     * @param id
+     * @param historySize
+     * @return a TX title with historySize transactions, one a month from 20010101
+     */
+    static MVRDocument document(String id, int historySize){
+        MVRDocument doc = new MVRDocument();
+        doc.setSource("TXDMV");
+        doc.setState("TX");
+        doc.setId(id);
+        doc.setType(DocumentType.TITLE);
+        doc.setAttribute("office", "227");
+        for (int i = 0; i < historySize; i++){
+            MVRTransaction tx = new MVRTransaction();
+            tx.setId(id);
+            tx.setSource("TXDMV");
+            tx.setState("TX");
+            tx.setTransactionDate(String.format("2001%02d01", i + 1));
+            tx.setType(DocumentType.TITLE);
+            tx.setPlate("ABC" + i);
+            tx.setFloodDamage(i % 2 == 0);
+            tx.setSaleDate("20000101");
+            Vehicle vehicle = new Vehicle();
+            vehicle.setVin("1FTRX18W1XKA12345");
+            vehicle.setMake("FORD");
+            vehicle.setModelYear("1999");
+            vehicle.setPrimaryColor(Color.RED);
+            tx.setVehicle(vehicle);
+            Owner owner = new Owner();
+            owner.setRawName("JOHN SMITH");
+            owner.setOwnerEvidenceType(OwnerEvidenceType.STATE_TITLE);
+            tx.addOwner(owner);
+            LienHolder lienHolder = new LienHolder();
+            lienHolder.setRawName("ALLY");
+            lienHolder.setLienDate("20010101");
+            tx.addLienHolder(lienHolder);
+            tx.setAttribute("seq", Integer.toString(i));
+            doc.addHistory(tx);
+        }
+        return doc;
+    }
+}
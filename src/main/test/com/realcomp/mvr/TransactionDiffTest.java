@@ -0,0 +1,118 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionDiffTest{
+
+    @Test
+    public void testDiff(){
+        MVRDocument doc = TestFixtures.document("1234", 2);
+        MVRTransaction previous = doc.getHistory().get(0);
+        MVRTransaction current = new MVRTransaction(previous);
+        assertTrue(TransactionDiff.diff(previous, current).isEmpty());
+
+        current.setPlate("XYZ999");
+        current.setJunk(true);
+        current.setSaleDate(null);
+        current.setAttribute("office", "101");
+        List<FieldChange> changes = TransactionDiff.diff(previous, current);
+        assertEquals(Arrays.asList(
+                new FieldChange(TransactionField.PLATE, "ABC0", "XYZ999"),
+                new FieldChange(TransactionField.SALE_DATE, "20000101", null),
+                new FieldChange(TransactionField.FLAGS,
+                        EnumSet.of(TitleFlag.FLOOD_DAMAGE), EnumSet.of(TitleFlag.FLOOD_DAMAGE, TitleFlag.JUNK)),
+                new FieldChange(TransactionField.ATTRIBUTES, previous.getAttributes(), current.getAttributes())),
+                changes);
+        assertEquals(EnumSet.of(TitleFlag.JUNK),
+                TransactionDiff.changedFlags(previous.getFlagMask(), current.getFlagMask()));
+        assertEquals(EnumSet.of(TransactionField.PLATE, TransactionField.SALE_DATE, TransactionField.FLAGS,
+                TransactionField.ATTRIBUTES), TransactionDiff.changedFields(previous, current));
+    }
+
+    @Test
+    public void testNestedChanges(){
+        MVRDocument doc = TestFixtures.document("1234", 2);
+        MVRTransaction previous = doc.getHistory().get(0);
+        MVRTransaction current = new MVRTransaction(previous);
+        current.getVehicle().setMake("CHEV");
+        current.getVehicle().setOdometerReading("12000");
+        current.getLienHolders().get(0).setLienDate("20020101");
+        Owner added = new Owner();
+        added.setRawName("JANE SMITH");
+        current.addOwner(added);
+        assertEquals(Arrays.asList(
+                new FieldChange(TransactionField.VEHICLE_MAKE, "FORD", "CHEV"),
+                new FieldChange(TransactionField.VEHICLE_ODOMETER_READING, null, "12000"),
+                new FieldChange(TransactionField.OWNERS, 1, null, added),
+                new FieldChange(TransactionField.LIEN_HOLDER_LIEN_DATE, 0, "20010101", "20020101")),
+                TransactionDiff.diff(previous, current));
+
+        current.setVehicle(null);
+        assertEquals(Arrays.asList(new FieldChange(TransactionField.VEHICLE, previous.getVehicle(), null)),
+                TransactionDiff.diff(previous, current).subList(0, 1));
+    }
+
+    @Test
+    public void testChangesAreCopies(){
+        MVRDocument doc = TestFixtures.document("1234", 2);
+        MVRTransaction previous = doc.getHistory().get(0);
+        MVRTransaction current = new MVRTransaction(previous);
+        current.addOwner(new Owner());
+        current.setAttribute("office", "101");
+        List<FieldChange> changes = TransactionDiff.diff(previous, current);
+        assertEquals(2, changes.size());
+
+        Owner owner = (Owner) changes.get(0).getNewValue();
+        assertNotSame(current.getOwners().get(1), owner);
+        current.getOwners().get(1).setRawName("OTHER OWNER");
+        assertEquals(null, owner.getRawName());
+
+        Map<?, ?> attributes = (Map<?, ?>) changes.get(1).getNewValue();
+        current.setAttribute("office", "102");
+        assertEquals("101", attributes.get("office"));
+    }
+
+    @Test
+    public void testIndexPassedToListener(){
+        MVRTransaction previous = TestFixtures.document("1234", 1).getHistory().get(0);
+        MVRTransaction current = new MVRTransaction(previous);
+        current.getOwners().get(0).setCountry("MX");
+        List<String> events = new ArrayList<>();
+        TransactionDiff.diff(previous, current, new TransactionChangeListener(){
+            @Override
+            public void onChange(MVRTransaction p, MVRTransaction c, TransactionField field,
+                                 Object oldValue, Object newValue){
+                events.add(field + " " + newValue);
+            }
+
+            @Override
+            public void onChange(MVRTransaction p, MVRTransaction c, TransactionField field, int index,
+                                 Object oldValue, Object newValue){
+                events.add(field + "[" + index + "] " + newValue);
+            }
+        });
+        assertEquals(Arrays.asList("OWNER_COUNTRY[0] MX"), events);
+    }
+
+    @Test
+    public void testDiffHistory(){
+        MVRDocument doc = TestFixtures.document("1234", 3);
+        List<String> events = new ArrayList<>();
+        int changes = TransactionDiff.diffHistory(doc, (previous, current, field, oldValue, newValue) ->
+                events.add(current.getTransactionDate() + " " + field + " " + oldValue + " -> " + newValue));
+        assertEquals(events.size(), changes);
+        assertTrue(events.contains("20010201 PLATE ABC0 -> ABC1"));
+        assertTrue(events.contains("20010301 TRANSACTION_DATE 20010201 -> 20010301"));
+        assertTrue(events.contains("20010201 FLAGS [FLOOD_DAMAGE] -> []"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VinDecoderTest{
+
+    @Test
+    public void testValidate(){
+        assertEquals(VinValidity.VALID, VinDecoder.validate("1M8GDM9AXKP042788"));
+        assertEquals(VinValidity.VALID, VinDecoder.validate("1m8gdm9axkp042788"));
+        assertEquals(VinValidity.VALID, VinDecoder.validate("JHMCM56557C404453"));
+        assertEquals(VinValidity.VALID, VinDecoder.validate(new StringBuilder("11111111111111111")));
+        assertEquals(VinValidity.INVALID_CHECK_DIGIT, VinDecoder.validate("1M8GDM9A1KP042788"));
+        assertEquals(VinValidity.INVALID_CHARACTER, VinDecoder.validate("1M8GDM9AXKP04278O"));
+        assertEquals(VinValidity.INVALID_LENGTH, VinDecoder.validate("1M8GDM9AXKP04278"));
+        assertEquals(VinValidity.INVALID_LENGTH, VinDecoder.validate(null));
+        assertTrue(VinDecoder.isValid("5YJ3E1EA2KF317000"));
+        assertFalse(VinDecoder.isValid("5YJ3E1EA7KF317000"));
+        assertEquals('2', VinDecoder.checkDigit("5YJ3E1EA7KF317000"));
+    }
+
+    @Test
+    public void testBatch(){
+        byte[] data = " 1M8GDM9AXKP042788 1M8GDM9A1KP042788 JHMCM56557C404453".getBytes(StandardCharsets.US_ASCII);
+        VinValidity[] results = new VinValidity[3];
+        assertEquals(2, VinDecoder.validate(data, 1, 18, 3, results));
+        assertEquals(VinValidity.INVALID_CHECK_DIGIT, results[1]);
+        assertEquals(1, VinDecoder.validate(new CharSequence[]{"JHMCM56557C404453", "", null}, results));
+        assertEquals(VinValidity.INVALID_LENGTH, results[2]);
+        assertEquals(1989, VinDecoder.modelYear(data, 1, VinDecoder.UNKNOWN_YEAR));
+        assertEquals(VinRegion.ASIA, VinDecoder.region(data, 37));
+    }
+
+    @Test
+    public void testModelYear(){
+        assertEquals(1989, VinDecoder.modelYear("1M8GDM9AXKP042788"));
+        assertEquals(2007, VinDecoder.modelYear("JHMCM56557C404453"));
+        assertEquals(2019, VinDecoder.modelYear("5YJ3E1EA2KF317000"));
+        assertEquals(2019, VinDecoder.modelYear("1M8GDM9AXKP042788", 2015));
+        assertEquals(1989, VinDecoder.modelYear("5YJ3E1EA2KF317000", 1990));
+        assertEquals(VinDecoder.UNKNOWN_YEAR, VinDecoder.modelYear("1M8GDM9AXUP042788"));
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVin("1M8GDM9AXKP042788");
+        assertEquals(1989, VinDecoder.modelYear(vehicle));
+        vehicle.setModelYear("2018");
+        assertEquals(2019, VinDecoder.modelYear(vehicle));
+    }
+
+    @Test
+    public void testSections(){
+        assertEquals("1M8", VinDecoder.wmi("1m8GDM9AXKP042788"));
+        assertEquals("GDM9AX", VinDecoder.vds("1M8GDM9AXKP042788"));
+        assertEquals("KP042788", VinDecoder.vis("1M8GDM9AXKP042788"));
+        assertEquals(VinRegion.NORTH_AMERICA, VinDecoder.region("1M8GDM9AXKP042788"));
+        assertEquals(VinRegion.EUROPE, VinDecoder.region("WVWZZZ1JZ3W386752"));
+        assertEquals(VinRegion.UNKNOWN, VinDecoder.region(""));
+    }
+}
@@ -0,0 +1,80 @@
+package com.realcomp.mvr;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VinIndexTest{
+
+    @Test
+    public void testGet(){
+        VinIndex index = new VinIndex(1);
+        index.add("1FTRX18W1XKA12345", "MVR-TXDMV-1");
+        index.add("1FTRX18W1XKA12345", "MVR-TXDMV-2");
+        index.add("1FTRX18W1XKA12345", "MVR-TXDMV-1");
+        index.add(" 1ftrx18w1xka99999 ", "MVR-TXDMV-3");
+        index.add("2T1BR32E76C123456", "MVR-TXDMV-4");
+        index.add("F10GLD12345", "MVR-TXDMV-5");
+        index.add(null, "MVR-TXDMV-6");
+        index.add("", "MVR-TXDMV-6");
+
+        assertEquals(new TreeSet<>(Arrays.asList("MVR-TXDMV-1", "MVR-TXDMV-2")), index.get("1FTRX18W1XKA12345"));
+        assertEquals(Collections.singleton("MVR-TXDMV-3"), index.get("1FTRX18W1XKA99999"));
+        assertEquals(Collections.singleton("MVR-TXDMV-5"), index.get("f10gld12345"));
+        assertTrue(index.get("1FTRX18W1XKA00000").isEmpty());
+        assertTrue(index.get(null).isEmpty());
+
+        assertEquals(3, index.findByWmi("1FT").size());
+        assertEquals(3, index.findByWmiVds("1FTRX18W").size());
+        assertEquals(Collections.singleton("MVR-TXDMV-4"), index.findByWmi("2T1"));
+        assertEquals(Collections.singleton("MVR-TXDMV-5"), index.findByPrefix("F10"));
+        assertEquals(Collections.singleton("MVR-TXDMV-3"), index.findByPrefix("1FTRX18W1XKA9"));
+        assertTrue(index.findByWmi("ZZZ").isEmpty());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void testDocument(){
+        VinIndex index = new VinIndex();
+        MVRDocument doc = TestFixtures.document("1234", 2);
+        doc.getLatest().get().getVehicle().setBodyVin("1GCEK19T4YE123456");
+        index.add(doc);
+        assertEquals(Collections.singleton(doc.getGuid()), index.get("1FTRX18W1XKA12345"));
+        assertEquals(Collections.singleton(doc.getGuid()), index.get("1GCEK19T4YE123456"));
+    }
+
+    @Test
+    public void testPrefixMatchesScan(){
+        Random random = new Random(8675309);
+        VinIndex index = new VinIndex();
+        String[] vins = new String[5000];
+        for (int i = 0; i < vins.length; i++){
+            StringBuilder vin = new StringBuilder();
+            for (int c = 0; c < VinIndex.VIN_LENGTH; c++){
+                vin.append(VinIndex.ALPHABET.charAt(random.nextInt(c < 3 ? 2 : VinIndex.ALPHABET.length())));
+            }
+            vins[i] = vin.toString();
+            index.add(vins[i], "MVR-X-" + i);
+        }
+        for (String prefix: Arrays.asList("0", "01", "011", "0110", "1", "10ABC", "00000000", "1111111", "101")){
+            SortedSet<String> expected = new TreeSet<>();
+            for (int i = 0; i < vins.length; i++){
+                if (vins[i].startsWith(prefix)){
+                    expected.add("MVR-X-" + i);
+                }
+            }
+            assertEquals(prefix, expected, index.findByPrefix(prefix));
+        }
+        assertEquals(Collections.singleton("MVR-X-42"), index.get(vins[42]));
+        assertEquals(Collections.singleton("MVR-X-42"), index.findByPrefix(vins[42].substring(0, 12)));
+        assertFalse(index.findByWmiVds(vins[7].substring(0, 8)).isEmpty());
+    }
+}